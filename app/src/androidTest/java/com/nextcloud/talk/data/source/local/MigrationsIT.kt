@@ -0,0 +1,85 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.nextcloud.talk.data.source.local
+
+import androidx.room.testing.MigrationTestHelper
+import androidx.test.platform.app.InstrumentationRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+
+class MigrationsIT {
+    @get:Rule
+    val helper: MigrationTestHelper = MigrationTestHelper(
+        InstrumentationRegistry.getInstrumentation(),
+        TalkDatabase::class.java
+    )
+
+    @Test
+    fun migrate8To9() {
+        helper.createDatabase(TEST_DB, 8).apply {
+            execSQL("INSERT INTO User (id, userId, current, scheduledForDeletion) VALUES (1, 'test', 1, 0)")
+            close()
+        }
+
+        helper.runMigrationsAndValidate(TEST_DB, 9, true, Migrations.MIGRATION_8_9).apply {
+            query("SELECT userId FROM User").use {
+                it.moveToFirst()
+                assertEquals("test", it.getString(0))
+            }
+            execSQL(
+                "INSERT INTO ChatMessages (accountId, token, id, timestamp, expirationTimestamp, payload) " +
+                    "VALUES (1, 'abc', 42, 0, 0, '{}')"
+            )
+            close()
+        }
+    }
+
+    @Test
+    fun migrate8To10() {
+        helper.createDatabase(TEST_DB, 8).close()
+
+        helper.runMigrationsAndValidate(
+            TEST_DB,
+            10,
+            true,
+            Migrations.MIGRATION_8_9,
+            Migrations.MIGRATION_9_10
+        ).apply {
+            execSQL("INSERT INTO Conversations (accountId, token, payload) VALUES (1, 'abc', '{}')")
+            close()
+        }
+    }
+
+    @Test
+    fun migrate10To11() {
+        helper.createDatabase(TEST_DB, 10).close()
+
+        helper.runMigrationsAndValidate(TEST_DB, 11, true, Migrations.MIGRATION_10_11).apply {
+            execSQL("INSERT INTO LinkPreviews (accountId, url, fetchedAt, payload) VALUES (1, 'https://a.b', 0, '{}')")
+            close()
+        }
+    }
+
+    companion object {
+        private const val TEST_DB = "migration-test"
+    }
+}
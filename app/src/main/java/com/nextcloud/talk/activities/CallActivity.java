@@ -55,6 +55,7 @@ import android.widget.RelativeLayout;
 import android.widget.Toast;
 
 import com.bluelinelabs.logansquare.LoganSquare;
+import com.nextcloud.talk.BuildConfig;
 import com.nextcloud.talk.R;
 import com.nextcloud.talk.adapters.ParticipantDisplayItem;
 import com.nextcloud.talk.adapters.ParticipantsAdapter;
@@ -63,7 +64,6 @@ import com.nextcloud.talk.application.NextcloudTalkApplication;
 import com.nextcloud.talk.data.user.model.User;
 import com.nextcloud.talk.databinding.CallActivityBinding;
 import com.nextcloud.talk.events.ConfigurationChangeEvent;
-import com.nextcloud.talk.events.NetworkEvent;
 import com.nextcloud.talk.events.ProximitySensorEvent;
 import com.nextcloud.talk.events.WebSocketCommunicationEvent;
 import com.nextcloud.talk.models.ExternalSignalingServer;
@@ -73,13 +73,13 @@ import com.nextcloud.talk.models.json.conversations.RoomOverall;
 import com.nextcloud.talk.models.json.conversations.RoomsOverall;
 import com.nextcloud.talk.models.json.generic.GenericOverall;
 import com.nextcloud.talk.models.json.participants.Participant;
-import com.nextcloud.talk.models.json.signaling.DataChannelMessage;
 import com.nextcloud.talk.models.json.signaling.NCMessagePayload;
 import com.nextcloud.talk.models.json.signaling.NCSignalingMessage;
 import com.nextcloud.talk.models.json.signaling.Signaling;
-import com.nextcloud.talk.models.json.signaling.SignalingOverall;
 import com.nextcloud.talk.models.json.signaling.settings.IceServer;
 import com.nextcloud.talk.models.json.signaling.settings.SignalingSettingsOverall;
+import com.nextcloud.talk.signaling.InternalSignalingPoller;
+import com.nextcloud.talk.signaling.SignalingMessageBatcher;
 import com.nextcloud.talk.signaling.SignalingMessageReceiver;
 import com.nextcloud.talk.signaling.SignalingMessageSender;
 import com.nextcloud.talk.ui.dialog.AudioOutputDialog;
@@ -91,9 +91,12 @@ import com.nextcloud.talk.utils.animations.PulseAnimation;
 import com.nextcloud.talk.utils.permissions.PlatformPermissionUtil;
 import com.nextcloud.talk.utils.power.PowerManagerUtils;
 import com.nextcloud.talk.utils.singletons.ApplicationWideCurrentRoomHolder;
+import com.nextcloud.talk.webrtc.CallStatsCollector;
 import com.nextcloud.talk.webrtc.MagicWebRTCUtils;
 import com.nextcloud.talk.webrtc.MagicWebSocketInstance;
+import com.nextcloud.talk.webrtc.PeerConnectionStats;
 import com.nextcloud.talk.webrtc.PeerConnectionWrapper;
+import com.nextcloud.talk.webrtc.VideoCaptureProfileManager;
 import com.nextcloud.talk.webrtc.WebRtcAudioManager;
 import com.nextcloud.talk.webrtc.WebSocketConnectionHelper;
 import com.wooplr.spotlight.SpotlightView;
@@ -121,8 +124,10 @@ import org.webrtc.VideoCapturer;
 import org.webrtc.VideoSource;
 import org.webrtc.VideoTrack;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -130,7 +135,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
@@ -144,6 +148,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 import androidx.core.graphics.drawable.DrawableCompat;
 import autodagger.AutoInjector;
+import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -208,6 +213,13 @@ public class CallActivity extends CallBaseActivity {
     private static final int MICROPHONE_PIP_REQUEST_MUTE = 1;
     private static final int MICROPHONE_PIP_REQUEST_UNMUTE = 2;
 
+    private static final long SIGNALING_MESSAGES_BATCH_WINDOW_MILLIS = 50;
+
+    private static final String CALL_STATS_DIRECTORY = "call_stats";
+    private static final int NICK_RESENDS_AFTER_JOIN = 5;
+    private static final long NICK_RESEND_INTERVAL_SECONDS = 1;
+    private static final int MAX_CALL_STATS_SUMMARIES = 10;
+
     private BroadcastReceiver mReceiver;
 
     private PeerConnectionFactory peerConnectionFactory;
@@ -220,8 +232,10 @@ public class CallActivity extends CallBaseActivity {
     private AudioSource audioSource;
     private AudioTrack localAudioTrack;
     private VideoCapturer videoCapturer;
+    private VideoCaptureProfileManager videoCaptureProfileManager;
+    private CallStatsCollector callStatsCollector;
     private EglBase rootEglBase;
-    private Disposable signalingDisposable;
+    private InternalSignalingPoller internalSignalingPoller;
     private List<PeerConnection.IceServer> iceServers;
     private CameraEnumerator cameraEnumerator;
     private String roomToken;
@@ -259,6 +273,7 @@ public class CallActivity extends CallBaseActivity {
     private SignalingMessageSender signalingMessageSender;
 
     private Map<String, OfferAnswerNickProvider> offerAnswerNickProviders = new HashMap<>();
+    private Disposable nickResendDisposable;
 
     private Map<String, SignalingMessageReceiver.CallParticipantMessageListener> callParticipantMessageListeners =
         new HashMap<>();
@@ -383,6 +398,12 @@ public class CallActivity extends CallBaseActivity {
         }
         basicInitialization();
         participantDisplayItems = new HashMap<>();
+        videoCaptureProfileManager = new VideoCaptureProfileManager(this);
+        callStatsCollector = new CallStatsCollector(Schedulers.computation(),
+                                                    AndroidSchedulers.mainThread(),
+                                                    () -> new ArrayList<>(peerConnectionWrapperList),
+                                                    this::onCallStatsUpdated);
+        updateCallStatsCollection();
         initViews();
         if (!isConnectionEstablished()) {
             initiateCall();
@@ -418,6 +439,11 @@ public class CallActivity extends CallBaseActivity {
     private void initClickListeners() {
         binding.pictureInPictureButton.setOnClickListener(l -> enterPipMode());
 
+        binding.callInfosLinearLayout.setOnLongClickListener(l -> {
+            toggleCallStatsOverlay();
+            return true;
+        });
+
         binding.audioOutputButton.setOnClickListener(v -> {
             audioOutputDialog = new AudioOutputDialog(this);
             audioOutputDialog.show();
@@ -700,6 +726,8 @@ public class CallActivity extends CallBaseActivity {
         Log.d(TAG, "initGridAdapter");
         int columns;
         int participantsInGrid = participantDisplayItems.size();
+        // The local participant is not part of the grid
+        videoCaptureProfileManager.setParticipantCount(participantsInGrid + 1);
         if (getResources() != null
             && getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT) {
             if (participantsInGrid > 2) {
@@ -740,6 +768,10 @@ public class CallActivity extends CallBaseActivity {
                 }
             });
 
+        if (participantsAdapter != null) {
+            participantsAdapter.destroy();
+        }
+
         participantsAdapter = new ParticipantsAdapter(
             this,
             participantDisplayItems,
@@ -748,6 +780,7 @@ public class CallActivity extends CallBaseActivity {
             columns,
             isVoiceOnlyCall);
         binding.gridview.setAdapter(participantsAdapter);
+        binding.gridview.setOnScrollListener(participantsAdapter);
 
         if (isInPipMode) {
             updateUiForPipMode();
@@ -1063,22 +1096,14 @@ public class CallActivity extends CallBaseActivity {
     }
 
     private void toggleMedia(boolean enable, boolean video) {
-        String message;
         if (video) {
-            message = "videoOff";
             if (enable) {
                 binding.cameraButton.setAlpha(1.0f);
-                message = "videoOn";
                 startVideoCapture();
             } else {
                 binding.cameraButton.setAlpha(0.7f);
-                if (videoCapturer != null) {
-                    try {
-                        videoCapturer.stopCapture();
-                    } catch (InterruptedException e) {
-                        Log.d(TAG, "Failed to stop capturing video while sensor is near the ear");
-                    }
-                }
+                videoCaptureProfileManager.stopCapture();
+                updateCallStatsCollection();
             }
 
             if (localStream != null && localStream.videoTracks.size() > 0) {
@@ -1090,9 +1115,7 @@ public class CallActivity extends CallBaseActivity {
                 binding.selfVideoRenderer.setVisibility(View.INVISIBLE);
             }
         } else {
-            message = "audioOff";
             if (enable) {
-                message = "audioOn";
                 binding.microphoneButton.setAlpha(1.0f);
             } else {
                 binding.microphoneButton.setAlpha(0.7f);
@@ -1106,12 +1129,12 @@ public class CallActivity extends CallBaseActivity {
         if (isConnectionEstablished() && peerConnectionWrapperList != null) {
             if (!hasMCU) {
                 for (PeerConnectionWrapper peerConnectionWrapper : peerConnectionWrapperList) {
-                    peerConnectionWrapper.sendChannelData(new DataChannelMessage(message));
+                    sendMediaStatus(peerConnectionWrapper, enable, video);
                 }
             } else {
                 for (PeerConnectionWrapper peerConnectionWrapper : peerConnectionWrapperList) {
                     if (peerConnectionWrapper.getSessionId().equals(webSocketClient.getSessionId())) {
-                        peerConnectionWrapper.sendChannelData(new DataChannelMessage(message));
+                        sendMediaStatus(peerConnectionWrapper, enable, video);
                         break;
                     }
                 }
@@ -1119,6 +1142,14 @@ public class CallActivity extends CallBaseActivity {
         }
     }
 
+    private void sendMediaStatus(PeerConnectionWrapper peerConnectionWrapper, boolean enable, boolean video) {
+        if (video) {
+            peerConnectionWrapper.sendVideoOn(enable);
+        } else {
+            peerConnectionWrapper.sendAudioOn(enable);
+        }
+    }
+
 
     private void animateCallControls(boolean show, long startDelay) {
         if (isVoiceOnlyCall) {
@@ -1495,55 +1526,19 @@ public class CallActivity extends CallBaseActivity {
                             int apiVersion = ApiUtils.getSignalingApiVersion(conversationUser,
                                                                              new int[]{ApiUtils.APIv3, 2, 1});
 
-                            AtomicInteger delayOnError = new AtomicInteger(0);
-
-                            ncApi.pullSignalingMessages(credentials,
-                                                        ApiUtils.getUrlForSignaling(apiVersion,
-                                                                                    baseUrl,
-                                                                                    roomToken))
-                                .subscribeOn(Schedulers.io())
-                                .observeOn(AndroidSchedulers.mainThread())
-                                .repeatWhen(observable -> observable)
-                                .takeWhile(observable -> isConnectionEstablished())
-                                .doOnNext(value -> delayOnError.set(0))
-                                .retryWhen(errors -> errors
-                                               .flatMap(error -> {
-                                                   if (!isConnectionEstablished()) {
-                                                       return Observable.error(error);
-                                                   }
-
-                                                   if (delayOnError.get() == 0) {
-                                                       delayOnError.set(1);
-                                                   } else if (delayOnError.get() < 16) {
-                                                       delayOnError.set(delayOnError.get() * 2);
-                                                   }
-
-                                                   return Observable.timer(delayOnError.get(), TimeUnit.SECONDS);
-                                               })
-                                          )
-                                .subscribe(new Observer<SignalingOverall>() {
-                                    @Override
-                                    public void onSubscribe(@io.reactivex.annotations.NonNull Disposable d) {
-                                        signalingDisposable = d;
-                                    }
-
-                                    @Override
-                                    public void onNext(
-                                        @io.reactivex.annotations.NonNull
-                                            SignalingOverall signalingOverall) {
-                                        receivedSignalingMessages(signalingOverall.getOcs().getSignalings());
-                                    }
-
-                                    @Override
-                                    public void onError(@io.reactivex.annotations.NonNull Throwable e) {
-                                        dispose(signalingDisposable);
-                                    }
-
-                                    @Override
-                                    public void onComplete() {
-                                        dispose(signalingDisposable);
-                                    }
-                                });
+                            if (internalSignalingPoller != null) {
+                                internalSignalingPoller.stop();
+                            }
+                            internalSignalingPoller = new InternalSignalingPoller(
+                                ncApi.pullSignalingMessages(credentials,
+                                                            ApiUtils.getUrlForSignaling(apiVersion,
+                                                                                        baseUrl,
+                                                                                        roomToken)),
+                                Schedulers.io(),
+                                AndroidSchedulers.mainThread(),
+                                CallActivity.this::isConnectionEstablished,
+                                CallActivity.this::receivedSignalingMessages);
+                            internalSignalingPoller.start();
                         }
                     }
                 }
@@ -1613,7 +1608,7 @@ public class CallActivity extends CallBaseActivity {
                 break;
             case "roomJoined":
                 Log.d(TAG, "onMessageEvent 'roomJoined'");
-                startSendingNick();
+                sendNick();
 
                 if (webSocketCommunicationEvent.getHashMap().get("roomToken").equals(roomToken)) {
                     performCall();
@@ -1625,11 +1620,13 @@ public class CallActivity extends CallBaseActivity {
     private void dispose(@Nullable Disposable disposable) {
         if (disposable != null && !disposable.isDisposed()) {
             disposable.dispose();
-        } else if (disposable == null) {
-            if (signalingDisposable != null && !signalingDisposable.isDisposed()) {
-                signalingDisposable.dispose();
-                signalingDisposable = null;
-            }
+        } else if (disposable == null && internalSignalingPoller != null) {
+            internalSignalingPoller.stop();
+            Log.d(TAG, "Internal signaling: " + internalSignalingPoller.getRequestCount() + " requests, " +
+                internalSignalingPoller.getEmptyResponseCount() + " empty responses, " +
+                internalSignalingPoller.getErrorCount() + " errors, " +
+                internalSignalingPoller.getAverageLatencyMillis() + " ms average latency");
+            internalSignalingPoller = null;
         }
     }
 
@@ -1670,15 +1667,16 @@ public class CallActivity extends CallBaseActivity {
         }
         stopCallingSound();
         dispose(null);
+        stopResendingNick();
 
         if (shutDownView) {
+            callStatsCollector.stop();
+            if (BuildConfig.DEBUG) {
+                writeCallStatsSummary();
+            }
 
             if (videoCapturer != null) {
-                try {
-                    videoCapturer.stopCapture();
-                } catch (InterruptedException e) {
-                    Log.e(TAG, "Failed to stop capturing while hanging up");
-                }
+                videoCaptureProfileManager.stopCapture();
                 videoCapturer.dispose();
                 videoCapturer = null;
             }
@@ -1727,6 +1725,114 @@ public class CallActivity extends CallBaseActivity {
         ApplicationWideCurrentRoomHolder.getInstance().setInCall(false);
     }
 
+    private void toggleCallStatsOverlay() {
+        if (binding.callStatsTextView.getVisibility() == View.VISIBLE) {
+            binding.callStatsTextView.setVisibility(View.GONE);
+        } else {
+            binding.callStatsTextView.setText(formatCallStats(callStatsCollector.getLatestStats()));
+            binding.callStatsTextView.setVisibility(View.VISIBLE);
+        }
+        updateCallStatsCollection();
+    }
+
+    /**
+     * Stats are only collected while the overlay shows them or the local video is captured, as the capture profile
+     * depends on the measured uplink, or during the whole call in debug builds, which also write a summary when the
+     * call is left.
+     */
+    private void updateCallStatsCollection() {
+        if (BuildConfig.DEBUG ||
+            binding.callStatsTextView.getVisibility() == View.VISIBLE ||
+            videoCaptureProfileManager.isCapturing()) {
+            callStatsCollector.start();
+        } else {
+            callStatsCollector.stop();
+        }
+    }
+
+    private void onCallStatsUpdated(Map<String, PeerConnectionStats> stats) {
+        updateMeasuredUplink(stats);
+
+        runOnUiThread(() -> {
+            if (binding != null && binding.callStatsTextView.getVisibility() == View.VISIBLE) {
+                binding.callStatsTextView.setText(formatCallStats(stats));
+            }
+        });
+    }
+
+    /**
+     * Provides the uplink of the connections sending the local video to the capture profile manager.
+     *
+     * With the MCU only the publisher connection sends it, otherwise every video connection sends the same capture, so
+     * the slowest one is used. The measured send bitrate is only a lower bound of the uplink, as it is limited by the
+     * current capture profile, so the bitrate estimated by the congestion control is used when it is higher.
+     */
+    private void updateMeasuredUplink(Map<String, PeerConnectionStats> stats) {
+        String publisherKey = hasMCU && webSocketClient != null ?
+            webSocketClient.getSessionId() + "-" + VIDEO_STREAM_TYPE_VIDEO : null;
+
+        long uplinkKbps = Long.MAX_VALUE;
+        for (Map.Entry<String, PeerConnectionStats> entry : stats.entrySet()) {
+            PeerConnectionStats peerConnectionStats = entry.getValue();
+            boolean sendsVideo = publisherKey != null ?
+                publisherKey.equals(entry.getKey()) : entry.getKey().endsWith("-" + VIDEO_STREAM_TYPE_VIDEO);
+            if (!sendsVideo || peerConnectionStats.getAvailableOutgoingBitrateKbps() == PeerConnectionStats.UNKNOWN) {
+                continue;
+            }
+
+            uplinkKbps = Math.min(uplinkKbps, Math.max(peerConnectionStats.getAvailableOutgoingBitrateKbps(),
+                                                       peerConnectionStats.getSendBitrateKbps()));
+        }
+
+        if (uplinkKbps != Long.MAX_VALUE) {
+            videoCaptureProfileManager.setMeasuredUplinkKbps(uplinkKbps);
+        }
+    }
+
+    private String formatCallStats(Map<String, PeerConnectionStats> stats) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, PeerConnectionStats> entry : stats.entrySet()) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(entry.getKey()).append('\n').append(entry.getValue());
+        }
+
+        return text.toString();
+    }
+
+    private void writeCallStatsSummary() {
+        if (!callStatsCollector.hasSummary()) {
+            return;
+        }
+
+        File directory = new File(getFilesDir(), CALL_STATS_DIRECTORY);
+        File file = new File(directory, System.currentTimeMillis() + ".txt");
+        CallStatsCollector collector = callStatsCollector;
+
+        Completable.fromAction(() -> {
+                collector.writeSummary(file);
+                deleteOldCallStatsSummaries(directory);
+            })
+            .subscribeOn(Schedulers.io())
+            .subscribe(() -> Log.d(TAG, "Call stats summary written to " + file),
+                       throwable -> Log.e(TAG, "Failed to write call stats summary", throwable));
+    }
+
+    private static void deleteOldCallStatsSummaries(File directory) {
+        File[] files = directory.listFiles();
+        if (files == null || files.length <= MAX_CALL_STATS_SUMMARIES) {
+            return;
+        }
+
+        Arrays.sort(files, (file1, file2) -> Long.compare(file1.lastModified(), file2.lastModified()));
+        for (int i = 0; i < files.length - MAX_CALL_STATS_SUMMARIES; i++) {
+            if (!files[i].delete()) {
+                Log.w(TAG, "Failed to delete old call stats summary " + files[i]);
+            }
+        }
+    }
+
     private void hangupNetworkCalls(boolean shutDownView) {
         Log.d(TAG, "hangupNetworkCalls. shutDownView=" + shutDownView);
         int apiVersion = ApiUtils.getCallApiVersion(conversationUser, new int[]{ApiUtils.APIv4, 1});
@@ -1763,9 +1869,8 @@ public class CallActivity extends CallBaseActivity {
     }
 
     private void startVideoCapture() {
-        if (videoCapturer != null) {
-            videoCapturer.startCapture(1280, 720, 30);
-        }
+        videoCaptureProfileManager.startCapture(videoCapturer);
+        updateCallStatsCollection();
     }
 
     private void processUsersInRoom(List<Participant> participants) {
@@ -1869,6 +1974,11 @@ public class CallActivity extends CallBaseActivity {
             }
         }
 
+        if (hasMCU && newSessions.size() > 0) {
+            // Let the participants that just joined know the nick of the local participant
+            resendNickForNewParticipants();
+        }
+
         if (newSessions.size() > 0 && currentCallStatus != CallStatus.IN_CONVERSATION) {
             setCallState(CallStatus.IN_CONVERSATION);
         }
@@ -2005,7 +2115,7 @@ public class CallActivity extends CallBaseActivity {
             }
 
             if (publisher) {
-                startSendingNick();
+                sendNick();
             }
 
             return peerConnectionWrapper;
@@ -2155,46 +2265,63 @@ public class CallActivity extends CallBaseActivity {
         }
     }
 
-    private void startSendingNick() {
-        DataChannelMessage dataChannelMessage = new DataChannelMessage();
-        dataChannelMessage.setType("nickChanged");
-        Map<String, String> nickChangedPayload = new HashMap<>();
-        nickChangedPayload.put("userid", conversationUser.getUserId());
-        nickChangedPayload.put("name", conversationUser.getDisplayName());
-        dataChannelMessage.setPayloadMap(nickChangedPayload);
-        for (PeerConnectionWrapper peerConnectionWrapper : peerConnectionWrapperList) {
-            if (peerConnectionWrapper.isMCUPublisher()) {
-                Observable
-                    .interval(1, TimeUnit.SECONDS)
-                    .repeatUntil(() -> (!isConnectionEstablished() || isDestroyed()))
-                    .observeOn(Schedulers.io())
-                    .subscribe(new Observer<Long>() {
-                        @Override
-                        public void onSubscribe(@io.reactivex.annotations.NonNull Disposable d) {
-                            // unused atm
-                        }
+    /**
+     * Sends the nick of the local participant through the MCU publisher connection.
+     *
+     * With the MCU the nick is not included in the offers and answers, so it needs to be sent through the data channel
+     * instead. The publisher connection resends it whenever its data channel opens, but as the MCU only relays it to
+     * the participants subscribed at that moment it needs to be sent again when other participants join the call.
+     */
+    private void sendNick() {
+        PeerConnectionWrapper publisherPeerConnectionWrapper = getMCUPublisherPeerConnectionWrapper();
+        if (publisherPeerConnectionWrapper != null) {
+            publisherPeerConnectionWrapper.sendNick(conversationUser.getUserId(), conversationUser.getDisplayName());
+        }
+    }
 
-                        @Override
-                        public void onNext(@io.reactivex.annotations.NonNull Long aLong) {
-                            peerConnectionWrapper.sendChannelData(dataChannelMessage);
-                        }
+    /**
+     * Sends the nick now and a few more times during the following seconds.
+     *
+     * The participants listed in "usersInRoom" have not necessarily subscribed to the publisher yet, so a single send
+     * could reach the MCU before it relays anything to them. A later join restarts the resends.
+     */
+    private void resendNickForNewParticipants() {
+        stopResendingNick();
+        sendNick();
 
-                        @Override
-                        public void onError(@io.reactivex.annotations.NonNull Throwable e) {
-                            // unused atm
-                        }
+        PeerConnectionWrapper publisherPeerConnectionWrapper = getMCUPublisherPeerConnectionWrapper();
+        if (publisherPeerConnectionWrapper == null) {
+            return;
+        }
 
-                        @Override
-                        public void onComplete() {
-                            // unused atm
-                        }
-                    });
-                break;
-            }
+        String userId = conversationUser.getUserId();
+        String displayName = conversationUser.getDisplayName();
+        nickResendDisposable = Observable
+            .interval(NICK_RESEND_INTERVAL_SECONDS, TimeUnit.SECONDS)
+            .take(NICK_RESENDS_AFTER_JOIN)
+            .observeOn(Schedulers.io())
+            .subscribe(
+                tick -> publisherPeerConnectionWrapper.sendNick(userId, displayName),
+                e -> Log.e(TAG, "Failed to resend nick", e));
+    }
 
+    private void stopResendingNick() {
+        if (nickResendDisposable != null) {
+            nickResendDisposable.dispose();
+            nickResendDisposable = null;
         }
     }
 
+    @Nullable
+    private PeerConnectionWrapper getMCUPublisherPeerConnectionWrapper() {
+        for (PeerConnectionWrapper peerConnectionWrapper : peerConnectionWrapperList) {
+            if (peerConnectionWrapper.isMCUPublisher()) {
+                return peerConnectionWrapper;
+            }
+        }
+        return null;
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions,
                                            @NonNull int[] grantResults) {
@@ -2730,6 +2857,10 @@ public class CallActivity extends CallBaseActivity {
 
     private class InternalSignalingMessageSender implements SignalingMessageSender {
 
+        // messages sent in quick succession, like trickled ICE candidates, are sent in a single request
+        private final SignalingMessageBatcher signalingMessageBatcher =
+            new SignalingMessageBatcher(Schedulers.io(), SIGNALING_MESSAGES_BATCH_WINDOW_MILLIS, this::sendBatch);
+
         @Override
         public void send(NCSignalingMessage ncSignalingMessage) {
             addLocalParticipantNickIfNeeded(ncSignalingMessage);
@@ -2757,38 +2888,22 @@ public class CallActivity extends CallBaseActivity {
                 .append("\"ev\":\"message\"")
                 .append('}');
 
-            List<String> strings = new ArrayList<>();
-            String stringToSend = stringBuilder.toString();
-            strings.add(stringToSend);
+            signalingMessageBatcher.add(stringBuilder.toString());
+        }
 
+        private Completable sendBatch(List<String> messages) {
             int apiVersion = ApiUtils.getSignalingApiVersion(conversationUser, new int[]{ApiUtils.APIv3, 2, 1});
 
-            ncApi.sendSignalingMessages(credentials, ApiUtils.getUrlForSignaling(apiVersion, baseUrl, roomToken),
-                                        strings.toString())
+            return ncApi.sendSignalingMessages(credentials,
+                                               ApiUtils.getUrlForSignaling(apiVersion, baseUrl, roomToken),
+                                               messages.toString())
                 .retry(3)
                 .subscribeOn(Schedulers.io())
-                .subscribe(new Observer<SignalingOverall>() {
-                    @Override
-                    public void onSubscribe(@io.reactivex.annotations.NonNull Disposable d) {
-                    }
-
-                    @Override
-                    public void onNext(@io.reactivex.annotations.NonNull SignalingOverall signalingOverall) {
-                        // When sending messages to the internal signaling server the response has been empty since
-                        // Talk v2.9.0, so it is not really needed to process it, but there is no harm either in
-                        // doing that, as technically messages could be returned.
-                        receivedSignalingMessages(signalingOverall.getOcs().getSignalings());
-                    }
-
-                    @Override
-                    public void onError(@io.reactivex.annotations.NonNull Throwable e) {
-                        Log.e(TAG, "", e);
-                    }
-
-                    @Override
-                    public void onComplete() {
-                    }
-                });
+                // When sending messages to the internal signaling server the response has been empty since Talk
+                // v2.9.0, so it is not really needed to process it, but there is no harm either in doing that, as
+                // technically messages could be returned.
+                .doOnNext(signalingOverall -> receivedSignalingMessages(signalingOverall.getOcs().getSignalings()))
+                .ignoreElements();
         }
 
         /**
@@ -2832,20 +2947,6 @@ public class CallActivity extends CallBaseActivity {
         }
     }
 
-    @Subscribe(threadMode = ThreadMode.BACKGROUND)
-    public void onMessageEvent(NetworkEvent networkEvent) {
-        if (networkEvent.getNetworkConnectionEvent() == NetworkEvent.NetworkConnectionEvent.NETWORK_CONNECTED) {
-            if (handler != null) {
-                handler.removeCallbacksAndMessages(null);
-            }
-        } else if (networkEvent.getNetworkConnectionEvent() ==
-            NetworkEvent.NetworkConnectionEvent.NETWORK_DISCONNECTED) {
-            if (handler != null) {
-                handler.removeCallbacksAndMessages(null);
-            }
-        }
-    }
-
     @RequiresApi(api = Build.VERSION_CODES.O)
     @Override
     public void onPictureInPictureModeChanged(boolean isInPictureInPictureMode, Configuration newConfig) {
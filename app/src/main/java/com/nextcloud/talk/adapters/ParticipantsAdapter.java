@@ -5,6 +5,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.BaseAdapter;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
@@ -23,9 +24,19 @@ import org.webrtc.SurfaceViewRenderer;
 import org.webrtc.VideoTrack;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-public class ParticipantsAdapter extends BaseAdapter {
+/**
+ * Adapter for the participants grid of a call.
+ *
+ * The GridView only creates views for the visible tiles, but the remote video tracks would still be rendered into
+ * every renderer they were ever attached to. Therefore each renderer is attached to at most one video track (the one
+ * of the participant currently bound to it), and the video tracks of the participants that are not visible are
+ * disabled so their frames are not rendered until they are scrolled into view again.
+ */
+public class ParticipantsAdapter extends BaseAdapter implements AbsListView.OnScrollListener {
 
     private static final String TAG = "ParticipantsAdapter";
 
@@ -36,6 +47,9 @@ public class ParticipantsAdapter extends BaseAdapter {
     private final int columns;
     private final boolean isVoiceOnlyCall;
 
+    private final List<SurfaceViewRenderer> surfaceViewRenderers = new ArrayList<>();
+    private final Map<SurfaceViewRenderer, VideoTrack> videoTracksByRenderer = new HashMap<>();
+
     public ParticipantsAdapter(Context mContext,
                                Map<String, ParticipantDisplayItem> participantDisplayItems,
                                RelativeLayout gridViewWrapper,
@@ -87,6 +101,7 @@ public class ParticipantsAdapter extends BaseAdapter {
                 // disabled because it causes some devices to crash
                 surfaceViewRenderer.setEnableHardwareScaler(false);
                 surfaceViewRenderer.setScalingType(RendererCommon.ScalingType.SCALE_ASPECT_FIT);
+                surfaceViewRenderers.add(surfaceViewRenderer);
             } catch (Exception e) {
                 Log.e(TAG, "error while initializing surfaceViewRenderer", e);
             }
@@ -94,6 +109,8 @@ public class ParticipantsAdapter extends BaseAdapter {
             surfaceViewRenderer = convertView.findViewById(R.id.surface_view);
         }
 
+        VideoTrack previousVideoTrack = videoTracksByRenderer.remove(surfaceViewRenderer);
+
         ProgressBar progressBar = convertView.findViewById(R.id.participant_progress_bar);
         if (!participantDisplayItem.isConnected()) {
             progressBar.setVisibility(View.VISIBLE);
@@ -111,11 +128,16 @@ public class ParticipantsAdapter extends BaseAdapter {
         MediaStream mediaStream = participantDisplayItem.getMediaStream();
         if (hasVideoStream(participantDisplayItem, mediaStream)) {
             VideoTrack videoTrack = mediaStream.videoTracks.get(0);
-            videoTrack.addSink(surfaceViewRenderer);
+            if (videoTrack != previousVideoTrack) {
+                removeSink(previousVideoTrack, surfaceViewRenderer);
+                videoTrack.addSink(surfaceViewRenderer);
+            }
+            videoTracksByRenderer.put(surfaceViewRenderer, videoTrack);
             imageView.setVisibility(View.INVISIBLE);
             surfaceViewRenderer.setVisibility(View.VISIBLE);
             nickTextView.setVisibility(View.GONE);
         } else {
+            removeSink(previousVideoTrack, surfaceViewRenderer);
             imageView.setVisibility(View.VISIBLE);
             surfaceViewRenderer.setVisibility(View.INVISIBLE);
 
@@ -139,6 +161,67 @@ public class ParticipantsAdapter extends BaseAdapter {
 
     }
 
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+        // Nothing to do, only the visible items are relevant
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+        int lastVisibleItem = firstVisibleItem + visibleItemCount - 1;
+
+        for (int position = 0; position < participantDisplayItems.size(); position++) {
+            MediaStream mediaStream = participantDisplayItems.get(position).getMediaStream();
+            if (mediaStream == null || mediaStream.videoTracks == null) {
+                continue;
+            }
+
+            boolean visible = position >= firstVisibleItem && position <= lastVisibleItem;
+            for (VideoTrack videoTrack : mediaStream.videoTracks) {
+                try {
+                    if (videoTrack.enabled() != visible) {
+                        videoTrack.setEnabled(visible);
+                    }
+                } catch (IllegalStateException e) {
+                    // The track was disposed, the participant left the call
+                    Log.d(TAG, "Video track already disposed");
+                }
+            }
+        }
+    }
+
+    /**
+     * Detaches all the renderers from their video tracks and releases them.
+     *
+     * Once destroyed the adapter must not be used anymore; this is meant to be called right before replacing the
+     * adapter with a new one, as the views created by this adapter are discarded in that case.
+     */
+    public void destroy() {
+        for (Map.Entry<SurfaceViewRenderer, VideoTrack> entry : videoTracksByRenderer.entrySet()) {
+            removeSink(entry.getValue(), entry.getKey());
+        }
+
+        for (SurfaceViewRenderer surfaceViewRenderer : surfaceViewRenderers) {
+            surfaceViewRenderer.release();
+        }
+
+        videoTracksByRenderer.clear();
+        surfaceViewRenderers.clear();
+    }
+
+    private void removeSink(VideoTrack videoTrack, SurfaceViewRenderer surfaceViewRenderer) {
+        if (videoTrack == null) {
+            return;
+        }
+
+        try {
+            videoTrack.removeSink(surfaceViewRenderer);
+        } catch (IllegalStateException e) {
+            // The track was disposed, the participant left the call
+            Log.d(TAG, "Video track already disposed");
+        }
+    }
+
     private boolean hasVideoStream(ParticipantDisplayItem participantDisplayItem, MediaStream mediaStream) {
         if (!participantDisplayItem.isStreamEnabled()) {
             return false;
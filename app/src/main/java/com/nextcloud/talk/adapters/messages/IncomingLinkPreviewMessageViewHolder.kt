@@ -31,6 +31,7 @@ import autodagger.AutoInjector
 import coil.load
 import com.nextcloud.talk.R
 import com.nextcloud.talk.api.NcApi
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepository
 import com.nextcloud.talk.application.NextcloudTalkApplication
 import com.nextcloud.talk.application.NextcloudTalkApplication.Companion.sharedApplication
 import com.nextcloud.talk.databinding.ItemCustomIncomingLinkPreviewMessageBinding
@@ -67,6 +68,9 @@ class IncomingLinkPreviewMessageViewHolder(incomingView: View, payload: Any) : M
     @Inject
     lateinit var ncApi: NcApi
 
+    @Inject
+    lateinit var linkPreviewsRepository: LinkPreviewsRepository
+
     lateinit var message: ChatMessage
 
     lateinit var commonMessageInterface: CommonMessageInterface
@@ -90,6 +94,7 @@ class IncomingLinkPreviewMessageViewHolder(incomingView: View, payload: Any) : M
         LinkPreview().showLink(
             message,
             ncApi,
+            linkPreviewsRepository,
             binding.referenceInclude,
             context
         )
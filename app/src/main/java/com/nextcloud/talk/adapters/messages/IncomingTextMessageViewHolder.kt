@@ -193,47 +193,22 @@ class IncomingTextMessageViewHolder(itemView: View, payload: Any) : MessageHolde
         message: ChatMessage,
         messageString: Spannable
     ): Spannable {
-        var messageStringInternal = messageString
-        for (key in messageParameters.keys) {
-            val individualHashMap = message.messageParameters!![key]
-            if (individualHashMap != null) {
-                if (
-                    individualHashMap["type"] == "user" ||
-                    individualHashMap["type"] == "guest" ||
-                    individualHashMap["type"] == "call"
-                ) {
-                    if (individualHashMap["id"] == message.activeUser!!.userId) {
-                        messageStringInternal = DisplayUtils.searchAndReplaceWithMentionSpan(
-                            binding.messageText.context,
-                            messageStringInternal,
-                            individualHashMap["id"]!!,
-                            individualHashMap["name"]!!,
-                            individualHashMap["type"]!!,
-                            message.activeUser!!,
-                            R.xml.chip_you,
-                            viewThemeUtils
-                        )
-                    } else {
-                        messageStringInternal = DisplayUtils.searchAndReplaceWithMentionSpan(
-                            binding.messageText.context,
-                            messageStringInternal,
-                            individualHashMap["id"]!!,
-                            individualHashMap["name"]!!,
-                            individualHashMap["type"]!!,
-                            message.activeUser!!,
-                            R.xml.chip_others,
-                            viewThemeUtils
-                        )
-                    }
-                } else if (individualHashMap["type"] == "file") {
-                    itemView.setOnClickListener { v ->
-                        val browserIntent = Intent(Intent.ACTION_VIEW, Uri.parse(individualHashMap["link"]))
-                        context!!.startActivity(browserIntent)
-                    }
+        for (individualHashMap in messageParameters.values) {
+            if (individualHashMap != null && individualHashMap["type"] == "file") {
+                itemView.setOnClickListener { v ->
+                    val browserIntent = Intent(Intent.ACTION_VIEW, Uri.parse(individualHashMap["link"]))
+                    context!!.startActivity(browserIntent)
                 }
             }
         }
-        return messageStringInternal
+        return DisplayUtils.searchAndReplaceWithMentionSpans(
+            binding.messageText.context,
+            messageString,
+            messageParameters,
+            message.activeUser!!,
+            true,
+            viewThemeUtils
+        )
     }
 
     fun assignCommonMessageInterface(commonMessageInterface: CommonMessageInterface) {
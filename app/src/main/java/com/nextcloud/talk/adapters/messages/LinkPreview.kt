@@ -27,20 +27,20 @@ import android.util.Log
 import android.view.View
 import coil.load
 import com.nextcloud.talk.api.NcApi
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepository
 import com.nextcloud.talk.databinding.ReferenceInsideMessageBinding
 import com.nextcloud.talk.models.json.chat.ChatMessage
 import com.nextcloud.talk.models.json.opengraph.OpenGraphOverall
-import com.nextcloud.talk.utils.ApiUtils
 import io.reactivex.Observer
 import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.disposables.Disposable
-import io.reactivex.schedulers.Schedulers
 
 class LinkPreview {
 
     fun showLink(
         message: ChatMessage,
         ncApi: NcApi,
+        linkPreviewsRepository: LinkPreviewsRepository,
         binding: ReferenceInsideMessageBinding,
         context: Context
     ) {
@@ -49,15 +49,11 @@ class LinkPreview {
         binding.referenceLink.text = ""
         binding.referenceThumbImage.setImageDrawable(null)
 
-        if (!message.extractedUrlToPreview.isNullOrEmpty()) {
-            val credentials: String = ApiUtils.getCredentials(message.activeUser?.username, message.activeUser?.token)
-            val openGraphLink = ApiUtils.getUrlForOpenGraph(message.activeUser?.baseUrl)
-            ncApi.getOpenGraph(
-                credentials,
-                openGraphLink,
-                message.extractedUrlToPreview
-            )
-                .subscribeOn(Schedulers.io())
+        val urlToPreview = message.extractedUrlToPreview
+        val user = message.activeUser
+        binding.referenceWrapper.tag = urlToPreview
+        if (!urlToPreview.isNullOrEmpty() && user != null) {
+            LinkPreviewCache.getOpenGraph(ncApi, linkPreviewsRepository, user, urlToPreview)
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(object : Observer<OpenGraphOverall> {
                     override fun onSubscribe(d: Disposable) {
@@ -65,7 +61,12 @@ class LinkPreview {
                     }
 
                     override fun onNext(openGraphOverall: OpenGraphOverall) {
-                        val reference = openGraphOverall.ocs?.data?.references?.entries?.iterator()?.next()?.value
+                        // the view holder might have been bound to another message in the meantime
+                        if (binding.referenceWrapper.tag != urlToPreview) {
+                            return
+                        }
+
+                        val reference = openGraphOverall.ocs?.data?.references?.values?.firstOrNull()
 
                         if (reference != null) {
                             val referenceName = reference.openGraphObject?.name
@@ -105,16 +106,16 @@ class LinkPreview {
                                 browserIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK)
                                 context.startActivity(browserIntent)
                             }
+                        } else {
+                            hideReference(binding)
                         }
                     }
 
                     override fun onError(e: Throwable) {
                         Log.e(TAG, "failed to get openGraph data", e)
-                        binding.referenceName.visibility = View.GONE
-                        binding.referenceDescription.visibility = View.GONE
-                        binding.referenceLink.visibility = View.GONE
-                        binding.referenceThumbImage.visibility = View.GONE
-                        binding.referenceIndentedSideBar.visibility = View.GONE
+                        if (binding.referenceWrapper.tag == urlToPreview) {
+                            hideReference(binding)
+                        }
                     }
 
                     override fun onComplete() {
@@ -124,6 +125,14 @@ class LinkPreview {
         }
     }
 
+    private fun hideReference(binding: ReferenceInsideMessageBinding) {
+        binding.referenceName.visibility = View.GONE
+        binding.referenceDescription.visibility = View.GONE
+        binding.referenceLink.visibility = View.GONE
+        binding.referenceThumbImage.visibility = View.GONE
+        binding.referenceIndentedSideBar.visibility = View.GONE
+    }
+
     companion object {
         private val TAG = LinkPreview::class.java.simpleName
         private const val HTTPS_PROTOCOL = "https://"
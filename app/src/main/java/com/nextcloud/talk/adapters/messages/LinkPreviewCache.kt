@@ -0,0 +1,118 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.adapters.messages
+
+import android.database.SQLException
+import android.util.Log
+import android.util.LruCache
+import com.nextcloud.talk.api.NcApi
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepository
+import com.nextcloud.talk.data.linkpreview.model.StoredLinkPreview
+import com.nextcloud.talk.data.user.model.User
+import com.nextcloud.talk.models.json.opengraph.OpenGraphOverall
+import com.nextcloud.talk.utils.ApiUtils
+import io.reactivex.Observable
+import io.reactivex.schedulers.Schedulers
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Memory and database cache for the reference (OpenGraph) results shown by [LinkPreview].
+ *
+ * Results are cached per account and URL for [TTL_MILLIS], in memory and in the encrypted database. Concurrent
+ * requests for the same URL, e.g. when the same link is bound by several view holders, share a single network call.
+ * The stored results are trimmed every [TRIM_INTERVAL_WRITES] writes, and those of an account are dropped with
+ * [clearForAccount] when the account is removed.
+ */
+object LinkPreviewCache {
+    private val TAG = LinkPreviewCache::class.java.simpleName
+    private const val TTL_MILLIS = 24 * 60 * 60 * 1000L
+    private const val MAX_MEMORY_ENTRIES = 100
+    private const val MAX_STORED_ENTRIES = 500
+    private const val TRIM_INTERVAL_WRITES = 50
+
+    private val memoryCache = LruCache<String, StoredLinkPreview>(MAX_MEMORY_ENTRIES)
+    private val inFlightRequests = HashMap<String, Observable<OpenGraphOverall>>()
+    private val writesSinceTrim = AtomicInteger()
+
+    fun getOpenGraph(
+        ncApi: NcApi,
+        linkPreviewsRepository: LinkPreviewsRepository,
+        user: User,
+        url: String
+    ): Observable<OpenGraphOverall> {
+        val key = "${user.id}:$url"
+
+        memoryCache.get(key)?.let {
+            if (!isExpired(it.fetchedAt)) {
+                return Observable.just(it.openGraphOverall)
+            }
+        }
+
+        synchronized(inFlightRequests) {
+            inFlightRequests[key]?.let { return it }
+
+            val accountId = user.id!!
+            val request = linkPreviewsRepository
+                .getLinkPreview(accountId, url, System.currentTimeMillis() - TTL_MILLIS)
+                .toObservable()
+                .switchIfEmpty(
+                    Observable.defer {
+                        val credentials = ApiUtils.getCredentials(user.username, user.token)
+                        ncApi.getOpenGraph(credentials, ApiUtils.getUrlForOpenGraph(user.baseUrl), url)
+                            .map { StoredLinkPreview(it, System.currentTimeMillis()) }
+                            .doOnNext { store(linkPreviewsRepository, accountId, url, it) }
+                    }
+                )
+                .doOnNext { memoryCache.put(key, it) }
+                .map { it.openGraphOverall }
+                .doFinally { synchronized(inFlightRequests) { inFlightRequests.remove(key) } }
+                .subscribeOn(Schedulers.io())
+                .cache()
+
+            inFlightRequests[key] = request
+            return request
+        }
+    }
+
+    fun clearForAccount(accountId: Long, linkPreviewsRepository: LinkPreviewsRepository) {
+        val keyPrefix = "$accountId:"
+        memoryCache.snapshot().keys.filter { it.startsWith(keyPrefix) }.forEach { memoryCache.remove(it) }
+        linkPreviewsRepository.deleteLinkPreviewsForAccount(accountId)
+    }
+
+    private fun isExpired(fetchedAt: Long) = System.currentTimeMillis() - fetchedAt > TTL_MILLIS
+
+    private fun store(
+        linkPreviewsRepository: LinkPreviewsRepository,
+        accountId: Long,
+        url: String,
+        linkPreview: StoredLinkPreview
+    ) {
+        try {
+            linkPreviewsRepository.saveLinkPreview(accountId, url, linkPreview)
+            if (writesSinceTrim.incrementAndGet() >= TRIM_INTERVAL_WRITES) {
+                writesSinceTrim.set(0)
+                linkPreviewsRepository.trimLinkPreviews(System.currentTimeMillis() - TTL_MILLIS, MAX_STORED_ENTRIES)
+            }
+        } catch (e: SQLException) {
+            Log.w(TAG, "failed to store reference", e)
+        }
+    }
+}
@@ -31,6 +31,7 @@ import autodagger.AutoInjector
 import coil.load
 import com.nextcloud.talk.R
 import com.nextcloud.talk.api.NcApi
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepository
 import com.nextcloud.talk.application.NextcloudTalkApplication
 import com.nextcloud.talk.application.NextcloudTalkApplication.Companion.sharedApplication
 import com.nextcloud.talk.databinding.ItemCustomOutcomingLinkPreviewMessageBinding
@@ -66,6 +67,9 @@ class OutcomingLinkPreviewMessageViewHolder(outcomingView: View, payload: Any) :
     @Inject
     lateinit var ncApi: NcApi
 
+    @Inject
+    lateinit var linkPreviewsRepository: LinkPreviewsRepository
+
     lateinit var message: ChatMessage
 
     lateinit var commonMessageInterface: CommonMessageInterface
@@ -112,6 +116,7 @@ class OutcomingLinkPreviewMessageViewHolder(outcomingView: View, payload: Any) :
         LinkPreview().showLink(
             message,
             ncApi,
+            linkPreviewsRepository,
             binding.referenceInclude,
             context
         )
@@ -45,7 +45,7 @@ import com.nextcloud.talk.ui.recyclerview.MessageSwipeCallback
 import com.nextcloud.talk.ui.theme.ViewThemeUtils
 import com.nextcloud.talk.utils.ApiUtils
 import com.nextcloud.talk.utils.DateUtils
-import com.nextcloud.talk.utils.DisplayUtils.searchAndReplaceWithMentionSpan
+import com.nextcloud.talk.utils.DisplayUtils.searchAndReplaceWithMentionSpans
 import com.nextcloud.talk.utils.TextMatchers
 import com.stfalcon.chatkit.messages.MessageHolders.OutcomingTextMessageViewHolder
 import javax.inject.Inject
@@ -179,33 +179,22 @@ class OutcomingTextMessageViewHolder(itemView: View) : OutcomingTextMessageViewH
         message: ChatMessage,
         messageString: Spannable
     ): Spannable {
-        var messageString1 = messageString
-        for (key in messageParameters.keys) {
-            val individualHashMap: HashMap<String?, String?>? = message.messageParameters!![key]
-            if (individualHashMap != null) {
-                if (individualHashMap["type"] == "user" ||
-                    individualHashMap["type"] == "guest" ||
-                    individualHashMap["type"] == "call"
-                ) {
-                    messageString1 = searchAndReplaceWithMentionSpan(
-                        binding.messageText.context,
-                        messageString1,
-                        individualHashMap["id"]!!,
-                        individualHashMap["name"]!!,
-                        individualHashMap["type"]!!,
-                        message.activeUser,
-                        R.xml.chip_others,
-                        viewThemeUtils
-                    )
-                } else if (individualHashMap["type"] == "file") {
-                    realView.setOnClickListener { v: View? ->
-                        val browserIntent = Intent(Intent.ACTION_VIEW, Uri.parse(individualHashMap["link"]))
-                        context!!.startActivity(browserIntent)
-                    }
+        for (individualHashMap in messageParameters.values) {
+            if (individualHashMap != null && individualHashMap["type"] == "file") {
+                realView.setOnClickListener { v: View? ->
+                    val browserIntent = Intent(Intent.ACTION_VIEW, Uri.parse(individualHashMap["link"]))
+                    context!!.startActivity(browserIntent)
                 }
             }
         }
-        return messageString1
+        return searchAndReplaceWithMentionSpans(
+            binding.messageText.context,
+            messageString,
+            messageParameters,
+            message.activeUser,
+            false,
+            viewThemeUtils
+        )
     }
 
     fun assignCommonMessageInterface(commonMessageInterface: CommonMessageInterface) {
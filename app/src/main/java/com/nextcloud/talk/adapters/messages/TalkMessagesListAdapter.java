@@ -45,6 +45,30 @@ public class TalkMessagesListAdapter<M extends IMessage> extends MessagesListAda
         return items;
     }
 
+    /**
+     * Notifies the changed items only, adjacent positions are dispatched as one range.
+     *
+     * @param positions adapter positions in ascending order
+     */
+    public void notifyItemsChanged(List<Integer> positions) {
+        int rangeStart = -1;
+        int rangeCount = 0;
+        for (int position : positions) {
+            if (rangeCount > 0 && position == rangeStart + rangeCount) {
+                rangeCount++;
+            } else {
+                if (rangeCount > 0) {
+                    notifyItemRangeChanged(rangeStart, rangeCount);
+                }
+                rangeStart = position;
+                rangeCount = 1;
+            }
+        }
+        if (rangeCount > 0) {
+            notifyItemRangeChanged(rangeStart, rangeCount);
+        }
+    }
+
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
         super.onBindViewHolder(holder, position);
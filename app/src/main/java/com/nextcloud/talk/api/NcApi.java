@@ -35,6 +35,7 @@ import com.nextcloud.talk.models.json.generic.Status;
 import com.nextcloud.talk.models.json.hovercard.HoverCardOverall;
 import com.nextcloud.talk.models.json.mention.MentionOverall;
 import com.nextcloud.talk.models.json.notifications.NotificationOverall;
+import com.nextcloud.talk.models.json.notifications.NotificationsOverall;
 import com.nextcloud.talk.models.json.opengraph.OpenGraphOverall;
 import com.nextcloud.talk.models.json.participants.AddParticipantOverall;
 import com.nextcloud.talk.models.json.participants.ParticipantsOverall;
@@ -103,6 +104,18 @@ public interface NcApi {
     Observable<RoomsOverall> getRooms(@Header("Authorization") String authorization, @Url String url,
                                      @Nullable @Query("includeStatus") Boolean includeStatus);
 
+    /*
+        Server URL is: baseUrl + ocsApiVersion + spreedApiVersion + /room
+
+        Only rooms modified after modifiedSince are returned, the X-Nextcloud-Talk-Modified-Before header
+        contains the value to use for the next request.
+    */
+    @GET
+    Observable<Response<RoomsOverall>> getRoomsModifiedSince(@Header("Authorization") String authorization,
+                                                             @Url String url,
+                                                             @Nullable @Query("includeStatus") Boolean includeStatus,
+                                                             @Nullable @Query("modifiedSince") Long modifiedSince);
+
     /*
         Server URL is: baseUrl + ocsApiVersion + spreedApiVersion + /room/roomToken
     */
@@ -385,6 +398,10 @@ public interface NcApi {
     Observable<NotificationOverall> getNotification(@Header("Authorization") String authorization,
                                                     @Url String url);
 
+    @GET
+    Observable<NotificationsOverall> getNotifications(@Header("Authorization") String authorization,
+                                                      @Url String url);
+
     @FormUrlEncoded
     @POST
     Observable<GenericOverall> setNotificationLevel(@Header("Authorization") String authorization, @Url String url, @Field("level") int level);
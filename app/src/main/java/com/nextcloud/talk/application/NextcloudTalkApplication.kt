@@ -58,6 +58,7 @@ import com.nextcloud.talk.dagger.modules.RepositoryModule
 import com.nextcloud.talk.dagger.modules.RestModule
 import com.nextcloud.talk.dagger.modules.UtilsModule
 import com.nextcloud.talk.dagger.modules.ViewModelModule
+import com.nextcloud.talk.events.NetworkEvent
 import com.nextcloud.talk.jobs.AccountRemovalWorker
 import com.nextcloud.talk.jobs.CapabilitiesWorker
 import com.nextcloud.talk.jobs.SignalingSettingsWorker
@@ -69,6 +70,7 @@ import com.nextcloud.talk.utils.database.arbitrarystorage.ArbitraryStorageModule
 import com.nextcloud.talk.utils.database.user.UserModule
 import com.nextcloud.talk.utils.preferences.AppPreferences
 import com.nextcloud.talk.webrtc.MagicWebRTCUtils
+import com.novoda.merlin.Merlin
 import com.vanniktech.emoji.EmojiManager
 import com.vanniktech.emoji.google.GoogleEmojiProvider
 import de.cotech.hw.SecurityKeyManager
@@ -77,6 +79,7 @@ import net.sqlcipher.database.SQLiteDatabase
 import net.sqlcipher.database.SQLiteDatabaseHook
 import okhttp3.OkHttpClient
 import org.conscrypt.Conscrypt
+import org.greenrobot.eventbus.EventBus
 import org.webrtc.PeerConnectionFactory
 import org.webrtc.voiceengine.WebRtcAudioManager
 import org.webrtc.voiceengine.WebRtcAudioUtils
@@ -114,8 +117,13 @@ class NextcloudTalkApplication : MultiDexApplication(), LifecycleObserver {
 
     @Inject
     lateinit var okHttpClient: OkHttpClient
+
+    @Inject
+    lateinit var eventBus: EventBus
     //endregion
 
+    private var merlin: Merlin? = null
+
     val hook: SQLiteDatabaseHook = object : SQLiteDatabaseHook {
         override fun preKey(database: SQLiteDatabase) {
             // unused atm
@@ -148,6 +156,22 @@ class NextcloudTalkApplication : MultiDexApplication(), LifecycleObserver {
         }
     }
 
+    private fun registerNetworkCallbacks() {
+        merlin = Merlin.Builder()
+            .withConnectableCallbacks()
+            .withDisconnectableCallbacks()
+            .build(applicationContext)
+            .also {
+                it.registerConnectable {
+                    eventBus.post(NetworkEvent(NetworkEvent.NetworkConnectionEvent.NETWORK_CONNECTED))
+                }
+                it.registerDisconnectable {
+                    eventBus.post(NetworkEvent(NetworkEvent.NetworkConnectionEvent.NETWORK_DISCONNECTED))
+                }
+                it.bind()
+            }
+    }
+
     //endregion
 
     //region Overridden methods
@@ -200,10 +224,13 @@ class NextcloudTalkApplication : MultiDexApplication(), LifecycleObserver {
         EmojiManager.install(GoogleEmojiProvider())
 
         NotificationUtils.registerNotificationChannels(applicationContext, appPreferences)
+
+        registerNetworkCallbacks()
     }
 
     override fun onTerminate() {
         super.onTerminate()
+        merlin?.unbind()
         sharedApplication = null
     }
     //endregion
@@ -0,0 +1,180 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.chat
+
+import android.text.TextUtils
+import com.nextcloud.talk.data.user.model.User
+import com.nextcloud.talk.models.json.chat.ChatMessage
+import com.nextcloud.talk.models.json.chat.ChatOverall
+import com.stfalcon.chatkit.utils.DateFormatter
+import retrofit2.Response
+
+/**
+ * Prepares chat messages received from the server for rendering, meant to run on a background scheduler.
+ *
+ * Everything that only depends on the received page is done here: system messages about deletions, reactions and
+ * poll votes are resolved, messages of the page are linked to their previous message and grouped, and each
+ * message is classified. What depends on the messages already in the adapter is left to the caller on the main
+ * thread, see [PreparedChatMessages].
+ */
+class ChatMessagesPreprocessor(private val user: User?) {
+
+    /**
+     * @property messages the messages to show, in the order they were received
+     * @property receivedMessages all received messages, including the resolved system messages
+     * @property parentMessageUpdates updated messages that are not part of this page and have to be replaced in the
+     * adapter
+     */
+    class PreparedChatMessages(
+        val messages: List<ChatMessage>,
+        val receivedMessages: List<ChatMessage>,
+        val parentMessageUpdates: List<ParentMessageUpdate>
+    )
+
+    class ParentMessageUpdate(val message: ChatMessage, val isDeletion: Boolean)
+
+    /**
+     * A chat response together with its prepared messages, which are only present for a response with content.
+     */
+    class PreparedResponse(val response: Response<*>, val preparedChatMessages: PreparedChatMessages?)
+
+    fun prepare(response: Response<*>, isFromTheFuture: Boolean, isOneToOneConversation: Boolean): PreparedResponse {
+        val chatOverall = response.body() as? ChatOverall
+        val receivedMessages = chatOverall?.ocs?.data
+        if (response.code() != HTTP_CODE_OK || receivedMessages == null) {
+            return PreparedResponse(response, null)
+        }
+        return PreparedResponse(response, prepare(receivedMessages, isFromTheFuture, isOneToOneConversation))
+    }
+
+    fun prepare(
+        receivedMessages: List<ChatMessage>,
+        isFromTheFuture: Boolean,
+        isOneToOneConversation: Boolean
+    ): PreparedChatMessages {
+        val parentMessageUpdates = ArrayList<ParentMessageUpdate>()
+        val messages = handleSystemMessages(receivedMessages, parentMessageUpdates)
+
+        for (message in messages) {
+            message.isOneToOneConversation = isOneToOneConversation
+            message.activeUser = user
+            message.calculateMessageKind()
+            // renders the message parameters into the text, which is cached on the message afterwards
+            message.text
+        }
+
+        determinePreviousMessageIds(messages)
+        if (!isFromTheFuture) {
+            groupMessages(messages)
+        }
+
+        return PreparedChatMessages(messages, receivedMessages, parentMessageUpdates)
+    }
+
+    private fun handleSystemMessages(
+        chatMessageList: List<ChatMessage>,
+        parentMessageUpdates: MutableList<ParentMessageUpdate>
+    ): List<ChatMessage> {
+        val chatMessageMap = chatMessageList.map { it.id to it }.toMap().toMutableMap()
+        val chatMessageIterator = chatMessageMap.iterator()
+        while (chatMessageIterator.hasNext()) {
+            val currentMessage = chatMessageIterator.next().value
+
+            // setDeletionFlagsAndRemoveInfomessages
+            if (isInfoMessageAboutDeletion(currentMessage)) {
+                val parentMessage = currentMessage.parentMessage!!
+                if (!chatMessageMap.containsKey(parentMessage.id)) {
+                    // if chatMessageMap doesn't contain message to delete (this happens when lookingIntoFuture),
+                    // the message to delete has to be modified directly inside the adapter
+                    parentMessageUpdates.add(ParentMessageUpdate(parentMessage, true))
+                } else {
+                    chatMessageMap[parentMessage.id]!!.isDeleted = true
+                }
+                chatMessageIterator.remove()
+            }
+
+            // delete reactions system messages
+            else if (isReactionsMessage(currentMessage)) {
+                if (!chatMessageMap.containsKey(currentMessage.parentMessage!!.id)) {
+                    parentMessageUpdates.add(ParentMessageUpdate(currentMessage.parentMessage!!, false))
+                }
+
+                chatMessageIterator.remove()
+            }
+
+            // delete poll system messages
+            else if (isPollVotedMessage(currentMessage)) {
+                chatMessageIterator.remove()
+            }
+        }
+        return chatMessageMap.values.toList()
+    }
+
+    private fun isInfoMessageAboutDeletion(message: ChatMessage): Boolean {
+        return message.parentMessage != null &&
+            message.systemMessageType == ChatMessage.SystemMessageType.MESSAGE_DELETED
+    }
+
+    private fun isReactionsMessage(message: ChatMessage): Boolean {
+        return message.systemMessageType == ChatMessage.SystemMessageType.REACTION ||
+            message.systemMessageType == ChatMessage.SystemMessageType.REACTION_DELETED ||
+            message.systemMessageType == ChatMessage.SystemMessageType.REACTION_REVOKED
+    }
+
+    private fun isPollVotedMessage(message: ChatMessage): Boolean {
+        return message.systemMessageType == ChatMessage.SystemMessageType.POLL_VOTED
+    }
+
+    /**
+     * Links each message to the message following it in the page. The last message of the page is linked to the
+     * newest message of the adapter by the caller.
+     */
+    private fun determinePreviousMessageIds(chatMessageList: List<ChatMessage>) {
+        for (i in 0 until chatMessageList.size - 1) {
+            chatMessageList[i].previousMessageId = chatMessageList[i + 1].jsonMessageId
+        }
+    }
+
+    private fun groupMessages(chatMessageList: List<ChatMessage>) {
+        var countGroupedMessages = 0
+        for (i in 0 until chatMessageList.size - 1) {
+            if (isSameDayNonSystemMessages(chatMessageList[i], chatMessageList[i + 1]) &&
+                chatMessageList[i + 1].actorId == chatMessageList[i].actorId &&
+                countGroupedMessages < GROUPED_MESSAGES_THRESHOLD
+            ) {
+                chatMessageList[i].isGrouped = true
+                countGroupedMessages++
+            } else {
+                countGroupedMessages = 0
+            }
+        }
+    }
+
+    private fun isSameDayNonSystemMessages(messageLeft: ChatMessage, messageRight: ChatMessage): Boolean {
+        return TextUtils.isEmpty(messageLeft.systemMessage) &&
+            TextUtils.isEmpty(messageRight.systemMessage) &&
+            DateFormatter.isSameDay(messageLeft.createdAt, messageRight.createdAt)
+    }
+
+    companion object {
+        private const val HTTP_CODE_OK = 200
+        private const val GROUPED_MESSAGES_THRESHOLD = 4
+    }
+}
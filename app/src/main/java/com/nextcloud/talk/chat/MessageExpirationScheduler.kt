@@ -0,0 +1,102 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.chat
+
+import com.nextcloud.talk.models.json.chat.ChatMessage
+import io.reactivex.Scheduler
+import io.reactivex.disposables.Disposable
+import java.util.PriorityQueue
+import java.util.concurrent.TimeUnit
+
+/**
+ * Removes expiring messages exactly when they expire.
+ *
+ * Messages are kept in a priority queue ordered by their expiration timestamp and only a single timer for the
+ * earliest deadline is pending at any time. When it fires all messages that are due are handed to
+ * [onMessagesExpired] and the timer is set for the next deadline.
+ *
+ * Not thread safe, all calls and the callback happen on the given [scheduler], usually the main thread.
+ */
+class MessageExpirationScheduler(
+    private val scheduler: Scheduler,
+    private val onMessagesExpired: (List<ChatMessage>) -> Unit
+) {
+    private val queue = PriorityQueue<ChatMessage>(INITIAL_CAPACITY, compareBy { it.expirationTimestamp })
+    private val scheduledMessageIds = HashSet<Int>()
+    private var timer: Disposable? = null
+    private var timerDeadline = NO_DEADLINE
+
+    fun schedule(messages: List<ChatMessage>) {
+        for (message in messages) {
+            if (message.expirationTimestamp != 0 && scheduledMessageIds.add(message.jsonMessageId)) {
+                queue.add(message)
+            }
+        }
+        scheduleTimer()
+    }
+
+    fun clear() {
+        cancelTimer()
+        queue.clear()
+        scheduledMessageIds.clear()
+    }
+
+    private fun scheduleTimer() {
+        val nextMessage = queue.peek() ?: return
+        val deadline = nextMessage.expirationTimestamp * ONE_SECOND_IN_MILLIS
+        if (timer != null && deadline >= timerDeadline) {
+            return
+        }
+
+        cancelTimer()
+        timerDeadline = deadline
+        val delay = (deadline - scheduler.now(TimeUnit.MILLISECONDS)).coerceAtLeast(0)
+        timer = scheduler.scheduleDirect({ removeExpiredMessages() }, delay, TimeUnit.MILLISECONDS)
+    }
+
+    private fun cancelTimer() {
+        timer?.dispose()
+        timer = null
+        timerDeadline = NO_DEADLINE
+    }
+
+    private fun removeExpiredMessages() {
+        timer = null
+        timerDeadline = NO_DEADLINE
+
+        val now = scheduler.now(TimeUnit.MILLISECONDS)
+        val expiredMessages = ArrayList<ChatMessage>()
+        while (queue.isNotEmpty() && queue.peek()!!.expirationTimestamp * ONE_SECOND_IN_MILLIS <= now) {
+            val message = queue.poll()!!
+            scheduledMessageIds.remove(message.jsonMessageId)
+            expiredMessages.add(message)
+        }
+        if (expiredMessages.isNotEmpty()) {
+            onMessagesExpired(expiredMessages)
+        }
+        scheduleTimer()
+    }
+
+    companion object {
+        private const val INITIAL_CAPACITY = 16
+        private const val ONE_SECOND_IN_MILLIS = 1000L
+        private const val NO_DEADLINE = Long.MAX_VALUE
+    }
+}
@@ -127,8 +127,13 @@ import com.nextcloud.talk.adapters.messages.VoiceMessageInterface
 import com.nextcloud.talk.api.NcApi
 import com.nextcloud.talk.application.NextcloudTalkApplication
 import com.nextcloud.talk.callbacks.MentionAutocompleteCallback
+import com.nextcloud.talk.chat.ChatMessagesPreprocessor
+import com.nextcloud.talk.chat.ChatMessagesPreprocessor.PreparedChatMessages
+import com.nextcloud.talk.chat.ChatMessagesPreprocessor.PreparedResponse
+import com.nextcloud.talk.chat.MessageExpirationScheduler
 import com.nextcloud.talk.controllers.base.BaseController
 import com.nextcloud.talk.controllers.util.viewBinding
+import com.nextcloud.talk.data.chat.ChatMessagesRepository
 import com.nextcloud.talk.data.user.model.User
 import com.nextcloud.talk.databinding.ControllerChatBinding
 import com.nextcloud.talk.events.UserMentionClickEvent
@@ -141,7 +146,6 @@ import com.nextcloud.talk.messagesearch.MessageSearchActivity
 import com.nextcloud.talk.models.domain.ReactionAddedModel
 import com.nextcloud.talk.models.domain.ReactionDeletedModel
 import com.nextcloud.talk.models.json.chat.ChatMessage
-import com.nextcloud.talk.models.json.chat.ChatOverall
 import com.nextcloud.talk.models.json.chat.ChatOverallSingleMessage
 import com.nextcloud.talk.models.json.chat.ReadStatus
 import com.nextcloud.talk.models.json.conversations.Conversation
@@ -194,7 +198,9 @@ import com.stfalcon.chatkit.messages.MessageHolders.ContentChecker
 import com.stfalcon.chatkit.messages.MessagesListAdapter
 import com.stfalcon.chatkit.utils.DateFormatter
 import com.vanniktech.emoji.EmojiPopup
+import io.reactivex.Completable
 import io.reactivex.Observer
+import io.reactivex.SingleObserver
 import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.disposables.Disposable
 import io.reactivex.schedulers.Schedulers
@@ -257,6 +263,9 @@ class ChatController(args: Bundle) :
     @Inject
     lateinit var reactionsRepository: ReactionsRepository
 
+    @Inject
+    lateinit var chatMessagesRepository: ChatMessagesRepository
+
     @Inject
     lateinit var permissionUtil: PlatformPermissionUtil
 
@@ -276,6 +285,7 @@ class ChatController(args: Bundle) :
     private var globalLastKnownPastMessageId = -1
     var adapter: TalkMessagesListAdapter<ChatMessage>? = null
     private var mentionAutocomplete: Autocomplete<*>? = null
+    private var mentionAutocompletePresenter: MentionAutocompletePresenter? = null
     var layoutManager: LinearLayoutManager? = null
     var pullChatMessagesPending = false
     private var lookingIntoFuture = false
@@ -284,6 +294,11 @@ class ChatController(args: Bundle) :
     val roomId: String
     val voiceOnly: Boolean
     var isFirstMessagesProcessing = true
+    private var cachedMessagesLoaded = false
+    private val chatMessagesPreprocessor by lazy { ChatMessagesPreprocessor(conversationUser) }
+    private val messageExpirationScheduler = MessageExpirationScheduler(AndroidSchedulers.mainThread()) {
+        adapter?.delete(it)
+    }
     private var emojiPopup: EmojiPopup? = null
 
     var myFirstMessage: CharSequence? = null
@@ -1728,7 +1743,6 @@ class ChatController(args: Bundle) :
             val elevation = MENTION_AUTO_COMPLETE_ELEVATION
             resources?.let {
                 val backgroundDrawable = ColorDrawable(it.getColor(R.color.bg_default))
-                val presenter = MentionAutocompletePresenter(activity, roomToken)
                 val callback = MentionAutocompleteCallback(
                     activity,
                     conversationUser!!,
@@ -1737,6 +1751,8 @@ class ChatController(args: Bundle) :
                 )
 
                 if (mentionAutocomplete == null && binding.messageInputView.inputEditText != null) {
+                    val presenter = MentionAutocompletePresenter(activity, roomToken)
+                    mentionAutocompletePresenter = presenter
                     mentionAutocomplete = Autocomplete.on<Mention>(binding.messageInputView.inputEditText)
                         .with(elevation)
                         .with(backgroundDrawable)
@@ -1914,6 +1930,8 @@ class ChatController(args: Bundle) :
 
         currentlyPlayedVoiceMessage?.let { stopMediaPlayer(it) }
 
+        messageExpirationScheduler.clear()
+        mentionAutocompletePresenter?.destroy()
         adapter = null
         inConversation = false
         Log.d(TAG, "inConversation was set to false!")
@@ -2203,6 +2221,12 @@ class ChatController(args: Bundle) :
             Log.d(TAG, "pullChatMessages - pullChatMessagesPending is true, exiting")
             return
         }
+
+        if (lookIntoFuture <= 0 && isFirstMessagesProcessing && !cachedMessagesLoaded) {
+            loadCachedChatMessages()
+            return
+        }
+
         pullChatMessagesPending = true
 
         val fieldMap = HashMap<String, Int>()
@@ -2247,6 +2271,8 @@ class ChatController(args: Bundle) :
             apiVersion = ApiUtils.getChatApiVersion(conversationUser, intArrayOf(1))
         }
 
+        val isOneToOneConversation = isOneToOneConversation()
+
         if (lookIntoFuture > 0) {
             Log.d(TAG, "pullChatMessages - pullChatMessages[lookIntoFuture > 0] - calling")
             ncApi.pullChatMessages(
@@ -2255,15 +2281,17 @@ class ChatController(args: Bundle) :
                 fieldMap
             )
                 ?.subscribeOn(Schedulers.io())
+                ?.map { chatMessagesPreprocessor.prepare(it, true, isOneToOneConversation) }
                 ?.observeOn(AndroidSchedulers.mainThread())
-                ?.subscribe(object : Observer<Response<*>> {
+                ?.subscribe(object : Observer<PreparedResponse> {
                     override fun onSubscribe(d: Disposable) {
                         disposables.add(d)
                     }
 
                     @Suppress("Detekt.TooGenericExceptionCaught")
-                    override fun onNext(response: Response<*>) {
+                    override fun onNext(preparedResponse: PreparedResponse) {
                         Log.d(TAG, "pullChatMessages - pullChatMessages[lookIntoFuture > 0] - got response")
+                        val response = preparedResponse.response
                         pullChatMessagesPending = false
                         try {
                             if (response.code() == HTTP_CODE_NOT_MODIFIED) {
@@ -2272,15 +2300,13 @@ class ChatController(args: Bundle) :
                             } else if (response.code() == HTTP_CODE_PRECONDITION_FAILED) {
                                 futurePreconditionFailed = true
                             } else {
-                                processMessagesResponse(response, true)
+                                processMessagesResponse(preparedResponse, true)
                             }
                         } catch (npe: NullPointerException) {
                             // view binding can be null
                             // since this is called asynchronously and UI might have been destroyed in the meantime
                             Log.i(TAG, "UI destroyed - view binding already gone")
                         }
-
-                        processExpiredMessages()
                     }
 
                     override fun onError(e: Throwable) {
@@ -2300,29 +2326,29 @@ class ChatController(args: Bundle) :
                 fieldMap
             )
                 ?.subscribeOn(Schedulers.io())
+                ?.map { chatMessagesPreprocessor.prepare(it, false, isOneToOneConversation) }
                 ?.observeOn(AndroidSchedulers.mainThread())
-                ?.subscribe(object : Observer<Response<*>> {
+                ?.subscribe(object : Observer<PreparedResponse> {
                     override fun onSubscribe(d: Disposable) {
                         disposables.add(d)
                     }
 
                     @Suppress("Detekt.TooGenericExceptionCaught")
-                    override fun onNext(response: Response<*>) {
+                    override fun onNext(preparedResponse: PreparedResponse) {
                         Log.d(TAG, "pullChatMessages - pullChatMessages[lookIntoFuture <= 0] - got response")
+                        val response = preparedResponse.response
                         pullChatMessagesPending = false
                         try {
                             if (response.code() == HTTP_CODE_PRECONDITION_FAILED) {
                                 pastPreconditionFailed = true
                             } else {
-                                processMessagesResponse(response, false)
+                                processMessagesResponse(preparedResponse, false)
                             }
                         } catch (e: NullPointerException) {
                             // view binding can be null
                             // since this is called asynchronously and UI might have been destroyed in the meantime
                             Log.i(TAG, "UI destroyed - view binding already gone", e)
                         }
-
-                        processExpiredMessages()
                     }
 
                     override fun onError(e: Throwable) {
@@ -2337,31 +2363,89 @@ class ChatController(args: Bundle) :
         }
     }
 
-    private fun processExpiredMessages() {
-        fun deleteExpiredMessages() {
-            val messagesToDelete: ArrayList<ChatMessage> = ArrayList()
-            val systemTime = System.currentTimeMillis() / ONE_SECOND_IN_MILLIS
+    /**
+     * Shows the messages stored for this conversation right away and continues with an incremental pull of
+     * everything newer than the newest stored message. Falls back to the regular initial pull when nothing is
+     * stored yet.
+     */
+    private fun loadCachedChatMessages() {
+        cachedMessagesLoaded = true
 
-            if (adapter?.items != null) {
-                for (itemWrapper in adapter?.items!!) {
-                    if (itemWrapper.item is ChatMessage) {
-                        val chatMessage = itemWrapper.item as ChatMessage
-                        if (chatMessage.expirationTimestamp != 0 && chatMessage.expirationTimestamp < systemTime) {
-                            messagesToDelete.add(chatMessage)
-                        }
+        val accountId = conversationUser?.id
+        val token = roomToken
+        if (accountId == null || token == null) {
+            pullChatMessages(0)
+            return
+        }
+
+        pullChatMessagesPending = true
+        val isOneToOneConversation = isOneToOneConversation()
+        chatMessagesRepository.getMessages(accountId, token, MESSAGE_PULL_LIMIT)
+            .subscribeOn(Schedulers.io())
+            .map { chatMessagesPreprocessor.prepare(it, false, isOneToOneConversation) }
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(object : SingleObserver<PreparedChatMessages> {
+                override fun onSubscribe(d: Disposable) {
+                    disposables.add(d)
+                }
+
+                override fun onSuccess(preparedChatMessages: PreparedChatMessages) {
+                    pullChatMessagesPending = false
+                    val cachedMessages = preparedChatMessages.messages
+                    if (cachedMessages.isEmpty()) {
+                        pullChatMessages(0)
+                        return
+                    }
+
+                    Log.d(TAG, "loadCachedChatMessages - showing ${cachedMessages.size} cached messages")
+                    globalLastKnownFutureMessageId = cachedMessages.first().jsonMessageId
+                    globalLastKnownPastMessageId = cachedMessages.last().jsonMessageId
+
+                    try {
+                        processMessages(cachedMessages, false, null)
+                    } catch (e: NullPointerException) {
+                        // view binding can be null
+                        // since this is called asynchronously and UI might have been destroyed in the meantime
+                        Log.i(TAG, "UI destroyed - view binding already gone", e)
                     }
                 }
-                adapter!!.delete(messagesToDelete)
-                adapter!!.notifyDataSetChanged()
-            }
-        }
 
-        if (CapabilitiesUtilNew.hasSpreedFeatureCapability(conversationUser, "message-expiration")) {
-            deleteExpiredMessages()
+                override fun onError(e: Throwable) {
+                    Log.e(TAG, "loadCachedChatMessages - ERROR", e)
+                    pullChatMessagesPending = false
+                    pullChatMessages(0)
+                }
+            })
+    }
+
+    private fun storeChatMessages(receivedMessages: List<ChatMessage>, chatMessageList: List<ChatMessage>) {
+        val accountId = conversationUser?.id ?: return
+        val token = roomToken ?: return
+
+        // system messages about deletions and reactions are not shown, but their parent is the updated message. The
+        // parents can be much older than the received messages, so they are only refreshed if already cached;
+        // otherwise they would leave gaps in the cached range of messages.
+        val parentMessages = receivedMessages.mapNotNull { it.parentMessage }
+        val isChatCleared = chatMessageList.isNotEmpty() &&
+            ChatMessage.SystemMessageType.CLEARED_CHAT == chatMessageList[0].systemMessageType
+
+        Completable.fromAction {
+            if (isChatCleared) {
+                chatMessagesRepository.deleteMessages(accountId, token)
+            }
+            chatMessagesRepository.deleteExpiredMessages()
+            chatMessagesRepository.saveMessages(accountId, token, chatMessageList)
+            chatMessagesRepository.updateMessages(accountId, token, parentMessages)
         }
+            .subscribeOn(Schedulers.io())
+            .subscribe(
+                { Log.d(TAG, "stored ${chatMessageList.size} chat messages") },
+                { Log.e(TAG, "failed to store chat messages", it) }
+            )
     }
 
-    private fun processMessagesResponse(response: Response<*>, isFromTheFuture: Boolean) {
+    private fun processMessagesResponse(preparedResponse: PreparedResponse, isFromTheFuture: Boolean) {
+        val response = preparedResponse.response
 
         val xChatLastCommonRead = response.headers()["X-Chat-Last-Common-Read"]?.let {
             Integer.parseInt(it)
@@ -2370,10 +2454,11 @@ class ChatController(args: Bundle) :
         processHeaderChatLastGiven(response, isFromTheFuture)
 
         if (response.code() == HTTP_CODE_OK) {
-            val chatOverall = response.body() as ChatOverall?
-            val chatMessageList = handleSystemMessages(chatOverall?.ocs!!.data!!)
+            val preparedChatMessages = preparedResponse.preparedChatMessages!!
+            applyParentMessageUpdates(preparedChatMessages)
+            storeChatMessages(preparedChatMessages.receivedMessages, preparedChatMessages.messages)
 
-            processMessages(chatMessageList, isFromTheFuture, xChatLastCommonRead)
+            processMessages(preparedChatMessages.messages, isFromTheFuture, xChatLastCommonRead)
         } else if (response.code() == HTTP_CODE_NOT_MODIFIED && !isFromTheFuture) {
             if (isFirstMessagesProcessing) {
                 cancelNotificationsForCurrentConversation()
@@ -2400,6 +2485,7 @@ class ChatController(args: Bundle) :
         ) {
             adapter?.clear()
             adapter?.notifyDataSetChanged()
+            messageExpirationScheduler.clear()
         }
 
         if (isFirstMessagesProcessing) {
@@ -2418,7 +2504,10 @@ class ChatController(args: Bundle) :
         }
 
         updateReadStatusOfAllMessages(xChatLastCommonRead)
-        adapter?.notifyDataSetChanged()
+
+        if (CapabilitiesUtilNew.hasSpreedFeatureCapability(conversationUser, "message-expiration")) {
+            messageExpirationScheduler.schedule(chatMessageList)
+        }
 
         if (inConversation) {
             pullChatMessages(1, 1, xChatLastCommonRead)
@@ -2426,26 +2515,40 @@ class ChatController(args: Bundle) :
     }
 
     private fun updateReadStatusOfAllMessages(xChatLastCommonRead: Int?) {
-        for (message in adapter!!.items) {
-            xChatLastCommonRead?.let {
-                updateReadStatusOfMessage(message, it)
+        if (xChatLastCommonRead == null) {
+            return
+        }
+
+        val changedPositions = ArrayList<Int>()
+        adapter!!.items.forEachIndexed { position, message ->
+            if (updateReadStatusOfMessage(message, xChatLastCommonRead)) {
+                changedPositions.add(position)
             }
         }
+        adapter!!.notifyItemsChanged(changedPositions)
     }
 
+    /**
+     * @return true if the read status of the message changed and the message has to be bound again
+     */
     private fun updateReadStatusOfMessage(
         message: MessagesListAdapter<IMessage>.Wrapper<Any>,
         xChatLastCommonRead: Int
-    ) {
+    ): Boolean {
         if (message.item is ChatMessage) {
             val chatMessage = message.item as ChatMessage
 
-            if (chatMessage.jsonMessageId <= xChatLastCommonRead) {
-                chatMessage.readStatus = ReadStatus.READ
+            val readStatus = if (chatMessage.jsonMessageId <= xChatLastCommonRead) {
+                ReadStatus.READ
             } else {
-                chatMessage.readStatus = ReadStatus.SENT
+                ReadStatus.SENT
+            }
+            if (chatMessage.readStatus != readStatus) {
+                chatMessage.readStatus = readStatus
+                return true
             }
         }
+        return false
     }
 
     private fun processMessagesFromTheFuture(chatMessageList: List<ChatMessage>) {
@@ -2480,8 +2583,6 @@ class ChatController(args: Bundle) :
         val isThereANewNotice =
             shouldAddNewMessagesNotice || adapter?.getMessagePositionByIdInReverse("-1") != -1
         for (chatMessage in chatMessageList) {
-            chatMessage.activeUser = conversationUser
-
             val shouldScroll =
                 !isThereANewNotice &&
                     !shouldAddNewMessagesNotice &&
@@ -2499,8 +2600,6 @@ class ChatController(args: Bundle) :
                     ) && it.getSameAuthorLastMessagesCount(chatMessage.actorId) %
                         GROUPED_MESSAGES_SAME_AUTHOR_THRESHOLD > 0
                     )
-                chatMessage.isOneToOneConversation =
-                    (currentConversation?.type == Conversation.ConversationType.ROOM_TYPE_ONE_TO_ONE_CALL)
                 it.addToStart(chatMessage, shouldScroll)
             }
         }
@@ -2520,50 +2619,28 @@ class ChatController(args: Bundle) :
     }
 
     private fun processMessagesNotFromTheFuture(chatMessageList: List<ChatMessage>) {
-        var countGroupedMessages = 0
         determinePreviousMessageIds(chatMessageList)
 
-        for (i in chatMessageList.indices) {
-            if (chatMessageList.size > i + 1) {
-                if (isSameDayNonSystemMessages(chatMessageList[i], chatMessageList[i + 1]) &&
-                    chatMessageList[i + 1].actorId == chatMessageList[i].actorId &&
-                    countGroupedMessages < GROUPED_MESSAGES_THRESHOLD
-                ) {
-                    chatMessageList[i].isGrouped = true
-                    countGroupedMessages++
-                } else {
-                    countGroupedMessages = 0
-                }
-            }
-
-            val chatMessage = chatMessageList[i]
-            chatMessage.isOneToOneConversation =
-                currentConversation?.type == Conversation.ConversationType.ROOM_TYPE_ONE_TO_ONE_CALL
-            chatMessage.activeUser = conversationUser
-        }
-
         if (adapter != null) {
             adapter?.addToEnd(chatMessageList, false)
         }
         scrollToRequestedMessageIfNeeded()
     }
 
+    /**
+     * Messages of a page are already linked to each other by [ChatMessagesPreprocessor], only the oldest message of
+     * the page has to be linked to the newest message of the adapter.
+     */
     private fun determinePreviousMessageIds(chatMessageList: List<ChatMessage>) {
-        var previousMessageId = NO_PREVIOUS_MESSAGE_ID
-        for (i in chatMessageList.indices.reversed()) {
-            val chatMessage = chatMessageList[i]
-
-            if (previousMessageId > NO_PREVIOUS_MESSAGE_ID) {
-                chatMessage.previousMessageId = previousMessageId
-            } else if (adapter?.isEmpty != true) {
-                if (adapter!!.items[0].item is ChatMessage) {
-                    chatMessage.previousMessageId = (adapter!!.items[0].item as ChatMessage).jsonMessageId
-                } else if (adapter!!.items.size > 1 && adapter!!.items[1].item is ChatMessage) {
-                    chatMessage.previousMessageId = (adapter!!.items[1].item as ChatMessage).jsonMessageId
-                }
-            }
+        if (chatMessageList.isEmpty() || adapter?.isEmpty != false) {
+            return
+        }
 
-            previousMessageId = chatMessage.jsonMessageId
+        val chatMessage = chatMessageList.last()
+        if (adapter!!.items[0].item is ChatMessage) {
+            chatMessage.previousMessageId = (adapter!!.items[0].item as ChatMessage).jsonMessageId
+        } else if (adapter!!.items.size > 1 && adapter!!.items[1].item is ChatMessage) {
+            chatMessage.previousMessageId = (adapter!!.items[1].item as ChatMessage).jsonMessageId
         }
     }
 
@@ -2596,12 +2673,6 @@ class ChatController(args: Bundle) :
         }
     }
 
-    private fun isSameDayNonSystemMessages(messageLeft: ChatMessage, messageRight: ChatMessage): Boolean {
-        return TextUtils.isEmpty(messageLeft.systemMessage) &&
-            TextUtils.isEmpty(messageRight.systemMessage) &&
-            DateFormatter.isSameDay(messageLeft.createdAt, messageRight.createdAt)
-    }
-
     override fun onLoadMore(page: Int, totalItemsCount: Int) {
         if (!historyRead && inConversation) {
             pullChatMessages(0)
@@ -2731,54 +2802,14 @@ class ChatController(args: Bundle) :
         startActivityForResult(intent, REQUEST_CODE_MESSAGE_SEARCH)
     }
 
-    private fun handleSystemMessages(chatMessageList: List<ChatMessage>): List<ChatMessage> {
-        val chatMessageMap = chatMessageList.map { it.id to it }.toMap().toMutableMap()
-        val chatMessageIterator = chatMessageMap.iterator()
-        while (chatMessageIterator.hasNext()) {
-            val currentMessage = chatMessageIterator.next()
-
-            // setDeletionFlagsAndRemoveInfomessages
-            if (isInfoMessageAboutDeletion(currentMessage)) {
-                if (!chatMessageMap.containsKey(currentMessage.value.parentMessage!!.id)) {
-                    // if chatMessageMap doesn't contain message to delete (this happens when lookingIntoFuture),
-                    // the message to delete has to be modified directly inside the adapter
-                    setMessageAsDeleted(currentMessage.value.parentMessage)
-                } else {
-                    chatMessageMap[currentMessage.value.parentMessage!!.id]!!.isDeleted = true
-                }
-                chatMessageIterator.remove()
-            }
-
-            // delete reactions system messages
-            else if (isReactionsMessage(currentMessage)) {
-                if (!chatMessageMap.containsKey(currentMessage.value.parentMessage!!.id)) {
-                    updateAdapterForReaction(currentMessage.value.parentMessage)
-                }
-
-                chatMessageIterator.remove()
-            }
-
-            // delete poll system messages
-            else if (isPollVotedMessage(currentMessage)) {
-                chatMessageIterator.remove()
+    private fun applyParentMessageUpdates(preparedChatMessages: PreparedChatMessages) {
+        for (parentMessageUpdate in preparedChatMessages.parentMessageUpdates) {
+            if (parentMessageUpdate.isDeletion) {
+                setMessageAsDeleted(parentMessageUpdate.message)
+            } else {
+                updateAdapterForReaction(parentMessageUpdate.message)
             }
         }
-        return chatMessageMap.values.toList()
-    }
-
-    private fun isInfoMessageAboutDeletion(currentMessage: MutableMap.MutableEntry<String, ChatMessage>): Boolean {
-        return currentMessage.value.parentMessage != null && currentMessage.value.systemMessageType == ChatMessage
-            .SystemMessageType.MESSAGE_DELETED
-    }
-
-    private fun isReactionsMessage(currentMessage: MutableMap.MutableEntry<String, ChatMessage>): Boolean {
-        return currentMessage.value.systemMessageType == ChatMessage.SystemMessageType.REACTION ||
-            currentMessage.value.systemMessageType == ChatMessage.SystemMessageType.REACTION_DELETED ||
-            currentMessage.value.systemMessageType == ChatMessage.SystemMessageType.REACTION_REVOKED
-    }
-
-    private fun isPollVotedMessage(currentMessage: MutableMap.MutableEntry<String, ChatMessage>): Boolean {
-        return currentMessage.value.systemMessageType == ChatMessage.SystemMessageType.POLL_VOTED
     }
 
     private fun startACall(isVoiceOnlyCall: Boolean, callWithoutNotification: Boolean) {
@@ -3298,8 +3329,8 @@ class ChatController(args: Bundle) :
             CONTENT_TYPE_VOICE_MESSAGE -> message.isVoiceMessage
             CONTENT_TYPE_POLL -> message.isPoll()
             CONTENT_TYPE_LINK_PREVIEW -> message.isLinkPreview()
-            CONTENT_TYPE_SYSTEM_MESSAGE -> !TextUtils.isEmpty(message.systemMessage)
-            CONTENT_TYPE_UNREAD_NOTICE_MESSAGE -> message.id == "-1"
+            CONTENT_TYPE_SYSTEM_MESSAGE -> ChatMessage.MessageType.SYSTEM_MESSAGE == message.getCalculateMessageType()
+            CONTENT_TYPE_UNREAD_NOTICE_MESSAGE -> message.jsonMessageId == -1
             else -> false
         }
     }
@@ -3496,7 +3527,6 @@ class ChatController(args: Bundle) :
         private const val VOICE_MESSAGE_SEEKBAR_BASE: Int = 1000
         private const val SECOND: Long = 1000
         private const val NO_PREVIOUS_MESSAGE_ID: Int = -1
-        private const val GROUPED_MESSAGES_THRESHOLD = 4
         private const val GROUPED_MESSAGES_SAME_AUTHOR_THRESHOLD = 5
         private const val TOOLBAR_AVATAR_RATIO = 1.5
         private const val HTTP_CODE_NOT_MODIFIED = 304
@@ -3510,6 +3540,5 @@ class ChatController(args: Bundle) :
         private const val RETRIES: Long = 3
         private const val LOOKING_INTO_FUTURE_TIMEOUT = 30
         private const val CHUNK_SIZE: Int = 10
-        private const val ONE_SECOND_IN_MILLIS = 1000
     }
 }
@@ -77,6 +77,7 @@ import com.nextcloud.talk.application.NextcloudTalkApplication
 import com.nextcloud.talk.application.NextcloudTalkApplication.Companion.sharedApplication
 import com.nextcloud.talk.controllers.base.BaseController
 import com.nextcloud.talk.controllers.util.viewBinding
+import com.nextcloud.talk.data.conversation.ConversationsStorageRepository
 import com.nextcloud.talk.data.user.model.User
 import com.nextcloud.talk.databinding.ControllerConversationsRvBinding
 import com.nextcloud.talk.events.ConversationsListFetchDataEvent
@@ -123,11 +124,11 @@ import com.nextcloud.talk.utils.rx.SearchViewObservable.Companion.observeSearchV
 import eu.davidea.flexibleadapter.FlexibleAdapter
 import eu.davidea.flexibleadapter.common.SmoothScrollLinearLayoutManager
 import eu.davidea.flexibleadapter.items.AbstractFlexibleItem
+import io.reactivex.Completable
 import io.reactivex.Observable
 import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.disposables.Disposable
 import io.reactivex.schedulers.Schedulers
-import org.apache.commons.lang3.builder.CompareToBuilder
 import org.greenrobot.eventbus.EventBus
 import org.greenrobot.eventbus.Subscribe
 import org.greenrobot.eventbus.ThreadMode
@@ -157,6 +158,9 @@ class ConversationsListController(bundle: Bundle) :
     @Inject
     lateinit var unifiedSearchRepository: UnifiedSearchRepository
 
+    @Inject
+    lateinit var conversationsStorageRepository: ConversationsStorageRepository
+
     private val binding: ControllerConversationsRvBinding by viewBinding(ControllerConversationsRvBinding::bind)
 
     override val title: String
@@ -171,6 +175,8 @@ class ConversationsListController(bundle: Bundle) :
     private var adapter: FlexibleAdapter<AbstractFlexibleItem<*>>? = null
     private var conversationItems: MutableList<AbstractFlexibleItem<*>> = ArrayList()
     private var conversationItemsWithHeader: MutableList<AbstractFlexibleItem<*>> = ArrayList()
+    private val conversations: MutableMap<String, Conversation> = LinkedHashMap()
+    private var storedConversationsDisposable: Disposable? = null
     private val searchableConversationItems: MutableList<AbstractFlexibleItem<*>> = ArrayList()
     private var searchItem: MenuItem? = null
     private var chooseAccountItem: MenuItem? = null
@@ -471,48 +477,87 @@ class ConversationsListController(bundle: Bundle) :
         searchItem!!.expandActionView()
     }
 
-    fun fetchRooms() {
+    /**
+     * Fetches the conversations of the current user.
+     *
+     * Conversations stored from the last sync are shown right away. After a full sync only the conversations that
+     * were modified since the previous sync are requested and merged into the list. A full sync is done when
+     * requested, for the first sync of an account and after [FULL_SYNC_INTERVAL_MILLIS], as conversations that
+     * were left or deleted are not part of a modifiedSince response.
+     */
+    fun fetchRooms(fullSync: Boolean = false) {
         val includeStatus = isUserStatusAvailable(userManager.currentUser.blockingGet())
 
         dispose(null)
         isRefreshing = true
-        conversationItems = ArrayList()
-        conversationItemsWithHeader = ArrayList()
+        val accountId = currentUser!!.id!!
+        if (conversations.isEmpty()) {
+            loadStoredConversations(accountId)
+        }
+        val modifiedSince = if (fullSync || isFullSyncDue(accountId)) {
+            null
+        } else {
+            modifiedBeforeByAccount[accountId]
+        }
+        // the sync state is shared by all the controllers, so a new one may ask only for the changed conversations
+        // before it has its own list of conversations
+        val needsStoredConversations = modifiedSince != null && conversations.isEmpty()
         val apiVersion = ApiUtils.getConversationApiVersion(currentUser, intArrayOf(ApiUtils.APIv4, ApiUtils.APIv3, 1))
         val startNanoTime = System.nanoTime()
-        Log.d(TAG, "fetchData - getRooms - calling: $startNanoTime")
-        roomsQueryDisposable = ncApi.getRooms(
+        Log.d(TAG, "fetchData - getRooms - calling: $startNanoTime, modifiedSince: $modifiedSince")
+        roomsQueryDisposable = ncApi.getRoomsModifiedSince(
             credentials,
             ApiUtils.getUrlForRooms(
                 apiVersion,
                 currentUser!!.baseUrl
             ),
-            includeStatus
+            includeStatus,
+            modifiedSince
         )
+            .map { response ->
+                if (!response.isSuccessful) {
+                    throw HttpException(response)
+                }
+                // the changed conversations are merged into the stored ones, which may not have been loaded yet
+                val storedConversations = if (needsStoredConversations) {
+                    conversationsStorageRepository.getConversations(accountId).blockingGet()
+                } else {
+                    emptyList()
+                }
+                Pair(response, storedConversations)
+            }
             .subscribeOn(Schedulers.io())
             .observeOn(AndroidSchedulers.mainThread())
-            .subscribe({ (ocs): RoomsOverall ->
+            .subscribe({ (response, storedConversations) ->
                 Log.d(TAG, "fetchData - getRooms - got response: $startNanoTime")
+                val rooms = response.body()?.ocs?.data ?: emptyList()
+                val isFullSync = modifiedSince == null
+                if (needsStoredConversations && storedConversations.isEmpty()) {
+                    // nothing to merge the changed conversations into
+                    fetchRooms(fullSync = true)
+                    return@subscribe
+                }
+                updateSyncState(accountId, response.headers()[HEADER_MODIFIED_BEFORE], isFullSync)
+                storeConversations(accountId, rooms, isFullSync)
+                storedConversationsDisposable?.dispose()
+                if (isFullSync) {
+                    conversations.clear()
+                } else if (conversations.isEmpty()) {
+                    for (conversation in storedConversations) {
+                        conversations[conversation.token!!] = conversation
+                    }
+                }
+                for (conversation in rooms) {
+                    conversations[conversation.token!!] = conversation
+                }
 
                 // This is invoked asynchronously, when server returns a response the view might have been
                 // unbound in the meantime. Check if the view is still there.
-                // FIXME - does it make sense to update internal data structures even when view has been unbound?
                 if (view == null) {
                     Log.d(TAG, "fetchData - getRooms - view is not bound: $startNanoTime")
                     return@subscribe
                 }
-                if (adapterWasNull) {
-                    adapterWasNull = false
-                    binding.loadingContent.visibility = View.GONE
-                }
-                initOverallLayout(ocs!!.data!!.isNotEmpty())
-                for (conversation in ocs.data!!) {
-                    addToConversationItems(conversation)
-                }
-                sortConversations(conversationItems)
-                sortConversations(conversationItemsWithHeader)
-                adapter!!.updateDataSet(conversationItems, false)
-                Handler().postDelayed({ checkToShowUnreadBubble() }, UNREAD_BUBBLE_DELAY.toLong())
+                showConversations()
                 fetchOpenConversations(apiVersion)
                 withNullableControllerViewBinding {
                     binding.swipeRefreshLayoutView.isRefreshing = false
@@ -533,6 +578,79 @@ class ConversationsListController(bundle: Bundle) :
             }
     }
 
+    private fun loadStoredConversations(accountId: Long) {
+        storedConversationsDisposable?.dispose()
+        storedConversationsDisposable = conversationsStorageRepository.getConversations(accountId)
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe({ storedConversations ->
+                // the response of the sync may have arrived in the meantime
+                if (view == null || conversations.isNotEmpty() || storedConversations.isEmpty()) {
+                    return@subscribe
+                }
+                Log.d(TAG, "showing ${storedConversations.size} stored conversations")
+                for (conversation in storedConversations) {
+                    conversations[conversation.token!!] = conversation
+                }
+                showConversations()
+            }, { throwable: Throwable ->
+                Log.e(TAG, "failed to load stored conversations", throwable)
+            })
+    }
+
+    private fun storeConversations(accountId: Long, rooms: List<Conversation>, isFullSync: Boolean) {
+        Completable.fromAction {
+            if (isFullSync) {
+                conversationsStorageRepository.replaceConversations(accountId, rooms)
+            } else {
+                conversationsStorageRepository.saveConversations(accountId, rooms)
+            }
+        }
+            .subscribeOn(Schedulers.io())
+            .subscribe(
+                { Log.d(TAG, "stored ${rooms.size} conversations") },
+                { Log.e(TAG, "failed to store conversations", it) }
+            )
+    }
+
+    private fun isFullSyncDue(accountId: Long): Boolean {
+        val lastFullSync = lastFullSyncByAccount[accountId] ?: return true
+        return !modifiedBeforeByAccount.containsKey(accountId) ||
+            System.currentTimeMillis() - lastFullSync > FULL_SYNC_INTERVAL_MILLIS
+    }
+
+    private fun updateSyncState(accountId: Long, modifiedBeforeHeader: String?, isFullSync: Boolean) {
+        // servers without support for modifiedSince don't send the header and always get a full sync
+        val modifiedBefore = modifiedBeforeHeader?.toLongOrNull()
+        if (modifiedBefore == null) {
+            modifiedBeforeByAccount.remove(accountId)
+            return
+        }
+        modifiedBeforeByAccount[accountId] = modifiedBefore
+        if (isFullSync) {
+            lastFullSyncByAccount[accountId] = System.currentTimeMillis()
+        }
+    }
+
+    private fun showConversations() {
+        val isFirstResult = adapterWasNull
+        if (adapterWasNull) {
+            adapterWasNull = false
+            binding.loadingContent.visibility = View.GONE
+        }
+        initOverallLayout(conversations.isNotEmpty())
+        conversationItems = ArrayList()
+        conversationItemsWithHeader = ArrayList()
+        for (conversation in conversations.values) {
+            addToConversationItems(conversation)
+        }
+        sortConversations(conversationItems)
+        sortConversations(conversationItemsWithHeader)
+        // items are equal when their conversation is unchanged, so only changed rooms are re-bound
+        adapter!!.updateDataSet(conversationItems, !isFirstResult)
+        Handler().postDelayed({ checkToShowUnreadBubble() }, UNREAD_BUBBLE_DELAY.toLong())
+    }
+
     private fun initOverallLayout(isConversationListNotEmpty: Boolean) {
         if (isConversationListNotEmpty) {
             if (binding.emptyLayout.visibility != View.GONE) {
@@ -602,14 +720,7 @@ class ConversationsListController(bundle: Bundle) :
     }
 
     private fun sortConversations(conversationItems: MutableList<AbstractFlexibleItem<*>>) {
-        conversationItems.sortWith { o1: AbstractFlexibleItem<*>, o2: AbstractFlexibleItem<*> ->
-            val conversation1 = (o1 as ConversationItem).model
-            val conversation2 = (o2 as ConversationItem).model
-            CompareToBuilder()
-                .append(conversation2.favorite, conversation1.favorite)
-                .append(conversation2.lastActivity, conversation1.lastActivity)
-                .toComparison()
-        }
+        conversationItems.sortWith(CONVERSATION_ITEM_COMPARATOR)
     }
 
     private fun fetchOpenConversations(apiVersion: Int) {
@@ -805,6 +916,7 @@ class ConversationsListController(bundle: Bundle) :
     public override fun onDestroy() {
         super.onDestroy()
         dispose(null)
+        storedConversationsDisposable?.dispose()
         if (searchViewDisposable != null && !searchViewDisposable!!.isDisposed) {
             searchViewDisposable!!.dispose()
         }
@@ -1145,7 +1257,8 @@ class ConversationsListController(bundle: Bundle) :
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     fun onMessageEvent(conversationsListFetchDataEvent: ConversationsListFetchDataEvent?) {
-        fetchRooms()
+        // conversations might have been left or deleted, which is only noticed by a full sync
+        fetchRooms(fullSync = true)
         Handler().postDelayed({
             if (conversationsListBottomDialog!!.isShowing) {
                 conversationsListBottomDialog!!.dismiss()
@@ -1333,6 +1446,16 @@ class ConversationsListController(bundle: Bundle) :
         const val SEARCH_DEBOUNCE_INTERVAL_MS = 300
         const val SEARCH_MIN_CHARS = 2
         const val HTTP_UNAUTHORIZED = 401
+        private const val HEADER_MODIFIED_BEFORE = "X-Nextcloud-Talk-Modified-Before"
+        private const val FULL_SYNC_INTERVAL_MILLIS = 10 * 60 * 1000L
+
+        private val CONVERSATION_ITEM_COMPARATOR =
+            compareByDescending<AbstractFlexibleItem<*>> { (it as ConversationItem).model.favorite }
+                .thenByDescending { (it as ConversationItem).model.lastActivity }
+
+        // sync state is kept for the lifetime of the process, the first sync of an account is always a full sync
+        private val modifiedBeforeByAccount: MutableMap<Long, Long> = HashMap()
+        private val lastFullSyncByAccount: MutableMap<Long, Long> = HashMap()
     }
 
     init {
@@ -26,6 +26,12 @@
 package com.nextcloud.talk.dagger.modules
 
 import com.nextcloud.talk.api.NcApi
+import com.nextcloud.talk.data.chat.ChatMessagesRepository
+import com.nextcloud.talk.data.chat.ChatMessagesRepositoryImpl
+import com.nextcloud.talk.data.conversation.ConversationsStorageRepository
+import com.nextcloud.talk.data.conversation.ConversationsStorageRepositoryImpl
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepository
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepositoryImpl
 import com.nextcloud.talk.data.source.local.TalkDatabase
 import com.nextcloud.talk.data.storage.ArbitraryStoragesRepository
 import com.nextcloud.talk.data.storage.ArbitraryStoragesRepositoryImpl
@@ -88,6 +94,21 @@ class RepositoryModule {
         return ArbitraryStoragesRepositoryImpl(database.arbitraryStoragesDao())
     }
 
+    @Provides
+    fun provideChatMessagesRepository(database: TalkDatabase): ChatMessagesRepository {
+        return ChatMessagesRepositoryImpl(database.chatMessagesDao())
+    }
+
+    @Provides
+    fun provideConversationsStorageRepository(database: TalkDatabase): ConversationsStorageRepository {
+        return ConversationsStorageRepositoryImpl(database.conversationsDao())
+    }
+
+    @Provides
+    fun provideLinkPreviewsRepository(database: TalkDatabase): LinkPreviewsRepository {
+        return LinkPreviewsRepositoryImpl(database.linkPreviewsDao())
+    }
+
     @Provides
     fun provideReactionsRepository(ncApi: NcApi, userProvider: CurrentUserProviderNew): ReactionsRepository {
         return ReactionsRepositoryImpl(ncApi, userProvider)
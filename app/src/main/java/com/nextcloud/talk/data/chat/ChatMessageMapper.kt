@@ -0,0 +1,50 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.chat
+
+import android.util.Log
+import com.bluelinelabs.logansquare.LoganSquare
+import com.nextcloud.talk.data.chat.model.ChatMessageEntity
+import com.nextcloud.talk.models.json.chat.ChatMessage
+import java.io.IOException
+
+object ChatMessageMapper {
+    private const val TAG = "ChatMessageMapper"
+
+    fun toModel(entity: ChatMessageEntity): ChatMessage? {
+        return try {
+            LoganSquare.parse(entity.payload, ChatMessage::class.java)
+        } catch (e: IOException) {
+            Log.e(TAG, "Failed to parse cached chat message ${entity.id}", e)
+            null
+        }
+    }
+
+    fun toEntity(accountId: Long, token: String, model: ChatMessage): ChatMessageEntity {
+        return ChatMessageEntity(
+            accountId = accountId,
+            token = token,
+            id = model.jsonMessageId.toLong(),
+            timestamp = model.timestamp,
+            expirationTimestamp = model.expirationTimestamp,
+            payload = LoganSquare.serialize(model)
+        )
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.chat
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+import androidx.room.Update
+import com.nextcloud.talk.data.chat.model.ChatMessageEntity
+import io.reactivex.Single
+
+@Dao
+abstract class ChatMessagesDao {
+    // newest messages first, the same order in which the chat adapter expects them
+    @Query(
+        "SELECT * FROM ChatMessages WHERE " +
+            "accountId = :accountId AND " +
+            "token = :token AND " +
+            "(expirationTimestamp = 0 OR expirationTimestamp > :now) " +
+            "ORDER BY id DESC LIMIT :limit"
+    )
+    abstract fun getMessages(accountId: Long, token: String, now: Long, limit: Int): Single<List<ChatMessageEntity>>
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract fun saveMessages(messages: List<ChatMessageEntity>): List<Long>
+
+    // messages that are not stored yet are ignored
+    @Update
+    abstract fun updateMessages(messages: List<ChatMessageEntity>): Int
+
+    @Query("DELETE FROM ChatMessages WHERE accountId = :accountId AND token = :token")
+    abstract fun deleteMessages(accountId: Long, token: String): Int
+
+    @Query("DELETE FROM ChatMessages WHERE accountId = :accountId")
+    abstract fun deleteMessagesForAccount(accountId: Long): Int
+
+    @Query("DELETE FROM ChatMessages WHERE expirationTimestamp != 0 AND expirationTimestamp <= :now")
+    abstract fun deleteExpiredMessages(now: Long): Int
+
+    @Query(
+        "DELETE FROM ChatMessages WHERE " +
+            "accountId = :accountId AND " +
+            "token = :token AND " +
+            "id NOT IN (" +
+            "SELECT id FROM ChatMessages WHERE accountId = :accountId AND token = :token " +
+            "ORDER BY id DESC LIMIT :keep" +
+            ")"
+    )
+    abstract fun trimMessages(accountId: Long, token: String, keep: Int): Int
+
+    @Transaction
+    open fun saveAndTrimMessages(messages: List<ChatMessageEntity>, keep: Int) {
+        saveMessages(messages)
+        messages.map { Pair(it.accountId, it.token) }.distinct().forEach {
+            trimMessages(it.first, it.second, keep)
+        }
+    }
+}
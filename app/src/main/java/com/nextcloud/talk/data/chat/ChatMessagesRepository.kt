@@ -0,0 +1,49 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.chat
+
+import com.nextcloud.talk.models.json.chat.ChatMessage
+import io.reactivex.Single
+
+interface ChatMessagesRepository {
+    /**
+     * Returns the newest, not yet expired, cached messages of a conversation, newest first.
+     */
+    fun getMessages(accountId: Long, token: String, limit: Int): Single<List<ChatMessage>>
+
+    /**
+     * Inserts or replaces the given messages and drops everything beyond the newest
+     * [MAX_CACHED_MESSAGES_PER_CONVERSATION] messages of the conversation.
+     */
+    fun saveMessages(accountId: Long, token: String, messages: List<ChatMessage>)
+
+    /**
+     * Replaces the given messages only if they are already cached, so messages outside of the cached range are not
+     * added to it.
+     */
+    fun updateMessages(accountId: Long, token: String, messages: List<ChatMessage>): Int
+    fun deleteMessages(accountId: Long, token: String): Int
+    fun deleteMessagesForAccount(accountId: Long): Int
+    fun deleteExpiredMessages(): Int
+
+    companion object {
+        const val MAX_CACHED_MESSAGES_PER_CONVERSATION = 500
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.chat
+
+import com.nextcloud.talk.data.chat.ChatMessagesRepository.Companion.MAX_CACHED_MESSAGES_PER_CONVERSATION
+import com.nextcloud.talk.models.json.chat.ChatMessage
+import io.reactivex.Single
+
+class ChatMessagesRepositoryImpl(private val chatMessagesDao: ChatMessagesDao) : ChatMessagesRepository {
+    override fun getMessages(accountId: Long, token: String, limit: Int): Single<List<ChatMessage>> {
+        return chatMessagesDao
+            .getMessages(accountId, token, nowInSeconds(), limit)
+            .map { entities -> entities.mapNotNull { ChatMessageMapper.toModel(it) } }
+    }
+
+    override fun saveMessages(accountId: Long, token: String, messages: List<ChatMessage>) {
+        val entities = messages
+            .filter { it.jsonMessageId > 0 }
+            .map { ChatMessageMapper.toEntity(accountId, token, it) }
+        if (entities.isNotEmpty()) {
+            chatMessagesDao.saveAndTrimMessages(entities, MAX_CACHED_MESSAGES_PER_CONVERSATION)
+        }
+    }
+
+    override fun updateMessages(accountId: Long, token: String, messages: List<ChatMessage>): Int {
+        val entities = messages
+            .filter { it.jsonMessageId > 0 }
+            .map { ChatMessageMapper.toEntity(accountId, token, it) }
+        if (entities.isEmpty()) {
+            return 0
+        }
+        return chatMessagesDao.updateMessages(entities)
+    }
+
+    override fun deleteMessages(accountId: Long, token: String): Int {
+        return chatMessagesDao.deleteMessages(accountId, token)
+    }
+
+    override fun deleteMessagesForAccount(accountId: Long): Int {
+        return chatMessagesDao.deleteMessagesForAccount(accountId)
+    }
+
+    override fun deleteExpiredMessages(): Int {
+        return chatMessagesDao.deleteExpiredMessages(nowInSeconds())
+    }
+
+    private fun nowInSeconds() = System.currentTimeMillis() / ONE_SECOND_IN_MILLIS
+
+    companion object {
+        private const val ONE_SECOND_IN_MILLIS = 1000
+    }
+}
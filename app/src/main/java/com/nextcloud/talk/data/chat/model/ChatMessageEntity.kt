@@ -0,0 +1,42 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.chat.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+
+/**
+ * A chat message as received from the server, stored per account and conversation.
+ *
+ * Only the columns needed for querying are broken out, the message itself is kept as the
+ * JSON representation returned by the chat API in [payload].
+ */
+@Entity(
+    tableName = "ChatMessages",
+    primaryKeys = ["accountId", "token", "id"]
+)
+data class ChatMessageEntity(
+    @ColumnInfo(name = "accountId") var accountId: Long = 0,
+    @ColumnInfo(name = "token") var token: String = "",
+    @ColumnInfo(name = "id") var id: Long = 0,
+    @ColumnInfo(name = "timestamp") var timestamp: Long = 0,
+    @ColumnInfo(name = "expirationTimestamp") var expirationTimestamp: Int = 0,
+    @ColumnInfo(name = "payload") var payload: String = ""
+)
@@ -0,0 +1,49 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.conversation
+
+import android.util.Log
+import com.bluelinelabs.logansquare.LoganSquare
+import com.nextcloud.talk.data.conversation.model.ConversationEntity
+import com.nextcloud.talk.models.json.conversations.Conversation
+import java.io.IOException
+
+object ConversationMapper {
+    private const val TAG = "ConversationMapper"
+    private const val NO_SESSION_ID = "0"
+
+    fun toModel(entity: ConversationEntity): Conversation? {
+        return try {
+            LoganSquare.parse(entity.payload, Conversation::class.java)
+        } catch (e: IOException) {
+            Log.e(TAG, "Failed to parse stored conversation ${entity.token}", e)
+            null
+        }
+    }
+
+    fun toEntity(accountId: Long, model: Conversation): ConversationEntity {
+        return ConversationEntity(
+            accountId = accountId,
+            token = model.token!!,
+            // a session is only valid while the app is in the conversation, so it is never restored
+            payload = LoganSquare.serialize(model.copy(sessionId = NO_SESSION_ID))
+        )
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.conversation
+
+import com.nextcloud.talk.models.json.conversations.Conversation
+import io.reactivex.Single
+
+interface ConversationsStorageRepository {
+    fun getConversations(accountId: Long): Single<List<Conversation>>
+
+    /**
+     * Inserts or replaces the given conversations, e.g. the result of a sync with modifiedSince.
+     */
+    fun saveConversations(accountId: Long, conversations: List<Conversation>)
+
+    /**
+     * Replaces all stored conversations of the account with the result of a full sync.
+     */
+    fun replaceConversations(accountId: Long, conversations: List<Conversation>)
+    fun deleteConversation(accountId: Long, token: String): Int
+    fun deleteConversationsForAccount(accountId: Long): Int
+}
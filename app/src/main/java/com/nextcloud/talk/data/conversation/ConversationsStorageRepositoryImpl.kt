@@ -0,0 +1,53 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.data.conversation
+
+import com.nextcloud.talk.models.json.conversations.Conversation
+import io.reactivex.Single
+
+class ConversationsStorageRepositoryImpl(private val conversationsDao: ConversationsDao) :
+    ConversationsStorageRepository {
+    override fun getConversations(accountId: Long): Single<List<Conversation>> {
+        return conversationsDao
+            .getConversations(accountId)
+            .map { entities -> entities.mapNotNull { ConversationMapper.toModel(it) } }
+    }
+
+    override fun saveConversations(accountId: Long, conversations: List<Conversation>) {
+        conversationsDao.saveConversations(toEntities(accountId, conversations))
+    }
+
+    override fun replaceConversations(accountId: Long, conversations: List<Conversation>) {
+        conversationsDao.replaceConversations(accountId, toEntities(accountId, conversations))
+    }
+
+    override fun deleteConversation(accountId: Long, token: String): Int {
+        return conversationsDao.deleteConversation(accountId, token)
+    }
+
+    override fun deleteConversationsForAccount(accountId: Long): Int {
+        return conversationsDao.deleteConversationsForAccount(accountId)
+    }
+
+    private fun toEntities(accountId: Long, conversations: List<Conversation>) =
+        conversations
+            .filter { it.token != null }
+            .map { ConversationMapper.toEntity(accountId, it) }
+}
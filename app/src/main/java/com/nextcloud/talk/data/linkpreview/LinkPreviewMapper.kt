@@ -0,0 +1,50 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.nextcloud.talk.data.linkpreview
+
+import android.util.Log
+import com.bluelinelabs.logansquare.LoganSquare
+import com.nextcloud.talk.data.linkpreview.model.LinkPreviewEntity
+import com.nextcloud.talk.data.linkpreview.model.StoredLinkPreview
+import com.nextcloud.talk.models.json.opengraph.OpenGraphOverall
+import java.io.IOException
+
+object LinkPreviewMapper {
+    private const val TAG = "LinkPreviewMapper"
+
+    fun toModel(entity: LinkPreviewEntity): StoredLinkPreview? {
+        return try {
+            StoredLinkPreview(LoganSquare.parse(entity.payload, OpenGraphOverall::class.java), entity.fetchedAt)
+        } catch (e: IOException) {
+            Log.e(TAG, "Failed to parse stored link preview", e)
+            null
+        }
+    }
+
+    fun toEntity(accountId: Long, url: String, model: StoredLinkPreview): LinkPreviewEntity {
+        return LinkPreviewEntity(
+            accountId = accountId,
+            url = url,
+            fetchedAt = model.fetchedAt,
+            payload = LoganSquare.serialize(model.openGraphOverall)
+        )
+    }
+}
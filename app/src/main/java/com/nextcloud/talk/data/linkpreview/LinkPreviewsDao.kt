@@ -0,0 +1,49 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.nextcloud.talk.data.linkpreview
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import com.nextcloud.talk.data.linkpreview.model.LinkPreviewEntity
+import io.reactivex.Maybe
+
+@Dao
+abstract class LinkPreviewsDao {
+    @Query("SELECT * FROM LinkPreviews WHERE accountId = :accountId AND url = :url AND fetchedAt > :fetchedAfter")
+    abstract fun getLinkPreview(accountId: Long, url: String, fetchedAfter: Long): Maybe<LinkPreviewEntity>
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract fun saveLinkPreview(linkPreview: LinkPreviewEntity): Long
+
+    @Query("DELETE FROM LinkPreviews WHERE accountId = :accountId")
+    abstract fun deleteLinkPreviewsForAccount(accountId: Long): Int
+
+    // expired previews and, beyond the newest ones, the least recently fetched
+    @Query(
+        "DELETE FROM LinkPreviews WHERE rowid NOT IN (" +
+            "SELECT rowid FROM LinkPreviews WHERE fetchedAt > :fetchedAfter " +
+            "ORDER BY fetchedAt DESC LIMIT :keep" +
+            ")"
+    )
+    abstract fun trimLinkPreviews(fetchedAfter: Long, keep: Int): Int
+}
@@ -0,0 +1,38 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.nextcloud.talk.data.linkpreview
+
+import com.nextcloud.talk.data.linkpreview.model.StoredLinkPreview
+import io.reactivex.Maybe
+
+interface LinkPreviewsRepository {
+    /**
+     * Returns the stored preview of the URL if it was fetched after the given time.
+     */
+    fun getLinkPreview(accountId: Long, url: String, fetchedAfter: Long): Maybe<StoredLinkPreview>
+    fun saveLinkPreview(accountId: Long, url: String, linkPreview: StoredLinkPreview)
+
+    /**
+     * Deletes the previews fetched before the given time and all but the newest [keep] of the rest.
+     */
+    fun trimLinkPreviews(fetchedAfter: Long, keep: Int): Int
+    fun deleteLinkPreviewsForAccount(accountId: Long): Int
+}
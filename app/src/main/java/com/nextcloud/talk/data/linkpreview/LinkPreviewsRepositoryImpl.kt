@@ -0,0 +1,44 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.nextcloud.talk.data.linkpreview
+
+import com.nextcloud.talk.data.linkpreview.model.StoredLinkPreview
+import io.reactivex.Maybe
+
+class LinkPreviewsRepositoryImpl(private val linkPreviewsDao: LinkPreviewsDao) : LinkPreviewsRepository {
+    override fun getLinkPreview(accountId: Long, url: String, fetchedAfter: Long): Maybe<StoredLinkPreview> {
+        return linkPreviewsDao
+            .getLinkPreview(accountId, url, fetchedAfter)
+            .flatMap { entity -> LinkPreviewMapper.toModel(entity)?.let { Maybe.just(it) } ?: Maybe.empty() }
+    }
+
+    override fun saveLinkPreview(accountId: Long, url: String, linkPreview: StoredLinkPreview) {
+        linkPreviewsDao.saveLinkPreview(LinkPreviewMapper.toEntity(accountId, url, linkPreview))
+    }
+
+    override fun trimLinkPreviews(fetchedAfter: Long, keep: Int): Int {
+        return linkPreviewsDao.trimLinkPreviews(fetchedAfter, keep)
+    }
+
+    override fun deleteLinkPreviewsForAccount(accountId: Long): Int {
+        return linkPreviewsDao.deleteLinkPreviewsForAccount(accountId)
+    }
+}
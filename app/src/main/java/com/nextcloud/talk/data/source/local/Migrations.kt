@@ -40,6 +40,27 @@ object Migrations {
         }
     }
 
+    val MIGRATION_8_9 = object : Migration(8, 9) {
+        override fun migrate(database: SupportSQLiteDatabase) {
+            Log.i("Migrations", "Migrating 8 to 9")
+            addChatMessagesTable(database)
+        }
+    }
+
+    val MIGRATION_9_10 = object : Migration(9, 10) {
+        override fun migrate(database: SupportSQLiteDatabase) {
+            Log.i("Migrations", "Migrating 9 to 10")
+            addConversationsTable(database)
+        }
+    }
+
+    val MIGRATION_10_11 = object : Migration(10, 11) {
+        override fun migrate(database: SupportSQLiteDatabase) {
+            Log.i("Migrations", "Migrating 10 to 11")
+            addLinkPreviewsTable(database)
+        }
+    }
+
     fun migrateToRoom(database: SupportSQLiteDatabase) {
         database.execSQL(
             "CREATE TABLE User_new (" +
@@ -92,4 +113,41 @@ object Migrations {
         database.execSQL("ALTER TABLE User_new RENAME TO User")
         database.execSQL("ALTER TABLE ArbitraryStorage_new RENAME TO ArbitraryStorage")
     }
+
+    fun addChatMessagesTable(database: SupportSQLiteDatabase) {
+        database.execSQL(
+            "CREATE TABLE IF NOT EXISTS `ChatMessages` (" +
+                "`accountId` INTEGER NOT NULL, " +
+                "`token` TEXT NOT NULL, " +
+                "`id` INTEGER NOT NULL, " +
+                "`timestamp` INTEGER NOT NULL, " +
+                "`expirationTimestamp` INTEGER NOT NULL, " +
+                "`payload` TEXT NOT NULL, " +
+                "PRIMARY KEY(`accountId`, `token`, `id`)" +
+                ")"
+        )
+    }
+
+    fun addConversationsTable(database: SupportSQLiteDatabase) {
+        database.execSQL(
+            "CREATE TABLE IF NOT EXISTS `Conversations` (" +
+                "`accountId` INTEGER NOT NULL, " +
+                "`token` TEXT NOT NULL, " +
+                "`payload` TEXT NOT NULL, " +
+                "PRIMARY KEY(`accountId`, `token`)" +
+                ")"
+        )
+    }
+
+    fun addLinkPreviewsTable(database: SupportSQLiteDatabase) {
+        database.execSQL(
+            "CREATE TABLE IF NOT EXISTS `LinkPreviews` (" +
+                "`accountId` INTEGER NOT NULL, " +
+                "`url` TEXT NOT NULL, " +
+                "`fetchedAt` INTEGER NOT NULL, " +
+                "`payload` TEXT NOT NULL, " +
+                "PRIMARY KEY(`accountId`, `url`)" +
+                ")"
+        )
+    }
 }
@@ -28,6 +28,12 @@ import androidx.room.RoomDatabase
 import androidx.room.TypeConverters
 import androidx.sqlite.db.SupportSQLiteDatabase
 import com.nextcloud.talk.R
+import com.nextcloud.talk.data.chat.ChatMessagesDao
+import com.nextcloud.talk.data.chat.model.ChatMessageEntity
+import com.nextcloud.talk.data.conversation.ConversationsDao
+import com.nextcloud.talk.data.conversation.model.ConversationEntity
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsDao
+import com.nextcloud.talk.data.linkpreview.model.LinkPreviewEntity
 import com.nextcloud.talk.data.source.local.converters.CapabilitiesConverter
 import com.nextcloud.talk.data.source.local.converters.ExternalSignalingServerConverter
 import com.nextcloud.talk.data.source.local.converters.HashMapHashMapConverter
@@ -44,8 +50,14 @@ import net.sqlcipher.database.SupportFactory
 import java.util.Locale
 
 @Database(
-    entities = [UserEntity::class, ArbitraryStorageEntity::class],
-    version = 8,
+    entities = [
+        UserEntity::class,
+        ArbitraryStorageEntity::class,
+        ChatMessageEntity::class,
+        ConversationEntity::class,
+        LinkPreviewEntity::class
+    ],
+    version = 11,
     exportSchema = true
 )
 @TypeConverters(
@@ -59,6 +71,9 @@ abstract class TalkDatabase : RoomDatabase() {
 
     abstract fun usersDao(): UsersDao
     abstract fun arbitraryStoragesDao(): ArbitraryStoragesDao
+    abstract fun chatMessagesDao(): ChatMessagesDao
+    abstract fun conversationsDao(): ConversationsDao
+    abstract fun linkPreviewsDao(): LinkPreviewsDao
 
     companion object {
         const val TAG = "TalkDatabase"
@@ -95,7 +110,13 @@ abstract class TalkDatabase : RoomDatabase() {
             return Room
                 .databaseBuilder(context.applicationContext, TalkDatabase::class.java, dbName)
                 .openHelperFactory(factory)
-                .addMigrations(Migrations.MIGRATION_6_8, Migrations.MIGRATION_7_8)
+                .addMigrations(
+                    Migrations.MIGRATION_6_8,
+                    Migrations.MIGRATION_7_8,
+                    Migrations.MIGRATION_8_9,
+                    Migrations.MIGRATION_9_10,
+                    Migrations.MIGRATION_10_11
+                )
                 .allowMainThreadQueries()
                 .addCallback(
                     object : RoomDatabase.Callback() {
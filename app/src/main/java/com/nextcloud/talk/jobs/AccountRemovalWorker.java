@@ -28,15 +28,20 @@ import android.os.Build;
 import android.util.Log;
 
 import com.nextcloud.talk.R;
+import com.nextcloud.talk.adapters.messages.LinkPreviewCache;
 import com.nextcloud.talk.api.NcApi;
 import com.nextcloud.talk.application.NextcloudTalkApplication;
 import com.nextcloud.talk.arbitrarystorage.ArbitraryStorageManager;
+import com.nextcloud.talk.data.chat.ChatMessagesRepository;
+import com.nextcloud.talk.data.conversation.ConversationsStorageRepository;
+import com.nextcloud.talk.data.linkpreview.LinkPreviewsRepository;
 import com.nextcloud.talk.data.user.model.User;
 import com.nextcloud.talk.models.json.generic.GenericMeta;
 import com.nextcloud.talk.models.json.generic.GenericOverall;
 import com.nextcloud.talk.models.json.push.PushConfigurationState;
 import com.nextcloud.talk.users.UserManager;
 import com.nextcloud.talk.utils.ApiUtils;
+import com.nextcloud.talk.utils.NotificationAvatarCache;
 import com.nextcloud.talk.webrtc.WebSocketConnectionHelper;
 
 import java.net.CookieManager;
@@ -67,6 +72,15 @@ public class AccountRemovalWorker extends Worker {
     @Inject
     ArbitraryStorageManager arbitraryStorageManager;
 
+    @Inject
+    ChatMessagesRepository chatMessagesRepository;
+
+    @Inject
+    ConversationsStorageRepository conversationsStorageRepository;
+
+    @Inject
+    LinkPreviewsRepository linkPreviewsRepository;
+
     @Inject
     Retrofit retrofit;
 
@@ -191,6 +205,10 @@ public class AccountRemovalWorker extends Worker {
         if (user.getId() != null) {
             try {
                 arbitraryStorageManager.deleteAllEntriesForAccountIdentifier(user.getId());
+                chatMessagesRepository.deleteMessagesForAccount(user.getId());
+                conversationsStorageRepository.deleteConversationsForAccount(user.getId());
+                LinkPreviewCache.INSTANCE.clearForAccount(user.getId(), linkPreviewsRepository);
+                NotificationAvatarCache.INSTANCE.clearForAccount(user.getId(), getApplicationContext().getCacheDir());
                 deleteUser(user);
             } catch (Throwable e) {
                 Log.e(TAG, "error while trying to delete All Entries For Account Identifier", e);
@@ -203,6 +221,7 @@ public class AccountRemovalWorker extends Worker {
             String username = user.getUsername();
             try {
                 userManager.deleteUser(user.getId());
+                NotificationWorker.removeNcApiForUser(user.getId());
                 Log.d(TAG, "deleted user: " + username);
             } catch (Throwable e) {
                 Log.e(TAG, "error while trying to delete user", e);
@@ -58,10 +58,13 @@ import com.nextcloud.talk.api.NcApi
 import com.nextcloud.talk.application.NextcloudTalkApplication
 import com.nextcloud.talk.application.NextcloudTalkApplication.Companion.sharedApplication
 import com.nextcloud.talk.arbitrarystorage.ArbitraryStorageManager
+import com.nextcloud.talk.events.EventStatus
 import com.nextcloud.talk.models.SignatureVerification
 import com.nextcloud.talk.models.json.chat.ChatUtils.Companion.getParsedMessage
 import com.nextcloud.talk.models.json.conversations.RoomOverall
+import com.nextcloud.talk.models.json.notifications.Notification as NcNotification
 import com.nextcloud.talk.models.json.notifications.NotificationOverall
+import com.nextcloud.talk.models.json.notifications.NotificationsOverall
 import com.nextcloud.talk.models.json.participants.Participant
 import com.nextcloud.talk.models.json.participants.ParticipantsOverall
 import com.nextcloud.talk.models.json.push.DecryptedPushMessage
@@ -96,12 +99,14 @@ import io.reactivex.disposables.Disposable
 import io.reactivex.schedulers.Schedulers
 import okhttp3.JavaNetCookieJar
 import okhttp3.OkHttpClient
+import org.greenrobot.eventbus.EventBus
+import org.greenrobot.eventbus.Subscribe
+import org.greenrobot.eventbus.ThreadMode
 import retrofit2.Retrofit
 import java.io.IOException
 import java.net.CookieManager
 import java.security.InvalidKeyException
 import java.security.NoSuchAlgorithmException
-import java.security.PrivateKey
 import java.util.concurrent.TimeUnit
 import java.util.function.Consumer
 import java.util.zip.CRC32
@@ -126,6 +131,10 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
     @JvmField
     @Inject
     var okHttpClient: OkHttpClient? = null
+
+    @JvmField
+    @Inject
+    var eventBus: EventBus? = null
     private lateinit var credentials: String
     private lateinit var ncApi: NcApi
     private lateinit var pushMessage: DecryptedPushMessage
@@ -135,6 +144,7 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
     private var muteCall = false
     private var importantConversation = false
     private lateinit var notificationManager: NotificationManagerCompat
+    private val coalescedMessages = mutableListOf<NotificationCompat.MessagingStyle.Message>()
 
     override fun doWork(): Result {
         sharedApplication!!.componentApplication.inject(this)
@@ -185,12 +195,47 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
         chatBundle.putBoolean(KEY_FROM_NOTIFICATION_START_CALL, false)
         chatIntent.putExtras(chatBundle)
         if (pushMessage.notificationId != Long.MIN_VALUE) {
-            showNotificationWithObjectData(chatIntent)
+            showCoalescedNotificationsWithObjectData(chatIntent)
         } else {
             showNotification(chatIntent)
         }
     }
 
+    /**
+     * Shows the notification of the push, coalescing it with those of other pushes received for the same
+     * conversation shortly after it.
+     *
+     * Busy conversations can cause a burst of pushes; rather than fetching and showing each notification on its own,
+     * only the first push of a burst is shown right away. The next one waits until [PUSH_COALESCING_WINDOW_MILLIS]
+     * have passed and then fetches all the notifications received in the meantime at once and shows them in a single
+     * update, fetching them one by one if that fails. The rest of the pushes of the burst do nothing.
+     */
+    private fun showCoalescedNotificationsWithObjectData(intent: Intent) {
+        val key = signatureVerification.user!!.id.toString() + "@" + pushMessage.id
+        when (pushCoalescer.offer(key, pushMessage.notificationId!!, SystemClock.elapsedRealtime())) {
+            PushCoalescer.Role.SHOW -> {
+                showNotificationWithObjectData(intent)
+                return
+            }
+            PushCoalescer.Role.MERGED -> {
+                Log.d(TAG, "Notification " + pushMessage.notificationId + " coalesced with a pending one")
+                return
+            }
+            PushCoalescer.Role.COLLECT -> {
+                SystemClock.sleep(pushCoalescer.remainingWindowMillis(key, SystemClock.elapsedRealtime()))
+            }
+        }
+
+        val notificationIds = pushCoalescer.drain(key, SystemClock.elapsedRealtime())
+        if (notificationIds.size <= 1) {
+            showNotificationWithObjectData(intent)
+        } else if (!showNotificationsWithObjectData(intent, notificationIds)) {
+            // the merged pushes rely on this one, so their notifications are fetched one by one instead
+            coalescedMessages.clear()
+            showNotifications(intent, notificationIds.sorted().mapNotNull { fetchNotification(it) })
+        }
+    }
+
     /**
      * handle messages with type 'room', e.g. "xxx invited you to a group conversation"
      */
@@ -264,15 +309,33 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
             signatureVerification.user!!.username,
             signatureVerification.user!!.token
         )
-        ncApi = retrofit!!.newBuilder().client(
-            okHttpClient!!.newBuilder().cookieJar(
-                JavaNetCookieJar(
-                    CookieManager()
+        ncApi = getNcApiForUser(signatureVerification.user!!.id!!)
+    }
+
+    /**
+     * Returns the API for the given user, creating it only for the first push of the user.
+     *
+     * Each user gets its own cookie jar, but the API (and thus the connections of its HTTP client) is reused by the
+     * next pushes rather than set up again for each one.
+     */
+    private fun getNcApiForUser(userId: Long): NcApi {
+        synchronized(ncApis) {
+            if (!eventBus!!.isRegistered(ncApisInvalidator)) {
+                eventBus!!.register(ncApisInvalidator)
+            }
+
+            return ncApis.getOrPut(userId) {
+                retrofit!!.newBuilder().client(
+                    okHttpClient!!.newBuilder().cookieJar(
+                        JavaNetCookieJar(
+                            CookieManager()
+                        )
+                    ).build()
+                ).build().create(
+                    NcApi::class.java
                 )
-            ).build()
-        ).build().create(
-            NcApi::class.java
-        )
+            }
+        }
     }
 
     @Suppress("TooGenericExceptionCaught", "NestedBlockDepth", "ComplexMethod", "LongMethod")
@@ -283,7 +346,7 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
             val base64DecodedSubject = Base64.decode(subject, Base64.DEFAULT)
             val base64DecodedSignature = Base64.decode(signature, Base64.DEFAULT)
             val pushUtils = PushUtils()
-            val privateKey = pushUtils.readKeyFromFile(false) as PrivateKey
+            val privateKey = pushUtils.devicePrivateKey
             try {
                 signatureVerification = pushUtils.verifySignature(
                     base64DecodedSignature,
@@ -330,54 +393,7 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
                 }
 
                 override fun onNext(notificationOverall: NotificationOverall) {
-                    val ncNotification = notificationOverall.ocs!!.notification
-
-                    if (ncNotification!!.messageRichParameters != null &&
-                        ncNotification.messageRichParameters!!.size > 0
-                    ) {
-                        pushMessage.text = getParsedMessage(
-                            ncNotification.messageRich,
-                            ncNotification.messageRichParameters
-                        )
-                    } else {
-                        pushMessage.text = ncNotification.message
-                    }
-
-                    val subjectRichParameters = ncNotification.subjectRichParameters
-
-                    pushMessage.timestamp = ncNotification.datetime!!.millis
-
-                    if (subjectRichParameters != null && subjectRichParameters.size > 0) {
-                        val callHashMap = subjectRichParameters["call"]
-                        val userHashMap = subjectRichParameters["user"]
-                        val guestHashMap = subjectRichParameters["guest"]
-                        if (callHashMap != null && callHashMap.size > 0 && callHashMap.containsKey("name")) {
-                            if (subjectRichParameters.containsKey("reaction")) {
-                                pushMessage.subject = ""
-                                pushMessage.text = ncNotification.subject
-                            } else if (ncNotification.objectType == "chat") {
-                                pushMessage.subject = callHashMap["name"]!!
-                            } else {
-                                pushMessage.subject = ncNotification.subject!!
-                            }
-                            if (callHashMap.containsKey("call-type")) {
-                                conversationType = callHashMap["call-type"]
-                            }
-                        }
-                        val notificationUser = NotificationUser()
-                        if (userHashMap != null && userHashMap.isNotEmpty()) {
-                            notificationUser.id = userHashMap["id"]
-                            notificationUser.type = userHashMap["type"]
-                            notificationUser.name = userHashMap["name"]
-                            pushMessage.notificationUser = notificationUser
-                        } else if (guestHashMap != null && guestHashMap.isNotEmpty()) {
-                            notificationUser.id = guestHashMap["id"]
-                            notificationUser.type = guestHashMap["type"]
-                            notificationUser.name = guestHashMap["name"]
-                            pushMessage.notificationUser = notificationUser
-                        }
-                    }
-                    pushMessage.objectId = ncNotification.objectId
+                    applyNotificationData(notificationOverall.ocs!!.notification!!)
                     showNotification(intent)
                 }
 
@@ -391,6 +407,151 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
             })
     }
 
+    private fun fetchNotification(notificationId: Long): NcNotification? {
+        var ncNotification: NcNotification? = null
+
+        ncApi.getNotification(
+            credentials,
+            ApiUtils.getUrlForNotificationWithId(signatureVerification.user!!.baseUrl, notificationId.toString())
+        )
+            .blockingSubscribe(object : Observer<NotificationOverall> {
+                override fun onSubscribe(d: Disposable) {
+                    // unused atm
+                }
+
+                override fun onNext(notificationOverall: NotificationOverall) {
+                    ncNotification = notificationOverall.ocs?.notification
+                }
+
+                override fun onError(e: Throwable) {
+                    Log.e(TAG, "Failed to get the notification $notificationId", e)
+                }
+
+                override fun onComplete() {
+                    // unused atm
+                }
+            })
+        return ncNotification
+    }
+
+    private fun applyNotificationData(ncNotification: NcNotification) {
+        if (ncNotification.messageRichParameters != null &&
+            ncNotification.messageRichParameters!!.size > 0
+        ) {
+            pushMessage.text = getParsedMessage(
+                ncNotification.messageRich,
+                ncNotification.messageRichParameters
+            )
+        } else {
+            pushMessage.text = ncNotification.message
+        }
+
+        val subjectRichParameters = ncNotification.subjectRichParameters
+
+        pushMessage.timestamp = ncNotification.datetime!!.millis
+
+        if (subjectRichParameters != null && subjectRichParameters.size > 0) {
+            val callHashMap = subjectRichParameters["call"]
+            val userHashMap = subjectRichParameters["user"]
+            val guestHashMap = subjectRichParameters["guest"]
+            if (callHashMap != null && callHashMap.size > 0 && callHashMap.containsKey("name")) {
+                if (subjectRichParameters.containsKey("reaction")) {
+                    pushMessage.subject = ""
+                    pushMessage.text = ncNotification.subject
+                } else if (ncNotification.objectType == "chat") {
+                    pushMessage.subject = callHashMap["name"]!!
+                } else {
+                    pushMessage.subject = ncNotification.subject!!
+                }
+                if (callHashMap.containsKey("call-type")) {
+                    conversationType = callHashMap["call-type"]
+                }
+            }
+            val notificationUser = NotificationUser()
+            if (userHashMap != null && userHashMap.isNotEmpty()) {
+                notificationUser.id = userHashMap["id"]
+                notificationUser.type = userHashMap["type"]
+                notificationUser.name = userHashMap["name"]
+                pushMessage.notificationUser = notificationUser
+            } else if (guestHashMap != null && guestHashMap.isNotEmpty()) {
+                notificationUser.id = guestHashMap["id"]
+                notificationUser.type = guestHashMap["type"]
+                notificationUser.name = guestHashMap["name"]
+                pushMessage.notificationUser = notificationUser
+            }
+        }
+        pushMessage.objectId = ncNotification.objectId
+        pushMessage.notificationId = ncNotification.notificationId?.toLong()
+    }
+
+    /**
+     * Fetches all the notifications of the user at once and shows the given ones, in order, in a single update.
+     *
+     * @return whether the notifications were shown
+     */
+    private fun showNotificationsWithObjectData(intent: Intent, notificationIds: List<Long>): Boolean {
+        val user = signatureVerification.user
+        var shown = false
+
+        ncApi.getNotifications(credentials, ApiUtils.getUrlForNotifications(user!!.baseUrl))
+            .blockingSubscribe(object : Observer<NotificationsOverall> {
+                override fun onSubscribe(d: Disposable) {
+                    // unused atm
+                }
+
+                override fun onNext(notificationsOverall: NotificationsOverall) {
+                    val ncNotifications = notificationsOverall.ocs?.notificationsList.orEmpty()
+                        .filter { notificationIds.contains(it.notificationId?.toLong()) }
+                        .sortedBy { it.notificationId }
+                    shown = showNotifications(intent, ncNotifications)
+                }
+
+                override fun onError(e: Throwable) {
+                    Log.e(TAG, "Failed to get the notifications", e)
+                }
+
+                override fun onComplete() {
+                    // unused atm
+                }
+            })
+        return shown
+    }
+
+    /**
+     * Shows the given notifications, in order, in a single update.
+     *
+     * @return whether there was any notification to show
+     */
+    private fun showNotifications(intent: Intent, ncNotifications: List<NcNotification>): Boolean {
+        if (ncNotifications.isEmpty()) {
+            return false
+        }
+
+        for (ncNotification in ncNotifications.dropLast(1)) {
+            applyNotificationData(ncNotification)
+            addCoalescedMessage()
+        }
+        applyNotificationData(ncNotifications.last())
+        showNotification(intent)
+        return true
+    }
+
+    /**
+     * Keeps the message of the current notification to be added to the messaging style of the next one shown.
+     */
+    private fun addCoalescedMessage() {
+        val notificationUser = pushMessage.notificationUser
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && notificationUser != null) {
+            coalescedMessages.add(
+                NotificationCompat.MessagingStyle.Message(
+                    pushMessage.text,
+                    pushMessage.timestamp,
+                    buildPerson(notificationUser)
+                )
+            )
+        }
+    }
+
     @Suppress("MagicNumber")
     private fun showNotification(intent: Intent) {
         val largeIcon: Bitmap
@@ -502,21 +663,25 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
         activeStatusBarNotification: StatusBarNotification?,
         systemNotificationId: Int
     ) {
-        val notificationUser = pushMessage.notificationUser
-        val userType = notificationUser!!.type
         var style: NotificationCompat.MessagingStyle? = null
         if (activeStatusBarNotification != null) {
             style = NotificationCompat.MessagingStyle.extractMessagingStyleFromNotification(
                 activeStatusBarNotification.notification
             )
         }
+        notificationBuilder.setOnlyAlertOnce(true)
+        addReplyAction(notificationBuilder, systemNotificationId)
+        addMarkAsReadAction(notificationBuilder, systemNotificationId)
+
+        notificationBuilder.setStyle(getStyle(buildPerson(pushMessage.notificationUser!!), style))
+    }
+
+    private fun buildPerson(notificationUser: NotificationUser): Person {
+        val userType = notificationUser.type
         val person = Person.Builder()
             .setKey(signatureVerification.user!!.id.toString() + "@" + notificationUser.id)
             .setName(EmojiCompat.get().process(notificationUser.name!!))
             .setBot("bot" == userType)
-        notificationBuilder.setOnlyAlertOnce(true)
-        addReplyAction(notificationBuilder, systemNotificationId)
-        addMarkAsReadAction(notificationBuilder, systemNotificationId)
 
         if ("user" == userType || "guest" == userType) {
             val baseUrl = signatureVerification.user!!.baseUrl
@@ -525,9 +690,9 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
                 notificationUser.id,
                 false
             ) else ApiUtils.getUrlForGuestAvatar(baseUrl, notificationUser.name, false)
-            person.setIcon(loadAvatarSync(avatarUrl, context!!))
+            person.setIcon(loadAvatarSync(avatarUrl, context!!, signatureVerification.user!!, okHttpClient!!))
         }
-        notificationBuilder.setStyle(getStyle(person.build(), style))
+        return person.build()
     }
 
     private fun buildIntentForAction(cls: Class<*>, systemNotificationId: Int, messageId: Int): PendingIntent {
@@ -607,6 +772,8 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
                 )
             }
         )
+        coalescedMessages.forEach { newStyle.addMessage(it) }
+        coalescedMessages.clear()
         newStyle.addMessage(pushMessage.text, pushMessage.timestamp, person)
         return newStyle
     }
@@ -834,5 +1001,33 @@ class NotificationWorker(context: Context, workerParams: WorkerParameters) : Wor
         private const val TIMER_COUNT = 12
         private const val TIMER_DELAY: Long = 5
         private const val GET_ROOM_RETRY_COUNT: Long = 3
+        private const val PUSH_COALESCING_WINDOW_MILLIS: Long = 2000
+
+        private val ncApis = HashMap<Long, NcApi>()
+        private val ncApisInvalidator = NcApisInvalidator()
+        private val pushCoalescer = PushCoalescer(PUSH_COALESCING_WINDOW_MILLIS)
+
+        /**
+         * Drops the API kept for the given user, to be called when the user is removed. Changes of the push
+         * registration are observed through [EventStatus].
+         */
+        @JvmStatic
+        fun removeNcApiForUser(userId: Long) {
+            synchronized(ncApis) {
+                ncApis.remove(userId)
+            }
+        }
+    }
+
+    /**
+     * Drops the API of a user once its push registration was updated.
+     */
+    class NcApisInvalidator {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        fun onMessageEvent(eventStatus: EventStatus) {
+            if (eventStatus.eventType == EventStatus.EventType.PUSH_REGISTRATION && eventStatus.isAllGood) {
+                removeNcApiForUser(eventStatus.userId)
+            }
+        }
     }
 }
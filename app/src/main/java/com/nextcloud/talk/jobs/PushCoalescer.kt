@@ -0,0 +1,91 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.jobs
+
+/**
+ * Merges the pushes received for the same conversation within a short window.
+ *
+ * The first push for a key is shown right away and opens a window of [windowMillis]. The first push received
+ * within the window becomes the collector of a batch: it waits until the window ends and then handles all the
+ * notifications collected in the meantime with [drain]. Any other push for the same key received before that is just
+ * added to the batch of the collector, and does not need to be handled on its own. Draining the batch opens a new
+ * window, so a steady stream of pushes is shown at most once per window.
+ */
+class PushCoalescer(private val windowMillis: Long) {
+
+    enum class Role {
+        /** The push has to be shown right away. */
+        SHOW,
+
+        /** The push has to wait for [remainingWindowMillis] and then [drain] the batch. */
+        COLLECT,
+
+        /** The push was added to the batch of another push. */
+        MERGED
+    }
+
+    private class Window(var startMillis: Long) {
+        var pendingNotificationIds: MutableList<Long>? = null
+    }
+
+    private val windows = HashMap<String, Window>()
+
+    @Synchronized
+    fun offer(key: String, notificationId: Long, nowMillis: Long): Role {
+        windows.entries.removeAll { isExpired(it.value, nowMillis) }
+
+        val window = windows[key]
+        if (window == null) {
+            windows[key] = Window(nowMillis)
+            return Role.SHOW
+        }
+
+        val pendingNotificationIds = window.pendingNotificationIds
+        if (pendingNotificationIds != null) {
+            pendingNotificationIds.add(notificationId)
+            return Role.MERGED
+        }
+
+        window.pendingNotificationIds = mutableListOf(notificationId)
+        return Role.COLLECT
+    }
+
+    @Synchronized
+    fun remainingWindowMillis(key: String, nowMillis: Long): Long {
+        val window = windows[key] ?: return 0
+        return (window.startMillis + windowMillis - nowMillis).coerceAtLeast(0)
+    }
+
+    /**
+     * Ends the batch for the given key, returning its notification IDs in the order they were received.
+     */
+    @Synchronized
+    fun drain(key: String, nowMillis: Long): List<Long> {
+        val window = windows[key] ?: return emptyList()
+        val notificationIds = window.pendingNotificationIds ?: emptyList()
+        window.pendingNotificationIds = null
+        window.startMillis = nowMillis
+        return notificationIds
+    }
+
+    private fun isExpired(window: Window, nowMillis: Long): Boolean {
+        return window.pendingNotificationIds == null && nowMillis - window.startMillis >= windowMillis
+    }
+}
@@ -40,10 +40,12 @@ import com.nextcloud.talk.utils.ApiUtils
 import com.nextcloud.talk.utils.database.user.CapabilitiesUtilNew
 import com.stfalcon.chatkit.commons.models.IUser
 import com.stfalcon.chatkit.commons.models.MessageContentType
+import kotlinx.parcelize.IgnoredOnParcel
 import kotlinx.parcelize.Parcelize
 import java.security.MessageDigest
 import java.util.Arrays
 import java.util.Date
+import java.util.concurrent.ConcurrentHashMap
 
 @Parcelize
 @JsonObject
@@ -132,6 +134,23 @@ data class ChatMessage(
 
     var extractedUrlToPreview: String? = null
 
+    // calculated once per message, see calculateMessageKind()
+    @IgnoredOnParcel
+    private var messageKind: MessageKind? = null
+
+    @IgnoredOnParcel
+    private var linkPreview: Boolean? = null
+
+    // rendered once per message and parameters, see getText()
+    @IgnoredOnParcel
+    private var parsedText: String? = null
+
+    @IgnoredOnParcel
+    private var parsedTextSource: String? = null
+
+    @IgnoredOnParcel
+    private var parsedTextParameters: HashMap<String?, HashMap<String?, String?>>? = null
+
     // messageTypesToIgnore is weird. must be deleted by refactoring!!!
     @JsonIgnore
     var messageTypesToIgnore = Arrays.asList(
@@ -146,59 +165,71 @@ data class ChatMessage(
     )
 
     fun hasFileAttachment(): Boolean {
-        if (messageParameters != null && messageParameters!!.size > 0) {
-            for ((_, individualHashMap) in messageParameters!!) {
-                if (isHashMapEntryEqualTo(individualHashMap, "type", "file")) {
-                    return true
-                }
-            }
-        }
-        return false
+        return getMessageKind().hasFileAttachment
     }
 
     fun hasGeoLocation(): Boolean {
-        if (messageParameters != null && messageParameters!!.size > 0) {
-            for ((_, individualHashMap) in messageParameters!!) {
-                if (isHashMapEntryEqualTo(individualHashMap, "type", "geo-location")) {
-                    return true
-                }
-            }
-        }
-        return false
+        return getMessageKind().hasGeoLocation
     }
 
     fun isPoll(): Boolean {
-        if (messageParameters != null && messageParameters!!.size > 0) {
-            for ((_, individualHashMap) in messageParameters!!) {
-                if (isHashMapEntryEqualTo(individualHashMap, "type", "talk-poll")) {
-                    return true
-                }
-            }
-        }
-        return false
+        return getMessageKind().isPoll
     }
 
-    @Suppress("ReturnCount")
     fun isLinkPreview(): Boolean {
-        if (CapabilitiesUtilNew.isLinkPreviewAvailable(activeUser!!)) {
-            val regexStringFromServer = activeUser?.capabilities?.coreCapability?.referenceRegex
-
-            val regexFromServer = regexStringFromServer?.toRegex(setOf(RegexOption.MULTILINE, RegexOption.IGNORE_CASE))
-            val regexDefault = REGEX_STRING_DEFAULT.toRegex(setOf(RegexOption.MULTILINE, RegexOption.IGNORE_CASE))
+        return linkPreview ?: findLinkToPreview().also { linkPreview = it }
+    }
 
-            val messageCharSequence: CharSequence = StringBuffer(message!!)
+    /**
+     * Classifies the message up front, so that resolving the view type while binding doesn't have to walk the
+     * message parameters or run the link regexes again. Needs [activeUser] to be set for the link preview check.
+     */
+    fun calculateMessageKind() {
+        getMessageKind()
+        if (activeUser != null) {
+            isLinkPreview()
+        }
+    }
 
-            if (regexFromServer != null) {
-                val foundLinkInServerRegex = regexFromServer.containsMatchIn(messageCharSequence)
-                if (foundLinkInServerRegex) {
-                    extractedUrlToPreview = regexFromServer.find(messageCharSequence)?.groups?.get(0)?.value?.trim()
-                    return true
-                }
+    private fun getMessageKind(): MessageKind {
+        messageKind?.let { return it }
+
+        var hasFileAttachment = false
+        var hasGeoLocation = false
+        var isPoll = false
+        messageParameters?.values?.forEach { individualHashMap ->
+            when (individualHashMap?.get("type")) {
+                "file" -> hasFileAttachment = true
+                "geo-location" -> hasGeoLocation = true
+                "talk-poll" -> isPoll = true
             }
+        }
 
-            val foundLinkInDefaultRegex = regexDefault.containsMatchIn(messageCharSequence)
-            if (foundLinkInDefaultRegex) {
-                extractedUrlToPreview = regexDefault.find(messageCharSequence)?.groups?.get(0)?.value?.trim()
+        val messageType = if (!TextUtils.isEmpty(systemMessage)) {
+            MessageType.SYSTEM_MESSAGE
+        } else if (isVoiceMessage) {
+            MessageType.VOICE_MESSAGE
+        } else if (hasFileAttachment) {
+            MessageType.SINGLE_NC_ATTACHMENT_MESSAGE
+        } else if (hasGeoLocation) {
+            MessageType.SINGLE_NC_GEOLOCATION_MESSAGE
+        } else if (isPoll) {
+            MessageType.POLL_MESSAGE
+        } else {
+            MessageType.REGULAR_TEXT_MESSAGE
+        }
+
+        return MessageKind(hasFileAttachment, hasGeoLocation, isPoll, messageType).also { messageKind = it }
+    }
+
+    private fun findLinkToPreview(): Boolean {
+        if (CapabilitiesUtilNew.isLinkPreviewAvailable(activeUser!!)) {
+            val regexStringFromServer = activeUser?.capabilities?.coreCapability?.referenceRegex
+            val regexFromServer = regexStringFromServer?.let { getReferenceRegex(it) }
+
+            val link = regexFromServer?.find(message!!) ?: REGEX_DEFAULT.find(message!!)
+            if (link != null) {
+                extractedUrlToPreview = link.groups[0]?.value?.trim()
                 return true
             }
         }
@@ -236,19 +267,7 @@ data class ChatMessage(
     }
 
     fun getCalculateMessageType(): MessageType {
-        return if (!TextUtils.isEmpty(systemMessage)) {
-            MessageType.SYSTEM_MESSAGE
-        } else if (isVoiceMessage) {
-            MessageType.VOICE_MESSAGE
-        } else if (hasFileAttachment()) {
-            MessageType.SINGLE_NC_ATTACHMENT_MESSAGE
-        } else if (hasGeoLocation()) {
-            MessageType.SINGLE_NC_GEOLOCATION_MESSAGE
-        } else if (isPoll()) {
-            MessageType.POLL_MESSAGE
-        } else {
-            MessageType.REGULAR_TEXT_MESSAGE
-        }
+        return getMessageKind().messageType
     }
 
     override fun getId(): String {
@@ -256,7 +275,16 @@ data class ChatMessage(
     }
 
     override fun getText(): String {
-        return getParsedMessage(message, messageParameters)!!
+        val cachedText = parsedText
+        if (cachedText != null && parsedTextSource === message && parsedTextParameters === messageParameters) {
+            return cachedText
+        }
+
+        val text = getParsedMessage(message, messageParameters)!!
+        parsedText = text
+        parsedTextSource = message
+        parsedTextParameters = messageParameters
+        return text
     }
 
     /*} else if (getCalculateMessageType().equals(MessageType.SINGLE_LINK_MESSAGE)) {
@@ -450,6 +478,13 @@ data class ChatMessage(
     val isDeletedCommentMessage: Boolean
         get() = "comment_deleted" == messageType
 
+    private class MessageKind(
+        val hasFileAttachment: Boolean,
+        val hasGeoLocation: Boolean,
+        val isPoll: Boolean,
+        val messageType: MessageType
+    )
+
     enum class MessageType {
         REGULAR_TEXT_MESSAGE,
         SYSTEM_MESSAGE,
@@ -526,5 +561,15 @@ data class ChatMessage(
 
         private const val REGEX_STRING_DEFAULT =
             """(\s|\n|^)(https?:\/\/)((?:[-A-Z0-9+_]+\.)+[-A-Z]+(?:\/[-A-Z0-9+&@#%?=~_|!:,.;()]*)*)(\s|\n|$)"""
+
+        private val REGEX_OPTIONS = setOf(RegexOption.MULTILINE, RegexOption.IGNORE_CASE)
+        private val REGEX_DEFAULT = REGEX_STRING_DEFAULT.toRegex(REGEX_OPTIONS)
+
+        // compiled referenceRegex capabilities, keyed by the pattern so that a changed capability is compiled again
+        private val referenceRegexCache = ConcurrentHashMap<String, Regex>()
+
+        private fun getReferenceRegex(pattern: String): Regex {
+            return referenceRegexCache.getOrPut(pattern) { pattern.toRegex(REGEX_OPTIONS) }
+        }
     }
 }
@@ -34,33 +34,82 @@ class ChatUtils {
             return message
         }
 
-        @Suppress("Detekt.ComplexMethod")
         private fun parse(
             messageParameters: HashMap<String?, HashMap<String?, String?>>,
             message: String?
         ): String? {
-            var resultMessage = message
-            for (key in messageParameters.keys) {
-                val individualHashMap = messageParameters[key]
-
+            // geo locations and links other than files replace the whole message
+            var replacedMessage: String? = null
+            var hasReplacedMessage = false
+            for (individualHashMap in messageParameters.values) {
                 if (individualHashMap != null) {
                     val type = individualHashMap["type"]
-                    resultMessage = if (type == "user" || type == "guest" || type == "call") {
-                        resultMessage?.replace("{$key}", "@" + individualHashMap["name"])
-                    } else if (type == "geo-location") {
-                        individualHashMap["name"]
-                    } else if (individualHashMap?.containsKey("link") == true) {
-                        if (type == "file") {
-                            resultMessage?.replace("{$key}", individualHashMap["name"].toString())
-                        } else {
-                            individualHashMap["link"].toString()
-                        }
-                    } else {
-                        individualHashMap["name"]?.let { resultMessage?.replace("{$key}", it) }
+                    if (type == "geo-location") {
+                        replacedMessage = individualHashMap["name"]
+                        hasReplacedMessage = true
+                    } else if (!isMention(type) && type != "file" && individualHashMap.containsKey("link")) {
+                        replacedMessage = individualHashMap["link"].toString()
+                        hasReplacedMessage = true
                     }
                 }
             }
-            return resultMessage
+
+            if (hasReplacedMessage) {
+                return replacedMessage
+            }
+
+            return message?.let { render(it, messageParameters) }
         }
+
+        /**
+         * Replaces all {placeholders} of the message in a single pass. Placeholders without a matching parameter
+         * are kept as they are.
+         */
+        private fun render(message: String, messageParameters: HashMap<String?, HashMap<String?, String?>>): String {
+            var placeholderStart = message.indexOf('{')
+            if (placeholderStart < 0) {
+                return message
+            }
+
+            val result = StringBuilder(message.length + RENDERED_MESSAGE_EXTRA_CAPACITY)
+            var copiedUntil = 0
+            while (placeholderStart >= 0) {
+                val placeholderEnd = message.indexOf('}', placeholderStart + 1)
+                if (placeholderEnd < 0) {
+                    break
+                }
+
+                val key = message.substring(placeholderStart + 1, placeholderEnd)
+                val replacement = getReplacement(messageParameters[key])
+                if (replacement != null) {
+                    result.append(message, copiedUntil, placeholderStart).append(replacement)
+                    copiedUntil = placeholderEnd + 1
+                    placeholderStart = message.indexOf('{', copiedUntil)
+                } else {
+                    placeholderStart = message.indexOf('{', placeholderStart + 1)
+                }
+            }
+            result.append(message, copiedUntil, message.length)
+            return result.toString()
+        }
+
+        private fun getReplacement(individualHashMap: HashMap<String?, String?>?): String? {
+            if (individualHashMap == null) {
+                return null
+            }
+
+            val type = individualHashMap["type"]
+            return if (isMention(type)) {
+                "@" + individualHashMap["name"]
+            } else if (type == "file" && individualHashMap.containsKey("link")) {
+                individualHashMap["name"].toString()
+            } else {
+                individualHashMap["name"]
+            }
+        }
+
+        private fun isMention(type: String?) = type == "user" || type == "guest" || type == "call"
+
+        private const val RENDERED_MESSAGE_EXTRA_CAPACITY = 16
     }
 }
@@ -35,16 +35,19 @@ import com.nextcloud.talk.api.NcApi;
 import com.nextcloud.talk.application.NextcloudTalkApplication;
 import com.nextcloud.talk.data.user.model.User;
 import com.nextcloud.talk.models.json.mention.Mention;
-import com.nextcloud.talk.models.json.mention.MentionOverall;
 import com.nextcloud.talk.ui.theme.ViewThemeUtils;
 import com.nextcloud.talk.users.UserManager;
 import com.nextcloud.talk.utils.ApiUtils;
+import com.nextcloud.talk.utils.ParticipantMentionIndex;
 import com.otaliastudios.autocomplete.RecyclerViewPresenter;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -53,15 +56,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import autodagger.AutoInjector;
 import eu.davidea.flexibleadapter.FlexibleAdapter;
 import eu.davidea.flexibleadapter.items.AbstractFlexibleItem;
-import io.reactivex.Observer;
+import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
-import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 
 @AutoInjector(NextcloudTalkApplication.class)
 public class MentionAutocompletePresenter extends RecyclerViewPresenter<Mention> implements FlexibleAdapter.OnItemClickListener {
     private static final String TAG = "MentionAutocompletePresenter";
+    private static final int SUGGESTIONS_LIMIT = 5;
+    private static final long SUGGESTIONS_DEBOUNCE_MILLIS = 300;
+    private static final long PARTICIPANTS_REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000;
 
     @Inject
     NcApi ncApi;
@@ -78,6 +83,11 @@ public class MentionAutocompletePresenter extends RecyclerViewPresenter<Mention>
 
     private String roomToken;
 
+    private ParticipantMentionIndex participantMentionIndex;
+    private long participantMentionIndexRequestedAt;
+    private Disposable participantsDisposable;
+    private Disposable suggestionsDisposable;
+
     private List<AbstractFlexibleItem> abstractFlexibleItemList = new ArrayList<>();
 
     public MentionAutocompletePresenter(Context context) {
@@ -120,66 +130,153 @@ public class MentionAutocompletePresenter extends RecyclerViewPresenter<Mention>
             queryString = "";
         }
 
-        int apiVersion = ApiUtils.getChatApiVersion(currentUser, new int[] {1});
-
         adapter.setFilter(queryString);
 
+        disposeRequests();
+        refreshParticipantMentionIndex();
+
+        List<Mention> localMentions = new ArrayList<>();
+        if (participantMentionIndex != null) {
+            localMentions = participantMentionIndex.search(queryString, SUGGESTIONS_LIMIT);
+            if (!localMentions.isEmpty()) {
+                showMentions(localMentions);
+            }
+        }
+
+        // the index only knows users and guests, so the server is still asked for the conversation, groups, teams
+        // and federated users; its results are added after the local ones
+        List<Mention> shownLocalMentions = localMentions;
+        boolean hasLocalMentions = !localMentions.isEmpty();
+        int apiVersion = ApiUtils.getChatApiVersion(currentUser, new int[] {1});
+
         Map<String, String> queryMap = new HashMap<>();
         queryMap.put("includeStatus", "true");
 
-        ncApi.getMentionAutocompleteSuggestions(
+        // wait until typing pauses, a newer query disposes this one before or while it is requested
+        suggestionsDisposable = Observable
+            .timer(SUGGESTIONS_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+            .flatMap(tick -> ncApi.getMentionAutocompleteSuggestions(
                 ApiUtils.getCredentials(currentUser.getUsername(), currentUser.getToken()),
                 ApiUtils.getUrlForMentionSuggestions(apiVersion, currentUser.getBaseUrl(), roomToken),
-                queryString, 5, queryMap)
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .retry(3)
-                .subscribe(new Observer<MentionOverall>() {
-                    @Override
-                    public void onSubscribe(@NonNull Disposable d) {
-                        // no actions atm
-                    }
-
-                    @Override
-                    public void onNext(@NonNull MentionOverall mentionOverall) {
-                        List<Mention> mentionsList = mentionOverall.getOcs().getData();
-
-                        if (mentionsList.size() == 0) {
-                            adapter.clear();
-                        } else {
-                            List<AbstractFlexibleItem> internalAbstractFlexibleItemList =
-                                new ArrayList<>(mentionsList.size());
-                            for (Mention mention : mentionsList) {
-                                internalAbstractFlexibleItemList.add(
-                                        new MentionAutocompleteItem(
-                                                mention,
-                                                currentUser,
-                                                context,
-                                                viewThemeUtils));
-                            }
-
-                            if (adapter.getItemCount() != 0) {
-                                adapter.clear();
-                            }
-
-                            adapter.updateDataSet(internalAbstractFlexibleItemList);
-                        }
-                    }
+                queryString, SUGGESTIONS_LIMIT, queryMap)
+                .retry(3))
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                mentionOverall -> {
+                    List<Mention> mentionsList = mergeMentions(shownLocalMentions, mentionOverall.getOcs().getData());
 
-                    @SuppressLint("LongLogTag")
-                    @Override
-                    public void onError(@NonNull Throwable e) {
+                    if (mentionsList.size() > 0) {
+                        showMentions(mentionsList);
+                    } else {
                         adapter.clear();
-                        Log.e(TAG, "failed to get MentionAutocompleteSuggestions", e);
                     }
+                },
+                e -> onMentionSuggestionsError(e, hasLocalMentions));
+    }
 
-                    @Override
-                    public void onComplete() {
-                        // no actions atm
-                    }
+    private static List<Mention> mergeMentions(List<Mention> localMentions, List<Mention> serverMentions) {
+        if (localMentions.isEmpty()) {
+            return serverMentions;
+        }
+
+        List<Mention> mentions = new ArrayList<>(localMentions);
+        Set<String> keys = new HashSet<>();
+        for (Mention mention : localMentions) {
+            keys.add(mention.getSource() + "/" + mention.getId());
+        }
+        for (Mention mention : serverMentions) {
+            if (keys.add(mention.getSource() + "/" + mention.getId())) {
+                mentions.add(mention);
+            }
+        }
+        return mentions;
+    }
+
+    @SuppressLint("LongLogTag")
+    private void onMentionSuggestionsError(Throwable e, boolean hasLocalMentions) {
+        Log.e(TAG, "failed to get MentionAutocompleteSuggestions", e);
+        if (!hasLocalMentions) {
+            adapter.clear();
+        }
+    }
+
+    private void showMentions(List<Mention> mentionsList) {
+        List<AbstractFlexibleItem> internalAbstractFlexibleItemList = new ArrayList<>(mentionsList.size());
+        for (Mention mention : mentionsList) {
+            internalAbstractFlexibleItemList.add(
+                    new MentionAutocompleteItem(
+                            mention,
+                            currentUser,
+                            context,
+                            viewThemeUtils));
+        }
+
+        if (adapter.getItemCount() != 0) {
+            adapter.clear();
+        }
+
+        adapter.updateDataSet(internalAbstractFlexibleItemList);
+    }
+
+    @SuppressLint("LongLogTag")
+    private void refreshParticipantMentionIndex() {
+        if (roomToken == null ||
+            System.currentTimeMillis() - participantMentionIndexRequestedAt < PARTICIPANTS_REFRESH_INTERVAL_MILLIS) {
+            return;
+        }
+
+        int apiVersion = ApiUtils.getConversationApiVersion(currentUser, new int[] {ApiUtils.APIv4, 1});
+
+        Map<String, Boolean> fieldMap = new HashMap<>();
+        fieldMap.put("includeStatus", true);
+
+        // like the suggestions, wait until typing pauses; the request is disposed by a newer query
+        participantsDisposable = Observable
+            .timer(SUGGESTIONS_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)
+            .flatMap(tick -> ncApi.getPeersForCall(
+                ApiUtils.getCredentials(currentUser.getUsername(), currentUser.getToken()),
+                ApiUtils.getUrlForParticipants(apiVersion, currentUser.getBaseUrl(), roomToken),
+                fieldMap))
+            .map(participantsOverall -> new ParticipantMentionIndex(participantsOverall.getOcs().getData(),
+                                                                    currentUser.getUserId()))
+            .subscribeOn(Schedulers.io())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                index -> {
+                    participantMentionIndex = index;
+                    participantMentionIndexRequestedAt = System.currentTimeMillis();
+                },
+                e -> {
+                    Log.e(TAG, "failed to get participants for mention suggestions", e);
+                    participantMentionIndexRequestedAt = System.currentTimeMillis();
                 });
     }
 
+    @Override
+    protected void onViewHidden() {
+        super.onViewHidden();
+        disposeRequests();
+    }
+
+    /**
+     * Disposes the pending requests, to be called when the presenter is no longer used.
+     */
+    public void destroy() {
+        disposeRequests();
+    }
+
+    private void disposeRequests() {
+        if (participantsDisposable != null) {
+            participantsDisposable.dispose();
+            participantsDisposable = null;
+        }
+        if (suggestionsDisposable != null) {
+            suggestionsDisposable.dispose();
+            suggestionsDisposable = null;
+        }
+    }
+
     @Override
     public boolean onItemClick(View view, int position) {
         Mention mention = new Mention();
@@ -51,6 +51,7 @@ import io.reactivex.Single
 import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.disposables.Disposable
 import io.reactivex.schedulers.Schedulers
+import okhttp3.OkHttpClient
 import javax.inject.Inject
 
 @AutoInjector(NextcloudTalkApplication::class)
@@ -62,6 +63,9 @@ class DirectReplyReceiver : BroadcastReceiver() {
     @Inject
     lateinit var ncApi: NcApi
 
+    @Inject
+    lateinit var okHttpClient: OkHttpClient
+
     lateinit var context: Context
     lateinit var currentUser: User
     private var systemNotificationId: Int? = null
@@ -164,7 +168,7 @@ class DirectReplyReceiver : BroadcastReceiver() {
             val avatarUrl = ApiUtils.getUrlForAvatar(currentUser.baseUrl, currentUser.userId, false)
             val me = Person.Builder()
                 .setName(currentUser.displayName)
-                .setIcon(NotificationUtils.loadAvatarSync(avatarUrl, context))
+                .setIcon(NotificationUtils.loadAvatarSync(avatarUrl, context, currentUser, okHttpClient))
                 .build()
             val message = NotificationCompat.MessagingStyle.Message(reply, System.currentTimeMillis(), me)
             previousStyle?.addMessage(message)
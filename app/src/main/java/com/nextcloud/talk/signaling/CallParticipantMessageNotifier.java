@@ -19,33 +19,31 @@
  */
 package com.nextcloud.talk.signaling;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helper class to register and notify CallParticipantMessageListeners.
  *
  * This class is only meant for internal use by SignalingMessageReceiver; listeners must register themselves against
  * a SignalingMessageReceiver rather than against a CallParticipantMessageNotifier.
+ *
+ * Like in WebRtcMessageNotifier, listeners are indexed by session ID in immutable arrays that are replaced on every
+ * change, so notifying them does neither allocate nor lock.
  */
 class CallParticipantMessageNotifier {
 
-    /**
-     * Helper class to associate a CallParticipantMessageListener with a session ID.
-     */
-    private static class CallParticipantMessageListenerFrom {
-        public final SignalingMessageReceiver.CallParticipantMessageListener listener;
-        public final String sessionId;
-
-        private CallParticipantMessageListenerFrom(SignalingMessageReceiver.CallParticipantMessageListener listener,
-                                                   String sessionId) {
-            this.listener = listener;
-            this.sessionId = sessionId;
-        }
-    }
+    private static final SignalingMessageReceiver.CallParticipantMessageListener[] NO_LISTENERS =
+        new SignalingMessageReceiver.CallParticipantMessageListener[0];
+
+    // Only modified while holding the lock, but read without it when notifying.
+    private final Map<String, SignalingMessageReceiver.CallParticipantMessageListener[]>
+        callParticipantMessageListeners = new ConcurrentHashMap<>();
 
-    private final List<CallParticipantMessageListenerFrom> callParticipantMessageListenersFrom = new ArrayList<>();
+    private final Map<SignalingMessageReceiver.CallParticipantMessageListener, String>
+        callParticipantMessageListenerSessionIds = new IdentityHashMap<>();
 
     public synchronized void addListener(SignalingMessageReceiver.CallParticipantMessageListener listener, String sessionId) {
         if (listener == null) {
@@ -58,36 +56,65 @@ class CallParticipantMessageNotifier {
 
         removeListener(listener);
 
-        callParticipantMessageListenersFrom.add(new CallParticipantMessageListenerFrom(listener, sessionId));
+        callParticipantMessageListenerSessionIds.put(listener, sessionId);
+
+        SignalingMessageReceiver.CallParticipantMessageListener[] listeners =
+            callParticipantMessageListeners.get(sessionId);
+        if (listeners == null) {
+            listeners = NO_LISTENERS;
+        }
+
+        SignalingMessageReceiver.CallParticipantMessageListener[] updatedListeners =
+            Arrays.copyOf(listeners, listeners.length + 1);
+        updatedListeners[listeners.length] = listener;
+
+        callParticipantMessageListeners.put(sessionId, updatedListeners);
     }
 
     public synchronized void removeListener(SignalingMessageReceiver.CallParticipantMessageListener listener) {
-        Iterator<CallParticipantMessageListenerFrom> it = callParticipantMessageListenersFrom.iterator();
-        while (it.hasNext()) {
-            CallParticipantMessageListenerFrom listenerFrom = it.next();
+        String sessionId = callParticipantMessageListenerSessionIds.remove(listener);
+        if (sessionId == null) {
+            return;
+        }
+
+        SignalingMessageReceiver.CallParticipantMessageListener[] listeners =
+            callParticipantMessageListeners.get(sessionId);
+
+        if (listeners.length == 1) {
+            callParticipantMessageListeners.remove(sessionId);
 
-            if (listenerFrom.listener == listener) {
-                it.remove();
+            return;
+        }
 
-                return;
+        SignalingMessageReceiver.CallParticipantMessageListener[] updatedListeners =
+            new SignalingMessageReceiver.CallParticipantMessageListener[listeners.length - 1];
+        int index = 0;
+        for (SignalingMessageReceiver.CallParticipantMessageListener registeredListener : listeners) {
+            if (registeredListener != listener) {
+                updatedListeners[index++] = registeredListener;
             }
         }
-    }
 
-    private List<SignalingMessageReceiver.CallParticipantMessageListener> getListenersFor(String sessionId) {
-        List<SignalingMessageReceiver.CallParticipantMessageListener> callParticipantMessageListeners =
-            new ArrayList<>(callParticipantMessageListenersFrom.size());
+        callParticipantMessageListeners.put(sessionId, updatedListeners);
+    }
 
-        for (CallParticipantMessageListenerFrom listenerFrom : callParticipantMessageListenersFrom) {
-            if (listenerFrom.sessionId.equals(sessionId)) {
-                callParticipantMessageListeners.add(listenerFrom.listener);
-            }
+    /**
+     * Returns the listeners for the given session ID.
+     *
+     * The returned array is a snapshot; listeners added or removed while it is being iterated over do not modify it.
+     */
+    private SignalingMessageReceiver.CallParticipantMessageListener[] getListenersFor(String sessionId) {
+        if (sessionId == null) {
+            return NO_LISTENERS;
         }
 
-        return callParticipantMessageListeners;
+        SignalingMessageReceiver.CallParticipantMessageListener[] listeners =
+            callParticipantMessageListeners.get(sessionId);
+
+        return listeners != null ? listeners : NO_LISTENERS;
     }
 
-    public synchronized void notifyUnshareScreen(String sessionId) {
+    public void notifyUnshareScreen(String sessionId) {
         for (SignalingMessageReceiver.CallParticipantMessageListener listener : getListenersFor(sessionId)) {
             listener.onUnshareScreen();
         }
@@ -0,0 +1,203 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.nextcloud.talk.signaling;
+
+import com.nextcloud.talk.models.json.signaling.Signaling;
+import com.nextcloud.talk.models.json.signaling.SignalingOverall;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.Nullable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.BooleanSupplier;
+
+/**
+ * Polls the internal signaling server for signaling messages.
+ * <p>
+ * The internal signaling server holds the request until there are messages to return, or until it times out and
+ * returns an empty list. Therefore, a new request is sent as soon as the previous one returned, unless empty
+ * responses come back right away (for example, from a server that does not hold the requests); in that case the
+ * requests are increasingly delayed until a response with messages is received again. Failed requests are retried
+ * with an exponential backoff.
+ * <p>
+ * Polling continues until stopped or until "keepPolling" returns false when a response is received or a request
+ * fails. The requests are sent through the shared HTTP client, so the connection is reused between them.
+ */
+public class InternalSignalingPoller {
+
+    /**
+     * Responses returned faster than this without messages were not held by the server.
+     */
+    static final long FAST_EMPTY_RESPONSE_MILLIS = 1000;
+    static final long MIN_IDLE_DELAY_MILLIS = 250;
+    static final long MAX_IDLE_DELAY_MILLIS = 4000;
+    static final long MAX_ERROR_DELAY_SECONDS = 16;
+
+    public interface Listener {
+        void onSignalingMessages(@Nullable List<Signaling> signalings);
+    }
+
+    private final Observable<SignalingOverall> pullRequest;
+    private final Scheduler scheduler;
+    private final Scheduler observeScheduler;
+    private final BooleanSupplier keepPolling;
+    private final Listener listener;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong emptyResponseCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong lastLatencyMillis = new AtomicLong();
+
+    private volatile long pollDelayMillis;
+    private volatile long errorDelaySeconds;
+
+    private Disposable disposable;
+
+    /**
+     * @param pullRequest a cold observable that sends a new request whenever it is subscribed to
+     * @param scheduler the scheduler used to wait between requests and to measure their latency
+     * @param observeScheduler the scheduler in which "keepPolling" and the listener are called
+     * @param keepPolling whether polling should go on
+     * @param listener the listener notified with the received messages
+     */
+    public InternalSignalingPoller(Observable<SignalingOverall> pullRequest,
+                                   Scheduler scheduler,
+                                   Scheduler observeScheduler,
+                                   BooleanSupplier keepPolling,
+                                   Listener listener) {
+        this.pullRequest = pullRequest;
+        this.scheduler = scheduler;
+        this.observeScheduler = observeScheduler;
+        this.keepPolling = keepPolling;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+
+        pollDelayMillis = 0;
+        errorDelaySeconds = 0;
+
+        disposable = Observable.defer(this::pull)
+            .observeOn(observeScheduler)
+            .repeatWhen(completions -> completions.concatMap(
+                completion -> Observable.timer(pollDelayMillis, TimeUnit.MILLISECONDS, scheduler)))
+            .takeWhile(signalingOverall -> keepPolling.getAsBoolean())
+            .retryWhen(errors -> errors.concatMap(error -> {
+                errorCount.incrementAndGet();
+                if (!keepPolling.getAsBoolean()) {
+                    return Observable.error(error);
+                }
+
+                errorDelaySeconds = errorDelaySeconds == 0 ? 1 : Math.min(errorDelaySeconds * 2,
+                                                                          MAX_ERROR_DELAY_SECONDS);
+                return Observable.timer(errorDelaySeconds, TimeUnit.SECONDS, scheduler);
+            }))
+            .subscribe(signalingOverall -> listener.onSignalingMessages(getSignalings(signalingOverall)),
+                       error -> {
+                           // polling stopped, nothing else to do
+                       });
+    }
+
+    /**
+     * Stops polling and cancels the pending request, if any.
+     */
+    public synchronized void stop() {
+        if (disposable != null) {
+            disposable.dispose();
+            disposable = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return disposable != null && !disposable.isDisposed();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getEmptyResponseCount() {
+        return emptyResponseCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public long getLastLatencyMillis() {
+        return lastLatencyMillis.get();
+    }
+
+    public long getAverageLatencyMillis() {
+        long responseCount = requestCount.get() - errorCount.get();
+        return responseCount > 0 ? totalLatencyMillis.get() / responseCount : 0;
+    }
+
+    /**
+     * Returns the delay before the next request is sent.
+     */
+    long getPollDelayMillis() {
+        return pollDelayMillis;
+    }
+
+    private Observable<SignalingOverall> pull() {
+        long startedAt = scheduler.now(TimeUnit.MILLISECONDS);
+        requestCount.incrementAndGet();
+
+        return pullRequest.doOnNext(
+            signalingOverall -> onResponse(signalingOverall, scheduler.now(TimeUnit.MILLISECONDS) - startedAt));
+    }
+
+    private void onResponse(SignalingOverall signalingOverall, long latencyMillis) {
+        lastLatencyMillis.set(latencyMillis);
+        totalLatencyMillis.addAndGet(latencyMillis);
+        errorDelaySeconds = 0;
+
+        List<Signaling> signalings = getSignalings(signalingOverall);
+        if (signalings != null && !signalings.isEmpty()) {
+            pollDelayMillis = 0;
+            return;
+        }
+
+        emptyResponseCount.incrementAndGet();
+        if (latencyMillis >= FAST_EMPTY_RESPONSE_MILLIS) {
+            pollDelayMillis = 0;
+        } else if (pollDelayMillis == 0) {
+            pollDelayMillis = MIN_IDLE_DELAY_MILLIS;
+        } else {
+            pollDelayMillis = Math.min(pollDelayMillis * 2, MAX_IDLE_DELAY_MILLIS);
+        }
+    }
+
+    @Nullable
+    private static List<Signaling> getSignalings(SignalingOverall signalingOverall) {
+        if (signalingOverall.getOcs() == null) {
+            return null;
+        }
+        return signalingOverall.getOcs().getSignalings();
+    }
+}
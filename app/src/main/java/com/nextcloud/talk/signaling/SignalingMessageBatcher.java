@@ -0,0 +1,100 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.nextcloud.talk.signaling;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+
+/**
+ * Collects serialized signaling messages and sends them in batches.
+ * <p>
+ * Messages are collected for a short window after the first pending one and then sent together in a single request.
+ * Only one request is in flight at a time; messages added meanwhile are sent in the next batch once it finished. As
+ * batches are sent one after the other the order of the messages is kept.
+ */
+public class SignalingMessageBatcher {
+
+    private static final String TAG = SignalingMessageBatcher.class.getSimpleName();
+
+    /**
+     * Sends a batch of serialized messages.
+     */
+    public interface BatchSender {
+        Completable send(List<String> messages);
+    }
+
+    private final Scheduler scheduler;
+    private final long windowMillis;
+    private final BatchSender batchSender;
+
+    private List<String> pendingMessages = new ArrayList<>();
+    private boolean flushScheduled;
+    private boolean sending;
+
+    public SignalingMessageBatcher(Scheduler scheduler, long windowMillis, BatchSender batchSender) {
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.batchSender = batchSender;
+    }
+
+    public synchronized void add(String message) {
+        pendingMessages.add(message);
+        if (!flushScheduled && !sending) {
+            scheduleFlush(windowMillis);
+        }
+    }
+
+    private void scheduleFlush(long delay) {
+        flushScheduled = true;
+        scheduler.scheduleDirect(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        List<String> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (sending || pendingMessages.isEmpty()) {
+                return;
+            }
+
+            batch = pendingMessages;
+            pendingMessages = new ArrayList<>();
+            sending = true;
+        }
+
+        batchSender.send(batch)
+            .subscribe(this::onBatchSent, e -> {
+                Log.e(TAG, "Failed to send signaling messages", e);
+                onBatchSent();
+            });
+    }
+
+    private synchronized void onBatchSent() {
+        sending = false;
+        if (!pendingMessages.isEmpty() && !flushScheduled) {
+            scheduleFlush(0);
+        }
+    }
+}
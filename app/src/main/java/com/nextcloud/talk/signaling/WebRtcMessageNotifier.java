@@ -19,18 +19,26 @@
  */
 package com.nextcloud.talk.signaling;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helper class to register and notify WebRtcMessageListeners.
  *
  * This class is only meant for internal use by SignalingMessageReceiver; listeners must register themselves against
  * a SignalingMessageReceiver rather than against a WebRtcMessageNotifier.
+ *
+ * Listeners are indexed by session ID and room type, and each index entry holds an immutable array that is replaced
+ * whenever a listener is added or removed. Notifying the listeners is therefore just a lookup and does neither
+ * allocate nor lock, which matters as every ICE candidate of every participant goes through here.
  */
 class WebRtcMessageNotifier {
 
+    private static final SignalingMessageReceiver.WebRtcMessageListener[] NO_LISTENERS =
+        new SignalingMessageReceiver.WebRtcMessageListener[0];
+
     /**
      * Helper class to associate a WebRtcMessageListener with a session ID and room type.
      */
@@ -48,7 +56,12 @@ class WebRtcMessageNotifier {
         }
     }
 
-    private final List<WebRtcMessageListenerFrom> webRtcMessageListenersFrom = new ArrayList<>();
+    // Only modified while holding the lock, but read without it when notifying.
+    private final Map<String, Map<String, SignalingMessageReceiver.WebRtcMessageListener[]>> webRtcMessageListeners =
+        new ConcurrentHashMap<>();
+
+    private final Map<SignalingMessageReceiver.WebRtcMessageListener, WebRtcMessageListenerFrom>
+        webRtcMessageListenersFrom = new IdentityHashMap<>();
 
     public synchronized void addListener(SignalingMessageReceiver.WebRtcMessageListener listener, String sessionId, String roomType) {
         if (listener == null) {
@@ -65,54 +78,98 @@ class WebRtcMessageNotifier {
 
         removeListener(listener);
 
-        webRtcMessageListenersFrom.add(new WebRtcMessageListenerFrom(listener, sessionId, roomType));
+        webRtcMessageListenersFrom.put(listener, new WebRtcMessageListenerFrom(listener, sessionId, roomType));
+
+        Map<String, SignalingMessageReceiver.WebRtcMessageListener[]> listenersByRoomType =
+            webRtcMessageListeners.get(sessionId);
+        if (listenersByRoomType == null) {
+            listenersByRoomType = new ConcurrentHashMap<>();
+            webRtcMessageListeners.put(sessionId, listenersByRoomType);
+        }
+
+        SignalingMessageReceiver.WebRtcMessageListener[] listeners = listenersByRoomType.get(roomType);
+        if (listeners == null) {
+            listeners = NO_LISTENERS;
+        }
+
+        SignalingMessageReceiver.WebRtcMessageListener[] updatedListeners =
+            Arrays.copyOf(listeners, listeners.length + 1);
+        updatedListeners[listeners.length] = listener;
+
+        listenersByRoomType.put(roomType, updatedListeners);
     }
 
     public synchronized void removeListener(SignalingMessageReceiver.WebRtcMessageListener listener) {
-        Iterator<WebRtcMessageListenerFrom> it = webRtcMessageListenersFrom.iterator();
-        while (it.hasNext()) {
-            WebRtcMessageListenerFrom listenerFrom = it.next();
+        WebRtcMessageListenerFrom listenerFrom = webRtcMessageListenersFrom.remove(listener);
+        if (listenerFrom == null) {
+            return;
+        }
 
-            if (listenerFrom.listener == listener) {
-                it.remove();
+        Map<String, SignalingMessageReceiver.WebRtcMessageListener[]> listenersByRoomType =
+            webRtcMessageListeners.get(listenerFrom.sessionId);
+        SignalingMessageReceiver.WebRtcMessageListener[] listeners = listenersByRoomType.get(listenerFrom.roomType);
 
-                return;
+        if (listeners.length == 1) {
+            listenersByRoomType.remove(listenerFrom.roomType);
+            if (listenersByRoomType.isEmpty()) {
+                webRtcMessageListeners.remove(listenerFrom.sessionId);
             }
+
+            return;
         }
+
+        SignalingMessageReceiver.WebRtcMessageListener[] updatedListeners =
+            new SignalingMessageReceiver.WebRtcMessageListener[listeners.length - 1];
+        int index = 0;
+        for (SignalingMessageReceiver.WebRtcMessageListener registeredListener : listeners) {
+            if (registeredListener != listener) {
+                updatedListeners[index++] = registeredListener;
+            }
+        }
+
+        listenersByRoomType.put(listenerFrom.roomType, updatedListeners);
     }
 
-    private List<SignalingMessageReceiver.WebRtcMessageListener> getListenersFor(String sessionId, String roomType) {
-        List<SignalingMessageReceiver.WebRtcMessageListener> webRtcMessageListeners =
-            new ArrayList<>(webRtcMessageListenersFrom.size());
+    /**
+     * Returns the listeners for the given session ID and room type.
+     *
+     * The returned array is a snapshot; listeners added or removed while it is being iterated over do not modify it.
+     */
+    private SignalingMessageReceiver.WebRtcMessageListener[] getListenersFor(String sessionId, String roomType) {
+        if (sessionId == null || roomType == null) {
+            return NO_LISTENERS;
+        }
 
-        for (WebRtcMessageListenerFrom listenerFrom : webRtcMessageListenersFrom) {
-            if (listenerFrom.sessionId.equals(sessionId) && listenerFrom.roomType.equals(roomType)) {
-                webRtcMessageListeners.add(listenerFrom.listener);
-            }
+        Map<String, SignalingMessageReceiver.WebRtcMessageListener[]> listenersByRoomType =
+            webRtcMessageListeners.get(sessionId);
+        if (listenersByRoomType == null) {
+            return NO_LISTENERS;
         }
 
-        return webRtcMessageListeners;
+        SignalingMessageReceiver.WebRtcMessageListener[] listeners = listenersByRoomType.get(roomType);
+
+        return listeners != null ? listeners : NO_LISTENERS;
     }
 
-    public synchronized void notifyOffer(String sessionId, String roomType, String sdp, String nick) {
+    public void notifyOffer(String sessionId, String roomType, String sdp, String nick) {
         for (SignalingMessageReceiver.WebRtcMessageListener listener : getListenersFor(sessionId, roomType)) {
             listener.onOffer(sdp, nick);
         }
     }
 
-    public synchronized void notifyAnswer(String sessionId, String roomType, String sdp, String nick) {
+    public void notifyAnswer(String sessionId, String roomType, String sdp, String nick) {
         for (SignalingMessageReceiver.WebRtcMessageListener listener : getListenersFor(sessionId, roomType)) {
             listener.onAnswer(sdp, nick);
         }
     }
 
-    public synchronized void notifyCandidate(String sessionId, String roomType, String sdpMid, int sdpMLineIndex, String sdp) {
+    public void notifyCandidate(String sessionId, String roomType, String sdpMid, int sdpMLineIndex, String sdp) {
         for (SignalingMessageReceiver.WebRtcMessageListener listener : getListenersFor(sessionId, roomType)) {
             listener.onCandidate(sdpMid, sdpMLineIndex, sdp);
         }
     }
 
-    public synchronized void notifyEndOfCandidates(String sessionId, String roomType) {
+    public void notifyEndOfCandidates(String sessionId, String roomType) {
         for (SignalingMessageReceiver.WebRtcMessageListener listener : getListenersFor(sessionId, roomType)) {
             listener.onEndOfCandidates();
         }
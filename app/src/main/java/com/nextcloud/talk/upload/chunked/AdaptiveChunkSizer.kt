@@ -0,0 +1,57 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.chunked
+
+/**
+ * Adapts the size of the chunks to the throughput measured for the chunks already uploaded.
+ *
+ * Each chunk costs a full request round trip, so on fast links small chunks waste most of the time waiting for the
+ * server. The size is chosen so that uploading a chunk over a single connection takes about
+ * [targetDurationMillis], but it grows at most twice per chunk and stays within [minChunkSize] and [maxChunkSize].
+ */
+class AdaptiveChunkSizer(
+    private val minChunkSize: Long,
+    private val maxChunkSize: Long,
+    private val targetDurationMillis: Long
+) {
+    private var bytesPerSecond: Long = -1
+
+    @get:Synchronized
+    var chunkSize: Long = minChunkSize
+        private set
+
+    @Synchronized
+    fun onChunkUploaded(chunkLength: Long, durationMillis: Long) {
+        val measuredBytesPerSecond = chunkLength * MILLIS_PER_SECOND / durationMillis.coerceAtLeast(1)
+        bytesPerSecond = if (bytesPerSecond < 0) {
+            measuredBytesPerSecond
+        } else {
+            (bytesPerSecond + measuredBytesPerSecond) / 2
+        }
+
+        chunkSize = (bytesPerSecond * targetDurationMillis / MILLIS_PER_SECOND)
+            .coerceAtMost(chunkSize * 2)
+            .coerceIn(minChunkSize, maxChunkSize)
+    }
+
+    companion object {
+        private const val MILLIS_PER_SECOND = 1000
+    }
+}
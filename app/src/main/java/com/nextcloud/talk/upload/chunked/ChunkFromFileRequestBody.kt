@@ -29,7 +29,6 @@ package com.nextcloud.talk.upload.chunked
 import okhttp3.MediaType
 import okhttp3.RequestBody
 import okio.BufferedSink
-import java.io.File
 import java.io.IOException
 import java.nio.ByteBuffer
 import java.nio.channels.FileChannel
@@ -40,20 +39,18 @@ import java.nio.channels.FileChannel
  * @author David González Verdugo
  */
 class ChunkFromFileRequestBody(
-    file: File,
     contentType: MediaType?,
     channel: FileChannel?,
     chunkSize: Long,
     offset: Long,
-    listener: OnDataTransferProgressListener
+    progress: UploadProgress
 ) : RequestBody() {
-    private val mFile: File
     private val mContentType: MediaType?
     private val mChannel: FileChannel
     private val mChunkSize: Long
     private val mOffset: Long
     private var mTransferred: Long
-    private var mDataTransferListener: OnDataTransferProgressListener
+    private var mUploadProgress: UploadProgress
     private val mBuffer = ByteBuffer.allocate(BUFFER_CAPACITY)
     override fun contentLength(): Long {
         return try {
@@ -68,27 +65,22 @@ class ChunkFromFileRequestBody(
         var readCount: Int
         try {
             mChannel.position(mOffset)
-            var size = mFile.length()
-            if (size == 0L) {
-                size = -1
-            }
-            val maxCount = (mOffset + mChunkSize - 1).coerceAtMost(mChannel.size())
-            var percentageOld = 0
-            while (mChannel.position() < maxCount) {
+            val maxCount = contentLength()
+            var written: Long = 0
+            while (written < maxCount) {
+                // never read past the end of the chunk, as the chunk size does not need to be a multiple of the buffer
+                mBuffer.limit((maxCount - written).coerceAtMost(BUFFER_CAPACITY.toLong()).toInt())
                 readCount = mChannel.read(mBuffer)
+                if (readCount < 0) {
+                    break
+                }
                 sink.buffer.write(mBuffer.array(), 0, readCount)
                 mBuffer.clear()
+                written += readCount
                 if (mTransferred < maxCount) { // condition to avoid accumulate progress for repeated chunks
-                    mTransferred += readCount.toLong()
-                }
-
-                val percentage =
-                    if (size > ZERO_PERCENT) (mTransferred * HUNDRED_PERCENT / size).toInt() else ZERO_PERCENT
-                if (percentage > percentageOld) {
-                    percentageOld = percentage
-                    mDataTransferListener.onTransferProgress(
-                        percentage
-                    )
+                    val transferred = readCount.toLong().coerceAtMost(maxCount - mTransferred)
+                    mTransferred += transferred
+                    mUploadProgress.onBytesTransferred(transferred)
                 }
             }
         } catch (io: IOException) {
@@ -106,19 +98,16 @@ class ChunkFromFileRequestBody(
     companion object {
         private val TAG = ChunkFromFileRequestBody::class.java.simpleName
         private const val BUFFER_CAPACITY = 4096
-        private const val HUNDRED_PERCENT = 100
-        private const val ZERO_PERCENT = 0
     }
 
     init {
         requireNotNull(channel) { "File may not be null" }
         require(chunkSize > 0) { "Chunk size must be greater than zero" }
-        mFile = file
         mChannel = channel
         mChunkSize = chunkSize
         mOffset = offset
-        mTransferred = offset
-        mDataTransferListener = listener
+        mTransferred = 0
+        mUploadProgress = progress
         mContentType = contentType
     }
 }
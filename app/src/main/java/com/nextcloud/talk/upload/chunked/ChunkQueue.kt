@@ -0,0 +1,58 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.chunked
+
+import java.util.ArrayDeque
+
+/**
+ * Hands out the chunks still to be uploaded, with a size that can change from one chunk to the next.
+ *
+ * Adjacent missing chunks are merged into a single range, which is then split again on demand with the size given
+ * to [next], so the chunk size can follow the throughput while the upload is in progress.
+ */
+class ChunkQueue(missingChunks: List<Chunk>) {
+    private val missingRanges = ArrayDeque<Chunk>()
+
+    init {
+        for (missingChunk in missingChunks) {
+            val lastRange = missingRanges.peekLast()
+            if (lastRange != null && lastRange.end + 1 == missingChunk.start) {
+                lastRange.end = missingChunk.end
+            } else {
+                missingRanges.addLast(missingChunk.copy())
+            }
+        }
+    }
+
+    /**
+     * @return the next chunk, of at most the given size, or null if there are no more chunks to upload
+     */
+    @Synchronized
+    fun next(maxChunkSize: Long): Chunk? {
+        val range = missingRanges.peekFirst() ?: return null
+        if (range.length() <= maxChunkSize) {
+            return missingRanges.pollFirst()
+        }
+
+        val chunk = Chunk(range.start, range.start + maxChunkSize - 1)
+        range.start = chunk.end + 1
+        return chunk
+    }
+}
@@ -28,6 +28,7 @@
 package com.nextcloud.talk.upload.chunked
 
 import android.net.Uri
+import android.os.SystemClock
 import android.text.TextUtils
 import android.util.Log
 import at.bitfire.dav4jvm.DavResource
@@ -54,6 +55,9 @@ import com.nextcloud.talk.remotefilebrowser.model.RemoteFileBrowserItem
 import com.nextcloud.talk.utils.ApiUtils
 import com.nextcloud.talk.utils.FileUtils
 import com.nextcloud.talk.utils.Mimetype
+import io.reactivex.Completable
+import io.reactivex.Flowable
+import io.reactivex.schedulers.Schedulers
 import okhttp3.HttpUrl.Companion.toHttpUrlOrNull
 import okhttp3.MediaType
 import okhttp3.OkHttpClient
@@ -71,7 +75,8 @@ class ChunkedFileUploader(
     val currentUser: User,
     val roomToken: String,
     val metaData: String?,
-    val listener: OnDataTransferProgressListener
+    val listener: OnDataTransferProgressListener,
+    private val parallelUploads: Int = DEFAULT_PARALLEL_UPLOADS
 ) {
 
     private var okHttpClientNoRedirects: OkHttpClient? = null
@@ -103,9 +108,7 @@ class ChunkedFileUploader(
             val missingChunks: List<Chunk> = checkMissingChunks(chunksOnServer, localFile.length())
             Log.d(TAG, "missingChunks: " + missingChunks.size)
 
-            for (missingChunk in missingChunks) {
-                uploadChunk(localFile, uploadFolderUri, mimeType, missingChunk, missingChunk.length())
-            }
+            uploadChunks(localFile, uploadFolderUri, mimeType, missingChunks)
 
             assembleChunks(uploadFolderUri, targetPath)
             return true
@@ -226,12 +229,56 @@ class ChunkedFileUploader(
         return null
     }
 
+    /**
+     * Uploads the missing chunks, [parallelUploads] at a time.
+     *
+     * The chunks are split from the missing ranges only when there is room for another upload, so each one gets the
+     * size adapted to the throughput measured until then.
+     */
+    private fun uploadChunks(
+        localFile: File,
+        uploadFolderUri: String,
+        mimeType: MediaType?,
+        missingChunks: List<Chunk>
+    ) {
+        val missingBytes = missingChunks.sumOf { it.length() }
+        val progress = UploadProgress(
+            localFile.length(),
+            (localFile.length() - missingBytes).coerceAtLeast(0),
+            listener
+        )
+        val chunkQueue = ChunkQueue(missingChunks)
+        val chunkSizer = AdaptiveChunkSizer(CHUNK_SIZE, MAX_CHUNK_SIZE, TARGET_CHUNK_DURATION_MILLIS)
+
+        Flowable.generate<Chunk> { emitter ->
+            val chunk = chunkQueue.next(chunkSizer.chunkSize)
+            if (chunk != null) {
+                emitter.onNext(chunk)
+            } else {
+                emitter.onComplete()
+            }
+        }
+            .flatMapCompletable(
+                { chunk ->
+                    Completable.fromAction {
+                        val startTime = SystemClock.elapsedRealtime()
+                        uploadChunk(localFile, uploadFolderUri, mimeType, chunk, chunk.length(), progress)
+                        chunkSizer.onChunkUploaded(chunk.length(), SystemClock.elapsedRealtime() - startTime)
+                    }.subscribeOn(Schedulers.io())
+                },
+                false,
+                parallelUploads
+            )
+            .blockingAwait()
+    }
+
     private fun uploadChunk(
         localFile: File,
         uploadFolderUri: String,
         mimeType: MediaType?,
         chunk: Chunk,
-        chunkSize: Long
+        chunkSize: Long,
+        progress: UploadProgress
     ) {
         val startString = java.lang.String.format(Locale.ROOT, "%016d", chunk.start)
         val endString = java.lang.String.format(Locale.ROOT, "%016d", chunk.end)
@@ -248,12 +295,11 @@ class ChunkedFileUploader(
             // Log.d(TAG, "chunk.end:${chunk.end}")
 
             val chunkFromFileRequestBody = ChunkFromFileRequestBody(
-                localFile,
                 mimeType,
                 channel,
                 chunkSize,
                 chunk.start,
-                listener
+                progress
             )
 
             val chunkUri = "$uploadFolderUri/$startString-$endString"
@@ -393,6 +439,9 @@ class ChunkedFileUploader(
         private val TAG = ChunkedFileUploader::class.simpleName
         private const val READ_PERMISSION = "R"
         private const val CHUNK_SIZE: Long = 1024000
+        private const val MAX_CHUNK_SIZE: Long = 10 * CHUNK_SIZE
+        private const val TARGET_CHUNK_DURATION_MILLIS: Long = 5000
+        private const val DEFAULT_PARALLEL_UPLOADS = 3
         private const val METHOD_NOT_ALLOWED_CODE: Int = 405
     }
 }
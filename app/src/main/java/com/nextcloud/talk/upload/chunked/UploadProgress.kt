@@ -0,0 +1,50 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.chunked
+
+/**
+ * Sums up the bytes transferred by all the chunks of an upload, which may be uploaded in parallel, and notifies the
+ * listener whenever the overall percentage increases.
+ */
+class UploadProgress(
+    private val totalBytes: Long,
+    private var transferredBytes: Long,
+    private val listener: OnDataTransferProgressListener
+) {
+    private var percentage = 0
+
+    @Synchronized
+    fun onBytesTransferred(count: Long) {
+        transferredBytes += count
+        if (totalBytes <= 0) {
+            return
+        }
+
+        val newPercentage = (transferredBytes * HUNDRED_PERCENT / totalBytes).toInt().coerceAtMost(HUNDRED_PERCENT)
+        if (newPercentage > percentage) {
+            percentage = newPercentage
+            listener.onTransferProgress(percentage)
+        }
+    }
+
+    companion object {
+        private const val HUNDRED_PERCENT = 100
+    }
+}
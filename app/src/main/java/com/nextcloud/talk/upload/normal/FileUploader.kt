@@ -1,11 +1,13 @@
 package com.nextcloud.talk.upload.normal
 
 import android.content.Context
+import android.content.res.AssetFileDescriptor
 import android.net.Uri
 import android.util.Log
 import com.nextcloud.talk.api.NcApi
 import com.nextcloud.talk.data.user.model.User
 import com.nextcloud.talk.jobs.ShareOperationWorker
+import com.nextcloud.talk.upload.chunked.OnDataTransferProgressListener
 import com.nextcloud.talk.utils.ApiUtils
 import com.nextcloud.talk.utils.FileUtils
 import io.reactivex.Observable
@@ -13,13 +15,15 @@ import io.reactivex.android.schedulers.AndroidSchedulers
 import io.reactivex.schedulers.Schedulers
 import okhttp3.MediaType.Companion.toMediaTypeOrNull
 import okhttp3.RequestBody
-import java.io.InputStream
+import java.io.FileNotFoundException
+import java.io.IOException
 
 class FileUploader(
     val context: Context,
     val currentUser: User,
     val roomToken: String,
-    val ncApi: NcApi
+    val ncApi: NcApi,
+    val listener: OnDataTransferProgressListener? = null
 ) {
     fun upload(
         sourceFileUri: Uri,
@@ -49,21 +53,34 @@ class FileUploader(
             }
     }
 
-    @Suppress("Detekt.TooGenericExceptionCaught")
-    private fun createRequestBody(sourceFileUri: Uri): RequestBody? {
-        var requestBody: RequestBody? = null
+    private fun createRequestBody(sourceFileUri: Uri): RequestBody {
+        return StreamingRequestBody(
+            "application/octet-stream".toMediaTypeOrNull(),
+            getContentLength(sourceFileUri),
+            listener
+        ) {
+            context.contentResolver.openInputStream(sourceFileUri)
+                ?: throw FileNotFoundException("failed to open $sourceFileUri")
+        }
+    }
+
+    /**
+     * @return the size of the content, or -1 if it is not known (in which case the content is sent in chunked
+     * transfer encoding)
+     */
+    private fun getContentLength(sourceFileUri: Uri): Long {
         try {
-            val input: InputStream = context.contentResolver.openInputStream(sourceFileUri)!!
-            input.use {
-                val buf = ByteArray(input.available())
-                while (it.read(buf) != -1) {
-                    requestBody = RequestBody.create("application/octet-stream".toMediaTypeOrNull(), buf)
+            context.contentResolver.openAssetFileDescriptor(sourceFileUri, "r")?.use {
+                if (it.length != AssetFileDescriptor.UNKNOWN_LENGTH) {
+                    return it.length
                 }
             }
-        } catch (e: Exception) {
-            Log.e(TAG, "failed to create RequestBody for $sourceFileUri", e)
+        } catch (e: IOException) {
+            Log.w(TAG, "failed to get the size of $sourceFileUri", e)
+        } catch (e: SecurityException) {
+            Log.w(TAG, "failed to get the size of $sourceFileUri", e)
         }
-        return requestBody
+        return -1
     }
 
     companion object {
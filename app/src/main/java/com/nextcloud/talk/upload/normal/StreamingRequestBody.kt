@@ -0,0 +1,79 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.normal
+
+import com.nextcloud.talk.upload.chunked.OnDataTransferProgressListener
+import okhttp3.MediaType
+import okhttp3.RequestBody
+import okio.BufferedSink
+import okio.source
+import java.io.IOException
+import java.io.InputStream
+
+/**
+ * A request body that streams its content from an input stream instead of holding it in memory.
+ *
+ * The stream is opened again each time the body is written, so the request can be retried (for example, after a
+ * redirect or an authentication challenge).
+ */
+class StreamingRequestBody(
+    private val contentType: MediaType?,
+    private val contentLength: Long,
+    private val listener: OnDataTransferProgressListener?,
+    private val openInputStream: () -> InputStream
+) : RequestBody() {
+
+    override fun contentType(): MediaType? {
+        return contentType
+    }
+
+    override fun contentLength(): Long {
+        return contentLength
+    }
+
+    @Throws(IOException::class)
+    override fun writeTo(sink: BufferedSink) {
+        openInputStream().source().use { source ->
+            var transferred: Long = 0
+            var percentageOld = 0
+            while (true) {
+                val readCount = source.read(sink.buffer, SEGMENT_SIZE)
+                if (readCount == -1L) {
+                    break
+                }
+                sink.emitCompleteSegments()
+
+                transferred += readCount
+                if (listener != null && contentLength > 0) {
+                    val percentage = (transferred * HUNDRED_PERCENT / contentLength).toInt()
+                    if (percentage > percentageOld) {
+                        percentageOld = percentage
+                        listener.onTransferProgress(percentage)
+                    }
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val SEGMENT_SIZE: Long = 8192
+        private const val HUNDRED_PERCENT = 100
+    }
+}
@@ -396,6 +396,10 @@ public class ApiUtils {
         return baseUrl + ocsApiVersion + "/apps/notifications/api/v2/notifications/" + notificationId;
     }
 
+    public static String getUrlForNotifications(String baseUrl) {
+        return baseUrl + ocsApiVersion + "/apps/notifications/api/v2/notifications";
+    }
+
     public static String getUrlForSearchByNumber(String baseUrl) {
         return baseUrl + ocsApiVersion + "/cloud/users/search/by-phone";
     }
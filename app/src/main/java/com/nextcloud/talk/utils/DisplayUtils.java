@@ -62,12 +62,16 @@ import com.nextcloud.talk.data.user.model.User;
 import com.nextcloud.talk.events.UserMentionClickEvent;
 import com.nextcloud.talk.extensions.ImageViewExtensionsKt;
 import com.nextcloud.talk.ui.theme.ViewThemeUtils;
+import com.nextcloud.talk.utils.text.MentionMatcher;
 import com.nextcloud.talk.utils.text.Spans;
 
 import org.greenrobot.eventbus.EventBus;
 
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -240,51 +244,85 @@ public class DisplayUtils {
         return chip;
     }
 
-    public static Spannable searchAndReplaceWithMentionSpan(Context context, Spannable text,
-                                                            String id, String label, String type,
-                                                            User conversationUser,
-                                                            @XmlRes int chipXmlRes,
-                                                            ViewThemeUtils viewThemeUtils) {
+    /**
+     * Replaces the mentions of all user, guest and call parameters of a message with chips, matching all of them
+     * in a single pass over the text.
+     *
+     * @param highlightCurrentUser whether mentions of the current user get the highlighted chip
+     */
+    public static Spannable searchAndReplaceWithMentionSpans(
+        Context context,
+        Spannable text,
+        Map<String, ? extends Map<String, String>> messageParameters,
+        User conversationUser,
+        boolean highlightCurrentUser,
+        ViewThemeUtils viewThemeUtils) {
+        List<Mention> mentions = new ArrayList<>(messageParameters.size());
+        for (Map<String, String> individualHashMap : messageParameters.values()) {
+            if (individualHashMap == null) {
+                continue;
+            }
 
-        Spannable spannableString = new SpannableString(text);
-        String stringText = text.toString();
+            String type = individualHashMap.get("type");
+            String id = individualHashMap.get("id");
+            String name = individualHashMap.get("name");
+            if (("user".equals(type) || "guest".equals(type) || "call".equals(type)) && id != null && name != null) {
+                int chipXmlRes = R.xml.chip_others;
+                if (highlightCurrentUser && id.equals(conversationUser.getUserId())) {
+                    chipXmlRes = R.xml.chip_you;
+                }
+                mentions.add(new Mention(id, name, type, chipXmlRes));
+            }
+        }
 
-        Matcher m = Pattern.compile("@" + label,
-                                    Pattern.CASE_INSENSITIVE | Pattern.LITERAL | Pattern.MULTILINE)
-            .matcher(spannableString);
+        return replaceWithMentionSpans(context, text, mentions, conversationUser, viewThemeUtils);
+    }
 
-        ClickableSpan clickableSpan = new ClickableSpan() {
-            @Override
-            public void onClick(@NonNull View widget) {
-                EventBus.getDefault().post(new UserMentionClickEvent(id));
-            }
-        };
+    private static Spannable replaceWithMentionSpans(Context context, Spannable text,
+                                                     List<Mention> mentions,
+                                                     User conversationUser,
+                                                     ViewThemeUtils viewThemeUtils) {
+        Spannable spannableString = new SpannableString(text);
+        if (mentions.isEmpty()) {
+            return spannableString;
+        }
 
-        int lastStartIndex = -1;
-        Spans.MentionChipSpan mentionChipSpan;
-        while (m.find()) {
-            int start = stringText.indexOf(m.group(), lastStartIndex);
-            int end = start + m.group().length();
-            lastStartIndex = end;
-            mentionChipSpan = new Spans.MentionChipSpan(DisplayUtils.getDrawableForMentionChipSpan(context,
-                                                                                                   id,
-                                                                                                   label,
-                                                                                                   conversationUser,
-                                                                                                   type,
-                                                                                                   chipXmlRes,
-                                                                                                   null,
-                                                                                                   viewThemeUtils),
-                                                        BetterImageSpan.ALIGN_CENTER, id,
-                                                        label);
+        List<String> labels = new ArrayList<>(mentions.size());
+        for (Mention mention : mentions) {
+            labels.add("@" + mention.label);
+        }
+
+        for (MentionMatcher.Match match : new MentionMatcher(labels).findAll(spannableString)) {
+            Mention mention = mentions.get(match.getLabelIndex());
+            int start = match.getStart();
+            int end = match.getEnd();
+
+            Spans.MentionChipSpan mentionChipSpan =
+                new Spans.MentionChipSpan(getDrawableForMentionChipSpan(context,
+                                                                        mention.id,
+                                                                        mention.label,
+                                                                        conversationUser,
+                                                                        mention.type,
+                                                                        mention.chipXmlRes,
+                                                                        null,
+                                                                        viewThemeUtils),
+                                          BetterImageSpan.ALIGN_CENTER, mention.id,
+                                          mention.label);
             spannableString.setSpan(mentionChipSpan, start, end, Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
-            if (chipXmlRes == R.xml.chip_you) {
+            if (mention.chipXmlRes == R.xml.chip_you) {
                 spannableString.setSpan(
                     new ForegroundColorSpan(viewThemeUtils.getScheme(context).getOnPrimary()),
                     start,
                     end,
                     Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
             }
-            if ("user".equals(type) && !conversationUser.getUserId().equals(id)) {
+            if ("user".equals(mention.type) && !conversationUser.getUserId().equals(mention.id)) {
+                ClickableSpan clickableSpan = new ClickableSpan() {
+                    @Override
+                    public void onClick(@NonNull View widget) {
+                        EventBus.getDefault().post(new UserMentionClickEvent(mention.id));
+                    }
+                };
                 spannableString.setSpan(clickableSpan, start, end, Spannable.SPAN_INCLUSIVE_EXCLUSIVE);
             }
         }
@@ -292,6 +330,21 @@ public class DisplayUtils {
         return spannableString;
     }
 
+    private static final class Mention {
+        private final String id;
+        private final String label;
+        private final String type;
+        @XmlRes
+        private final int chipXmlRes;
+
+        private Mention(String id, String label, String type, @XmlRes int chipXmlRes) {
+            this.id = id;
+            this.label = label;
+            this.type = type;
+            this.chipXmlRes = chipXmlRes;
+        }
+    }
+
     public static Spannable searchAndColor(Spannable text, String searchText, @ColorInt int color) {
 
         Spannable spannableString = new SpannableString(text);
@@ -0,0 +1,231 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.PorterDuff
+import android.graphics.PorterDuffXfermode
+import android.graphics.Rect
+import android.util.Log
+import android.util.LruCache
+import com.nextcloud.talk.data.user.model.User
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import java.io.File
+import java.io.IOException
+import java.math.BigInteger
+import java.net.HttpURLConnection
+import java.security.MessageDigest
+
+/**
+ * Memory and disk cache for the avatars shown in notifications.
+ *
+ * Avatars are cached per account and avatar URL (and thus per actor) already circle-cropped and scaled to the size of
+ * a notification icon, so they do not need to be downloaded nor decoded again for each push. After
+ * [REVALIDATE_AFTER_MILLIS] the cached avatar is revalidated with its ETag; if the server can not be reached the
+ * cached avatar is still used. The avatars of an account are dropped with [clearForAccount] when the account is
+ * removed.
+ *
+ * Avatars are loaded synchronously, so this must not be used from the main thread.
+ */
+object NotificationAvatarCache {
+    private val TAG = NotificationAvatarCache::class.java.simpleName
+    private const val REVALIDATE_AFTER_MILLIS = 60 * 60 * 1000L
+    private const val MAX_MEMORY_ENTRIES = 30
+    private const val MAX_DISK_ENTRIES = 200
+    private const val CACHE_DIR_NAME = "notification_avatars"
+    private const val AVATAR_FILE_SUFFIX = ".png"
+    private const val ETAG_FILE_SUFFIX = ".etag"
+    private const val PNG_QUALITY = 100
+    private const val RADIX = 16
+    private const val LOCK_STRIPES = 16
+
+    private class Entry(val bitmap: Bitmap, val etag: String?, val validatedAt: Long)
+
+    private val memoryCache = LruCache<String, Entry>(MAX_MEMORY_ENTRIES)
+    private val locks = Array(LOCK_STRIPES) { Any() }
+
+    fun getAvatar(context: Context, okHttpClient: OkHttpClient, user: User, avatarUrl: String): Bitmap? {
+        val key = "${user.id}:$avatarUrl"
+
+        memoryCache.get(key)?.let {
+            if (!isStale(it.validatedAt)) {
+                return it.bitmap
+            }
+        }
+
+        // Concurrent pushes from the same actor wait for the first one to load the avatar rather than downloading it
+        // again.
+        synchronized(getLock(key)) {
+            val cacheDir = getAccountCacheDir(context.cacheDir, user.id!!)
+            val hash = hash(key)
+            val avatarFile = File(cacheDir, hash + AVATAR_FILE_SUFFIX)
+            val etagFile = File(cacheDir, hash + ETAG_FILE_SUFFIX)
+
+            val cachedEntry = memoryCache.get(key) ?: readFromDisk(avatarFile, etagFile)
+            if (cachedEntry != null && !isStale(cachedEntry.validatedAt)) {
+                memoryCache.put(key, cachedEntry)
+                return cachedEntry.bitmap
+            }
+
+            val entry = fetch(context, okHttpClient, user, avatarUrl, cachedEntry)
+            if (entry == null) {
+                return cachedEntry?.bitmap
+            }
+
+            memoryCache.put(key, entry)
+            if (entry.bitmap === cachedEntry?.bitmap) {
+                avatarFile.setLastModified(entry.validatedAt)
+            } else {
+                writeToDisk(avatarFile, etagFile, entry)
+            }
+            return entry.bitmap
+        }
+    }
+
+    fun clearForAccount(accountId: Long, cacheDir: File) {
+        val keyPrefix = "$accountId:"
+        memoryCache.snapshot().keys.filter { it.startsWith(keyPrefix) }.forEach { memoryCache.remove(it) }
+        if (!getAccountCacheDir(cacheDir, accountId).deleteRecursively()) {
+            Log.w(TAG, "failed to delete cached avatars of account $accountId")
+        }
+    }
+
+    private fun getAccountCacheDir(cacheDir: File, accountId: Long) =
+        File(File(cacheDir, CACHE_DIR_NAME), accountId.toString())
+
+    private fun getLock(key: String): Any {
+        return locks[(key.hashCode() and Int.MAX_VALUE) % LOCK_STRIPES]
+    }
+
+    private fun isStale(validatedAt: Long) = System.currentTimeMillis() - validatedAt > REVALIDATE_AFTER_MILLIS
+
+    /**
+     * Downloads the avatar, or just revalidates it if there is a cached one with an ETag.
+     *
+     * @return the new entry, which reuses the bitmap of the cached entry if it was not modified, or null if the avatar
+     * could not be loaded
+     */
+    private fun fetch(
+        context: Context,
+        okHttpClient: OkHttpClient,
+        user: User,
+        avatarUrl: String,
+        cachedEntry: Entry?
+    ): Entry? {
+        val requestBuilder = Request.Builder().url(avatarUrl)
+        ApiUtils.getCredentials(user.username, user.token)?.let { requestBuilder.header("Authorization", it) }
+        cachedEntry?.etag?.let { requestBuilder.header("If-None-Match", it) }
+
+        try {
+            okHttpClient.newCall(requestBuilder.build()).execute().use { response ->
+                val now = System.currentTimeMillis()
+                if (response.code == HttpURLConnection.HTTP_NOT_MODIFIED && cachedEntry != null) {
+                    return Entry(cachedEntry.bitmap, cachedEntry.etag, now)
+                }
+                if (!response.isSuccessful) {
+                    Log.w(TAG, "Can't load avatar for URL: $avatarUrl (" + response.code + ")")
+                    return null
+                }
+
+                val bitmap = BitmapFactory.decodeStream(response.body!!.byteStream())
+                if (bitmap == null) {
+                    Log.w(TAG, "Can't decode avatar for URL: $avatarUrl")
+                    return null
+                }
+
+                val size = context.resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_width)
+                return Entry(toCircularBitmap(bitmap, size), response.header("ETag"), now)
+            }
+        } catch (e: IOException) {
+            Log.w(TAG, "Can't load avatar for URL: $avatarUrl", e)
+            return null
+        }
+    }
+
+    private fun toCircularBitmap(bitmap: Bitmap, size: Int): Bitmap {
+        val side = minOf(bitmap.width, bitmap.height)
+        val left = (bitmap.width - side) / 2
+        val top = (bitmap.height - side) / 2
+
+        val circularBitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888)
+        val canvas = Canvas(circularBitmap)
+        val paint = Paint(Paint.ANTI_ALIAS_FLAG or Paint.FILTER_BITMAP_FLAG)
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint)
+        paint.xfermode = PorterDuffXfermode(PorterDuff.Mode.SRC_IN)
+        canvas.drawBitmap(bitmap, Rect(left, top, left + side, top + side), Rect(0, 0, size, size), paint)
+
+        bitmap.recycle()
+
+        return circularBitmap
+    }
+
+    private fun readFromDisk(avatarFile: File, etagFile: File): Entry? {
+        if (!avatarFile.exists()) {
+            return null
+        }
+        return try {
+            val bitmap = BitmapFactory.decodeFile(avatarFile.path) ?: return null
+            val etag = if (etagFile.exists()) etagFile.readText() else null
+            Entry(bitmap, etag, avatarFile.lastModified())
+        } catch (e: IOException) {
+            Log.w(TAG, "failed to read cached avatar", e)
+            null
+        }
+    }
+
+    private fun writeToDisk(avatarFile: File, etagFile: File, entry: Entry) {
+        try {
+            val cacheDir = avatarFile.parentFile!!
+            if (!cacheDir.exists()) {
+                cacheDir.mkdirs()
+            }
+            avatarFile.outputStream().use { entry.bitmap.compress(Bitmap.CompressFormat.PNG, PNG_QUALITY, it) }
+            if (entry.etag != null) {
+                etagFile.writeText(entry.etag)
+            } else {
+                etagFile.delete()
+            }
+            trimDiskCache(cacheDir)
+        } catch (e: IOException) {
+            Log.w(TAG, "failed to write cached avatar", e)
+        }
+    }
+
+    private fun trimDiskCache(cacheDir: File) {
+        val files = cacheDir.listFiles { file -> file.name.endsWith(AVATAR_FILE_SUFFIX) } ?: return
+        if (files.size > MAX_DISK_ENTRIES) {
+            files.sortBy { it.lastModified() }
+            files.take(files.size - MAX_DISK_ENTRIES).forEach {
+                it.delete()
+                File(cacheDir, it.name.removeSuffix(AVATAR_FILE_SUFFIX) + ETAG_FILE_SUFFIX).delete()
+            }
+        }
+    }
+
+    private fun hash(key: String): String {
+        val digest = MessageDigest.getInstance("SHA-256").digest(key.toByteArray())
+        return BigInteger(1, digest).toString(RADIX)
+    }
+}
@@ -27,18 +27,12 @@ import android.app.Notification
 import android.app.NotificationChannel
 import android.app.NotificationManager
 import android.content.Context
-import android.graphics.drawable.BitmapDrawable
 import android.media.AudioAttributes
 import android.net.Uri
 import android.os.Build
 import android.service.notification.StatusBarNotification
 import android.text.TextUtils
-import android.util.Log
 import androidx.core.graphics.drawable.IconCompat
-import coil.executeBlocking
-import coil.imageLoader
-import coil.request.ImageRequest
-import coil.transform.CircleCropTransformation
 import com.bluelinelabs.logansquare.LoganSquare
 import com.nextcloud.talk.BuildConfig
 import com.nextcloud.talk.R
@@ -46,6 +40,7 @@ import com.nextcloud.talk.data.user.model.User
 import com.nextcloud.talk.models.RingtoneSettings
 import com.nextcloud.talk.utils.bundle.BundleKeys
 import com.nextcloud.talk.utils.preferences.AppPreferences
+import okhttp3.OkHttpClient
 import java.io.IOException
 
 @Suppress("TooManyFunctions")
@@ -341,31 +336,11 @@ object NotificationUtils {
         )
     }
 
-    fun loadAvatarSync(avatarUrl: String, context: Context): IconCompat? {
-        var avatarIcon: IconCompat? = null
-
-        val request = ImageRequest.Builder(context)
-            .data(avatarUrl)
-            .transformations(CircleCropTransformation())
-            .placeholder(R.drawable.account_circle_96dp)
-            .target(
-                onSuccess = { result ->
-                    val bitmap = (result as BitmapDrawable).bitmap
-                    avatarIcon = IconCompat.createWithBitmap(bitmap)
-                },
-                onError = { error ->
-                    error?.let {
-                        val bitmap = (error as BitmapDrawable).bitmap
-                        avatarIcon = IconCompat.createWithBitmap(bitmap)
-                    }
-                    Log.w(TAG, "Can't load avatar for URL: $avatarUrl")
-                }
-            )
-            .build()
-
-        context.imageLoader.executeBlocking(request)
+    fun loadAvatarSync(avatarUrl: String, context: Context, user: User, okHttpClient: OkHttpClient): IconCompat {
+        val avatar = NotificationAvatarCache.getAvatar(context, okHttpClient, user, avatarUrl)
+            ?: return IconCompat.createWithResource(context, R.drawable.account_circle_96dp)
 
-        return avatarIcon
+        return IconCompat.createWithBitmap(avatar)
     }
 
     private data class Channel(
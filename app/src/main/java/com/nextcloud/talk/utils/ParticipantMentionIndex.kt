@@ -0,0 +1,134 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils
+
+import com.nextcloud.talk.models.json.mention.Mention
+import com.nextcloud.talk.models.json.participants.Participant
+import java.util.Locale
+
+/**
+ * Prefix index over the participants of a conversation, answering mention suggestions without a server round trip.
+ *
+ * Participants are found by a prefix of their display name, of any word of their display name or of their id,
+ * ignoring case. Only users and guests are indexed, groups and the conversation itself are left to the server.
+ */
+class ParticipantMentionIndex(participants: List<Participant>, currentUserId: String?) {
+
+    private class Node {
+        val children = HashMap<Char, Node>()
+        val mentionIndices = ArrayList<Int>()
+    }
+
+    private val root = Node()
+    private val mentions = ArrayList<Mention>()
+
+    val size: Int
+        get() = mentions.size
+
+    init {
+        for (participant in participants) {
+            val mention = toMention(participant)
+            if (mention != null && !(mention.source == SOURCE_USERS && mention.id == currentUserId)) {
+                mentions.add(mention)
+                index(mentions.size - 1, mention, participant.calculatedActorId!!)
+            }
+        }
+    }
+
+    /**
+     * Returns up to [limit] participants matching the query. Participants whose display name starts with the query
+     * come first, otherwise the result is ordered by display name.
+     */
+    fun search(query: String, limit: Int): List<Mention> {
+        var node: Node? = root
+        for (char in query.lowercase(Locale.ROOT)) {
+            node = node?.children?.get(char)
+        }
+        if (node == null || limit <= 0) {
+            return emptyList()
+        }
+
+        val normalizedQuery = query.lowercase(Locale.ROOT)
+        return node.mentionIndices
+            .map { mentions[it] }
+            .sortedWith(
+                compareByDescending<Mention> { it.label!!.lowercase(Locale.ROOT).startsWith(normalizedQuery) }
+                    .thenBy(String.CASE_INSENSITIVE_ORDER) { it.label!! }
+            )
+            .take(limit)
+    }
+
+    private fun index(mentionIndex: Int, mention: Mention, actorId: String) {
+        val label = mention.label!!.lowercase(Locale.ROOT)
+        insert(mentionIndex, label)
+        label.split(' ').drop(1).filter { it.isNotEmpty() }.forEach { insert(mentionIndex, it) }
+        insert(mentionIndex, actorId.lowercase(Locale.ROOT))
+    }
+
+    private fun insert(mentionIndex: Int, key: String) {
+        var node = root
+        addMentionIndex(node, mentionIndex)
+        for (char in key) {
+            node = node.children.getOrPut(char) { Node() }
+            addMentionIndex(node, mentionIndex)
+        }
+    }
+
+    private fun addMentionIndex(node: Node, mentionIndex: Int) {
+        // the keys of a participant are inserted one after another, so a duplicate can only be the last entry
+        if (node.mentionIndices.lastOrNull() != mentionIndex) {
+            node.mentionIndices.add(mentionIndex)
+        }
+    }
+
+    private fun toMention(participant: Participant): Mention? {
+        val actorId = participant.calculatedActorId
+        val displayName = participant.displayName
+        if (actorId.isNullOrEmpty() || displayName.isNullOrEmpty()) {
+            return null
+        }
+
+        return when (participant.calculatedActorType) {
+            Participant.ActorType.USERS -> Mention(
+                actorId,
+                displayName,
+                SOURCE_USERS,
+                participant.status,
+                participant.statusIcon,
+                participant.statusMessage
+            )
+            Participant.ActorType.GUESTS -> Mention(
+                GUEST_ID_PREFIX + actorId,
+                displayName,
+                SOURCE_GUESTS,
+                null,
+                null,
+                null
+            )
+            else -> null
+        }
+    }
+
+    companion object {
+        private const val SOURCE_USERS = "users"
+        private const val SOURCE_GUESTS = "guests"
+        private const val GUEST_ID_PREFIX = "guest/"
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Process wide cache of the decoded keys used to verify and decrypt push notifications.
+ *
+ * Decoding the RSA keys is by far the most expensive part of handling a push notification, so the device private key
+ * and the public key of each account are decoded only once. The public keys are cached together with the encoded key
+ * they were decoded from, so a key is decoded again if the push registration of the account changes even if the
+ * cache was not explicitly invalidated.
+ *
+ * The cache also remembers the last account that a push notification was verified for; as notifications usually come
+ * in bursts for the same account, that account is tried first when verifying the next one.
+ */
+class PushKeyCache {
+
+    private static final PushKeyCache INSTANCE = new PushKeyCache();
+
+    private static class CachedPublicKey {
+        private final String encodedKey;
+        private final PublicKey publicKey;
+
+        private CachedPublicKey(String encodedKey, PublicKey publicKey) {
+            this.encodedKey = encodedKey;
+            this.publicKey = publicKey;
+        }
+    }
+
+    private PrivateKey devicePrivateKey;
+    private final Map<Long, CachedPublicKey> userPublicKeys = new HashMap<>();
+    private Long lastVerifiedUserId;
+
+    static PushKeyCache getInstance() {
+        return INSTANCE;
+    }
+
+    @Nullable
+    synchronized PrivateKey getDevicePrivateKey() {
+        return devicePrivateKey;
+    }
+
+    synchronized void setDevicePrivateKey(@Nullable PrivateKey devicePrivateKey) {
+        this.devicePrivateKey = devicePrivateKey;
+    }
+
+    /**
+     * Returns the cached public key of the given user, or null if it was not cached yet or it was decoded from a
+     * different encoded key.
+     */
+    @Nullable
+    synchronized PublicKey getUserPublicKey(long userId, String encodedKey) {
+        CachedPublicKey cachedPublicKey = userPublicKeys.get(userId);
+        if (cachedPublicKey == null || !cachedPublicKey.encodedKey.equals(encodedKey)) {
+            return null;
+        }
+
+        return cachedPublicKey.publicKey;
+    }
+
+    synchronized void putUserPublicKey(long userId, String encodedKey, PublicKey publicKey) {
+        userPublicKeys.put(userId, new CachedPublicKey(encodedKey, publicKey));
+    }
+
+    @Nullable
+    synchronized Long getLastVerifiedUserId() {
+        return lastVerifiedUserId;
+    }
+
+    synchronized void setLastVerifiedUserId(long userId) {
+        lastVerifiedUserId = userId;
+    }
+
+    synchronized void invalidateUser(long userId) {
+        userPublicKeys.remove(userId);
+        if (lastVerifiedUserId != null && lastVerifiedUserId == userId) {
+            lastVerifiedUserId = null;
+        }
+    }
+
+    synchronized void invalidateAll() {
+        devicePrivateKey = null;
+        userPublicKeys.clear();
+        lastVerifiedUserId = null;
+    }
+}
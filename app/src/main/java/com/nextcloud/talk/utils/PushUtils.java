@@ -54,12 +54,14 @@ import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,6 +93,8 @@ public class PushUtils {
 
     private final String proxyServer;
 
+    private final PushKeyCache pushKeyCache = PushKeyCache.getInstance();
+
     public PushUtils() {
         NextcloudTalkApplication.Companion.getSharedApplication().getComponentApplication().inject(this);
 
@@ -116,14 +120,15 @@ public class PushUtils {
         try {
             Signature signature = Signature.getInstance("SHA512withRSA");
             if (users != null && users.size() > 0) {
-                PublicKey publicKey;
-                for (User user : users) {
-                    if (user.getPushConfigurationState() != null) {
-                        publicKey = (PublicKey) readKeyFromString(true,
-                                                                  user.getPushConfigurationState().getUserPublicKey());
+                for (User user : getUsersInVerificationOrder(users)) {
+                    PublicKey publicKey = getUserPublicKey(user);
+                    if (publicKey != null) {
                         signature.initVerify(publicKey);
                         signature.update(subjectBytes);
                         if (signature.verify(signatureBytes)) {
+                            if (user.getId() != null) {
+                                pushKeyCache.setLastVerifiedUserId(user.getId());
+                            }
                             signatureVerification.setSignatureValid(true);
                             signatureVerification.setUser(user);
                             return signatureVerification;
@@ -142,6 +147,67 @@ public class PushUtils {
         return signatureVerification;
     }
 
+    /**
+     * Returns the users with the one that the last push notification was verified for first, if any, as push
+     * notifications usually come in bursts for the same user.
+     */
+    private List<User> getUsersInVerificationOrder(List<User> users) {
+        Long lastVerifiedUserId = pushKeyCache.getLastVerifiedUserId();
+        if (lastVerifiedUserId == null) {
+            return users;
+        }
+
+        List<User> orderedUsers = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (lastVerifiedUserId.equals(user.getId())) {
+                orderedUsers.add(0, user);
+            } else {
+                orderedUsers.add(user);
+            }
+        }
+
+        return orderedUsers;
+    }
+
+    /**
+     * Returns the public key of the user for push notifications, decoding it only if it was not cached yet.
+     */
+    private PublicKey getUserPublicKey(User user) {
+        PushConfigurationState pushConfigurationState = user.getPushConfigurationState();
+        if (pushConfigurationState == null || pushConfigurationState.getUserPublicKey() == null) {
+            return null;
+        }
+
+        String encodedKey = pushConfigurationState.getUserPublicKey();
+        if (user.getId() == null) {
+            return (PublicKey) readKeyFromString(true, encodedKey);
+        }
+
+        PublicKey publicKey = pushKeyCache.getUserPublicKey(user.getId(), encodedKey);
+        if (publicKey == null) {
+            publicKey = (PublicKey) readKeyFromString(true, encodedKey);
+            if (publicKey != null) {
+                pushKeyCache.putUserPublicKey(user.getId(), encodedKey, publicKey);
+            }
+        }
+
+        return publicKey;
+    }
+
+    /**
+     * Returns the private key of this device for push notifications, reading it from disk only if it was not cached
+     * yet.
+     */
+    public PrivateKey getDevicePrivateKey() {
+        PrivateKey privateKey = pushKeyCache.getDevicePrivateKey();
+        if (privateKey == null) {
+            privateKey = (PrivateKey) readKeyFromFile(false);
+            pushKeyCache.setDevicePrivateKey(privateKey);
+        }
+
+        return privateKey;
+    }
+
     private int saveKeyToFile(Key key, String path) {
         byte[] encoded = key.getEncoded();
 
@@ -200,6 +266,7 @@ public class PushUtils {
 
                 if (statusPrivate == 0 && statusPublic == 0) {
                     // all went well
+                    pushKeyCache.invalidateAll();
                     return 0;
                 } else {
                     return -2;
@@ -347,6 +414,7 @@ public class PushUtils {
 
                 @Override
                 public void onSuccess(Integer integer) {
+                    pushKeyCache.invalidateUser(user.getId());
                     eventBus.post(new EventStatus(UserIdUtils.INSTANCE.getIdForUser(user),
                                                   EventStatus.EventType.PUSH_REGISTRATION,
                                                   true));
@@ -0,0 +1,109 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils.text
+
+/**
+ * Finds all occurrences of a set of labels (e.g. "@Display Name") in a text with a single scan, using an
+ * Aho-Corasick automaton. Matching ignores case. Overlapping occurrences are resolved leftmost-longest, so every
+ * character of the text belongs to at most one match.
+ */
+class MentionMatcher(labels: List<String>) {
+
+    class Match(val labelIndex: Int, val start: Int, val end: Int)
+
+    private val labelLengths = IntArray(labels.size) { labels[it].length }
+    private val transitions = ArrayList<HashMap<Char, Int>>()
+    private val failureLinks = ArrayList<Int>()
+    private val outputs = ArrayList<ArrayList<Int>>()
+
+    init {
+        addNode()
+        labels.forEachIndexed { labelIndex, label ->
+            if (label.isNotEmpty()) {
+                var node = ROOT
+                for (char in label) {
+                    val key = Character.toLowerCase(char)
+                    node = transitions[node][key] ?: addNode().also { transitions[node][key] = it }
+                }
+                outputs[node].add(labelIndex)
+            }
+        }
+        buildFailureLinks()
+    }
+
+    fun findAll(text: CharSequence): List<Match> {
+        val candidates = ArrayList<Match>()
+        var node = ROOT
+        for (i in text.indices) {
+            val key = Character.toLowerCase(text[i])
+            while (node != ROOT && !transitions[node].containsKey(key)) {
+                node = failureLinks[node]
+            }
+            node = transitions[node][key] ?: ROOT
+            for (labelIndex in outputs[node]) {
+                candidates.add(Match(labelIndex, i + 1 - labelLengths[labelIndex], i + 1))
+            }
+        }
+
+        if (candidates.size < 2) {
+            return candidates
+        }
+
+        candidates.sortWith(compareBy<Match> { it.start }.thenByDescending { it.end })
+        val matches = ArrayList<Match>(candidates.size)
+        var lastEnd = 0
+        for (candidate in candidates) {
+            if (candidate.start >= lastEnd) {
+                matches.add(candidate)
+                lastEnd = candidate.end
+            }
+        }
+        return matches
+    }
+
+    private fun addNode(): Int {
+        transitions.add(HashMap())
+        failureLinks.add(ROOT)
+        outputs.add(ArrayList())
+        return transitions.size - 1
+    }
+
+    private fun buildFailureLinks() {
+        val queue = ArrayDeque<Int>()
+        queue.addAll(transitions[ROOT].values)
+        while (queue.isNotEmpty()) {
+            val node = queue.removeFirst()
+            for ((key, child) in transitions[node]) {
+                var fallback = failureLinks[node]
+                while (fallback != ROOT && !transitions[fallback].containsKey(key)) {
+                    fallback = failureLinks[fallback]
+                }
+                val failureLink = transitions[fallback][key]?.takeIf { it != child } ?: ROOT
+                failureLinks[child] = failureLink
+                outputs[child].addAll(outputs[failureLink])
+                queue.add(child)
+            }
+        }
+    }
+
+    companion object {
+        private const val ROOT = 0
+    }
+}
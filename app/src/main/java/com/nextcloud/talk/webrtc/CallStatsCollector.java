@@ -0,0 +1,272 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import android.util.Log;
+
+import org.webrtc.PeerConnection;
+import org.webrtc.RTCStats;
+import org.webrtc.RTCStatsReport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Periodically collects the stats of the peer connections of a call.
+ *
+ * Every {@link #COLLECT_INTERVAL_SECONDS} the stats of every peer connection returned by the given provider are
+ * requested, and the {@link PeerConnectionStats} computed from them are provided to the listener (in the WebRTC
+ * signaling thread) and kept until the next collection, see {@link #getLatestStats()}. Besides that a summary of each
+ * peer connection is accumulated while collecting, which can be written to a file with {@link #writeSummary(File)}
+ * to help diagnosing bad call quality reports.
+ *
+ * The collection can be started and stopped again any number of times, so it only needs to run while the stats are
+ * used.
+ *
+ * The peer connection wrappers are got in the observe scheduler, which is expected to be the one in which the
+ * wrappers are modified.
+ */
+public class CallStatsCollector {
+
+    private static final String TAG = CallStatsCollector.class.getSimpleName();
+
+    public static final long COLLECT_INTERVAL_SECONDS = 2;
+
+    public interface Listener {
+        /**
+         * @param stats the latest stats of each peer connection, by "sessionId-videoStreamType"
+         */
+        void onStatsUpdated(Map<String, PeerConnectionStats> stats);
+    }
+
+    private final Scheduler scheduler;
+    private final Scheduler observeScheduler;
+    private final Callable<List<PeerConnectionWrapper>> peerConnectionWrappers;
+    private final Listener listener;
+
+    private final Map<String, Map<String, RTCStats>> previousReports = new HashMap<>();
+    private final Map<String, PeerConnectionStats> latestStats = new LinkedHashMap<>();
+    private final Map<String, Summary> summaries = new LinkedHashMap<>();
+
+    private Disposable disposable;
+    private long startTimeMillis;
+
+    public CallStatsCollector(Scheduler scheduler,
+                              Scheduler observeScheduler,
+                              Callable<List<PeerConnectionWrapper>> peerConnectionWrappers,
+                              Listener listener) {
+        this.scheduler = scheduler;
+        this.observeScheduler = observeScheduler;
+        this.peerConnectionWrappers = peerConnectionWrappers;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (disposable != null) {
+            return;
+        }
+
+        if (startTimeMillis == 0) {
+            startTimeMillis = System.currentTimeMillis();
+        }
+        disposable = Observable
+            .interval(COLLECT_INTERVAL_SECONDS, TimeUnit.SECONDS, scheduler)
+            .observeOn(observeScheduler)
+            .subscribe(tick -> collect(), throwable -> Log.e(TAG, "Failed to collect call stats", throwable));
+    }
+
+    public synchronized void stop() {
+        if (disposable != null) {
+            disposable.dispose();
+            disposable = null;
+        }
+
+        // The bitrates of the next collection must not be computed against reports from before the pause
+        previousReports.clear();
+        latestStats.clear();
+    }
+
+    public synchronized Map<String, PeerConnectionStats> getLatestStats() {
+        return new LinkedHashMap<>(latestStats);
+    }
+
+    public synchronized boolean hasSummary() {
+        return !summaries.isEmpty();
+    }
+
+    private void collect() throws Exception {
+        Set<String> keys = new HashSet<>();
+
+        for (PeerConnectionWrapper peerConnectionWrapper : peerConnectionWrappers.call()) {
+            PeerConnection peerConnection = peerConnectionWrapper.getPeerConnection();
+            if (peerConnection == null) {
+                continue;
+            }
+
+            String key = peerConnectionWrapper.getSessionId() + "-" + peerConnectionWrapper.getVideoStreamType();
+            keys.add(key);
+
+            peerConnection.getStats(report -> onReport(key, report));
+        }
+
+        synchronized (this) {
+            // Forget the connections that were closed, but keep their summaries
+            previousReports.keySet().retainAll(keys);
+            latestStats.keySet().retainAll(keys);
+        }
+    }
+
+    private void onReport(String key, RTCStatsReport report) {
+        Map<String, PeerConnectionStats> stats;
+
+        synchronized (this) {
+            if (disposable == null) {
+                return;
+            }
+
+            Map<String, RTCStats> previousReport = previousReports.put(key, report.getStatsMap());
+            PeerConnectionStats peerConnectionStats = PeerConnectionStats.compute(previousReport,
+                                                                                  report.getStatsMap());
+            latestStats.put(key, peerConnectionStats);
+
+            Summary summary = summaries.get(key);
+            if (summary == null) {
+                summary = new Summary();
+                summaries.put(key, summary);
+            }
+            summary.add(peerConnectionStats);
+
+            stats = Collections.unmodifiableMap(new LinkedHashMap<>(latestStats));
+        }
+
+        listener.onStatsUpdated(stats);
+    }
+
+    /**
+     * Writes a plain text summary of the stats of every peer connection collected during the call.
+     */
+    public void writeSummary(File file) throws IOException {
+        String summary = getSummary();
+
+        File directory = file.getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Failed to create " + directory);
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(summary);
+        }
+    }
+
+    synchronized String getSummary() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT,
+                                     "Call started at %d, lasted %d s%n",
+                                     startTimeMillis,
+                                     (System.currentTimeMillis() - startTimeMillis) / 1000));
+
+        for (Map.Entry<String, Summary> entry : summaries.entrySet()) {
+            builder.append('\n').append(entry.getKey()).append('\n').append(entry.getValue());
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Aggregated stats of a peer connection.
+     */
+    private static class Summary {
+        private int samples;
+        private long sendBitrateKbpsSum;
+        private long sendBitrateKbpsMax;
+        private long receiveBitrateKbpsSum;
+        private long receiveBitrateKbpsMax;
+        private int roundTripTimeSamples;
+        private long roundTripTimeMsSum;
+        private long roundTripTimeMsMax;
+        private long jitterMsMax;
+        private double packetLossPercentSum;
+        private double packetLossPercentMax;
+        private PeerConnectionStats last;
+
+        void add(PeerConnectionStats stats) {
+            samples++;
+            sendBitrateKbpsSum += stats.getSendBitrateKbps();
+            sendBitrateKbpsMax = Math.max(sendBitrateKbpsMax, stats.getSendBitrateKbps());
+            receiveBitrateKbpsSum += stats.getReceiveBitrateKbps();
+            receiveBitrateKbpsMax = Math.max(receiveBitrateKbpsMax, stats.getReceiveBitrateKbps());
+            if (stats.getRoundTripTimeMs() != PeerConnectionStats.UNKNOWN) {
+                roundTripTimeSamples++;
+                roundTripTimeMsSum += stats.getRoundTripTimeMs();
+                roundTripTimeMsMax = Math.max(roundTripTimeMsMax, stats.getRoundTripTimeMs());
+            }
+            jitterMsMax = Math.max(jitterMsMax, stats.getJitterMs());
+            packetLossPercentSum += stats.getPacketLossPercent();
+            packetLossPercentMax = Math.max(packetLossPercentMax, stats.getPacketLossPercent());
+            last = stats;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                                 "samples: %d%n" +
+                                     "send bitrate: avg %d kbps, max %d kbps%n" +
+                                     "receive bitrate: avg %d kbps, max %d kbps%n" +
+                                     "rtt: avg %d ms, max %d ms%n" +
+                                     "jitter: max %d ms%n" +
+                                     "packet loss: avg %.1f%%, max %.1f%%%n" +
+                                     "frames: %d decoded, %d dropped%n" +
+                                     "video codec: %s%n",
+                                 samples,
+                                 sendBitrateKbpsSum / samples,
+                                 sendBitrateKbpsMax,
+                                 receiveBitrateKbpsSum / samples,
+                                 receiveBitrateKbpsMax,
+                                 roundTripTimeSamples > 0 ? roundTripTimeMsSum / roundTripTimeSamples : -1,
+                                 roundTripTimeMsMax,
+                                 jitterMsMax,
+                                 packetLossPercentSum / samples,
+                                 packetLossPercentMax,
+                                 last.getFramesDecoded(),
+                                 last.getFramesDropped(),
+                                 last.getVideoCodec());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.os.Build;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Decides which codecs are preferred in the session descriptions, and which bandwidth is allowed for each media.
+ *
+ * Video codecs that can be encoded in hardware in this device are preferred, as encoding them is much cheaper than
+ * encoding in software. If hardware acceleration should not be used (see
+ * {@link MagicWebRTCUtils#shouldEnableVideoHardwareAcceleration()}) or no codec is supported by the hardware
+ * encoders, VP8 is preferred, as it is the cheapest codec to encode in software.
+ */
+public class CodecSelectionPolicy {
+
+    private static final String TAG = CodecSelectionPolicy.class.getSimpleName();
+
+    public static final String H264 = "H264";
+    public static final String VP8 = "VP8";
+    public static final String VP9 = "VP9";
+
+    // Order of preference when several codecs are supported by the hardware
+    private static final String[] HARDWARE_CODECS = {H264, VP8, VP9};
+    private static final String[] HARDWARE_CODEC_MIME_TYPES = {
+        "video/avc",
+        "video/x-vnd.on2.vp8",
+        "video/x-vnd.on2.vp9"
+    };
+
+    private static CodecSelectionPolicy defaultPolicy;
+
+    private final List<String> preferredVideoCodecs;
+    private final int audioBandwidthKbps;
+    private final int videoBandwidthKbps;
+
+    /**
+     * @param preferredVideoCodecs the video codecs to prefer, most preferred first
+     * @param audioBandwidthKbps the maximum bandwidth for audio sections, or 0 for no limit
+     * @param videoBandwidthKbps the maximum bandwidth for video sections, or 0 for no limit
+     */
+    public CodecSelectionPolicy(List<String> preferredVideoCodecs, int audioBandwidthKbps, int videoBandwidthKbps) {
+        this.preferredVideoCodecs = Collections.unmodifiableList(new ArrayList<>(preferredVideoCodecs));
+        this.audioBandwidthKbps = audioBandwidthKbps;
+        this.videoBandwidthKbps = videoBandwidthKbps;
+    }
+
+    /**
+     * Returns the policy for this device, without bandwidth limits.
+     *
+     * The hardware encoders are queried only the first time.
+     */
+    public static synchronized CodecSelectionPolicy getDefault() {
+        if (defaultPolicy == null) {
+            boolean hardwareAccelerationEnabled = MagicWebRTCUtils.shouldEnableVideoHardwareAcceleration();
+            Set<String> hardwareCodecs = hardwareAccelerationEnabled ? getHardwareEncoderCodecs() : new HashSet<>();
+
+            defaultPolicy = new CodecSelectionPolicy(getPreferredVideoCodecs(hardwareAccelerationEnabled,
+                                                                             hardwareCodecs), 0, 0);
+
+            Log.d(TAG, "Preferred video codecs: " + defaultPolicy.preferredVideoCodecs);
+        }
+
+        return defaultPolicy;
+    }
+
+    public List<String> getPreferredVideoCodecs() {
+        return preferredVideoCodecs;
+    }
+
+    /**
+     * Returns the given session description with the preferred codecs and bandwidth limits applied.
+     */
+    public String apply(String sessionDescription) {
+        ParsedSessionDescription parsedSessionDescription = ParsedSessionDescription.parse(sessionDescription);
+
+        for (ParsedSessionDescription.MediaSection mediaSection : parsedSessionDescription.getMediaSections()) {
+            if ("video".equals(mediaSection.getMedia())) {
+                List<String> preferredPayloadTypes = new ArrayList<>();
+                for (String codec : preferredVideoCodecs) {
+                    preferredPayloadTypes.addAll(mediaSection.getPayloadTypesForCodec(codec));
+                }
+                mediaSection.preferPayloadTypes(preferredPayloadTypes);
+
+                if (videoBandwidthKbps > 0) {
+                    mediaSection.setBandwidthKbps(videoBandwidthKbps);
+                }
+            } else if ("audio".equals(mediaSection.getMedia()) && audioBandwidthKbps > 0) {
+                mediaSection.setBandwidthKbps(audioBandwidthKbps);
+            }
+        }
+
+        return parsedSessionDescription.toString();
+    }
+
+    @VisibleForTesting
+    static List<String> getPreferredVideoCodecs(boolean hardwareAccelerationEnabled, Set<String> hardwareCodecs) {
+        List<String> preferredVideoCodecs = new ArrayList<>();
+
+        if (hardwareAccelerationEnabled) {
+            for (String codec : HARDWARE_CODECS) {
+                if (hardwareCodecs.contains(codec)) {
+                    preferredVideoCodecs.add(codec);
+                }
+            }
+        }
+
+        if (!preferredVideoCodecs.contains(VP8)) {
+            preferredVideoCodecs.add(VP8);
+        }
+
+        return preferredVideoCodecs;
+    }
+
+    private static Set<String> getHardwareEncoderCodecs() {
+        Set<String> hardwareCodecs = new HashSet<>();
+
+        try {
+            for (MediaCodecInfo codecInfo : new MediaCodecList(MediaCodecList.REGULAR_CODECS).getCodecInfos()) {
+                if (!codecInfo.isEncoder() || !isHardwareAccelerated(codecInfo)) {
+                    continue;
+                }
+
+                for (String supportedType : codecInfo.getSupportedTypes()) {
+                    for (int i = 0; i < HARDWARE_CODEC_MIME_TYPES.length; i++) {
+                        if (HARDWARE_CODEC_MIME_TYPES[i].equalsIgnoreCase(supportedType)) {
+                            hardwareCodecs.add(HARDWARE_CODECS[i]);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Failed to get the hardware encoders", e);
+        }
+
+        return hardwareCodecs;
+    }
+
+    private static boolean isHardwareAccelerated(MediaCodecInfo codecInfo) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return codecInfo.isHardwareAccelerated();
+        }
+
+        // Before Android 10 there is no flag for it, but the software codecs are those provided by Google or Android
+        String name = codecInfo.getName().toLowerCase(Locale.ROOT);
+        return !name.startsWith("omx.google.") && !name.startsWith("c2.android.") && !name.startsWith("c2.google.");
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import com.bluelinelabs.logansquare.LoganSquare;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Encodes and decodes the messages sent through the "status" data channel.
+ *
+ * The messages without payload never change, so they are encoded just once, and the nick message is encoded only
+ * when the nick is set. Received messages are decoded in a single pass with a streaming parser directly from a
+ * reusable buffer, and dispatched to a DataChannelMessageNotifier without creating intermediate objects for them.
+ *
+ * A decoder instance is meant to be used by a single data channel, as messages are received sequentially.
+ */
+class DataChannelMessageCodec {
+
+    static final byte[] AUDIO_ON = encode("audioOn");
+    static final byte[] AUDIO_OFF = encode("audioOff");
+    static final byte[] VIDEO_ON = encode("videoOn");
+    static final byte[] VIDEO_OFF = encode("videoOff");
+
+    private static final String TYPE_NICK_CHANGED = "nickChanged";
+
+    private static final String[] KNOWN_TYPES = {"audioOn", "audioOff", "videoOn", "videoOff", TYPE_NICK_CHANGED};
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+    private static byte[] encode(String type) {
+        return ("{\"type\":\"" + type + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a "nickChanged" message with the given user ID (which may be null for guests) and name.
+     */
+    static byte[] encodeNickChanged(@Nullable String userId, String name) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (JsonGenerator generator = LoganSquare.JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", TYPE_NICK_CHANGED);
+            generator.writeObjectFieldStart("payload");
+            generator.writeStringField("userid", userId);
+            generator.writeStringField("name", name);
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Decodes the message in the given data and notifies it.
+     *
+     * @return true if the message was a known message, false if it was unknown or could not be decoded
+     */
+    boolean decode(ByteBuffer data, DataChannelMessageNotifier notifier) {
+        int length = data.remaining();
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        data.get(buffer, 0, length);
+
+        JsonToken typeToken = null;
+        String type = null;
+        String nick = null;
+
+        try (JsonParser parser = LoganSquare.JSON_FACTORY.createParser(buffer, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+
+                if ("type".equals(fieldName)) {
+                    typeToken = token;
+                    type = toKnownType(parser, token);
+                } else if ("payload".equals(fieldName)) {
+                    nick = parseNick(parser, token);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        if (typeToken != JsonToken.VALUE_STRING || type == null) {
+            return false;
+        }
+
+        switch (type) {
+            case "audioOn":
+                notifier.notifyAudioOn();
+                break;
+            case "audioOff":
+                notifier.notifyAudioOff();
+                break;
+            case "videoOn":
+                notifier.notifyVideoOn();
+                break;
+            case "videoOff":
+                notifier.notifyVideoOff();
+                break;
+            case TYPE_NICK_CHANGED:
+                if (nick != null) {
+                    notifier.notifyNickChanged(nick);
+                }
+                break;
+            default:
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the constant for the type in the current string token, or null if it is not a known type.
+     *
+     * The type is compared against the parser characters, so no string is created for it.
+     */
+    @Nullable
+    private static String toKnownType(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+
+            return null;
+        }
+
+        char[] characters = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+
+        for (String knownType : KNOWN_TYPES) {
+            if (equals(knownType, characters, offset, length)) {
+                return knownType;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean equals(String string, char[] characters, int offset, int length) {
+        if (string.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) != characters[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the nick in the payload, which can be either the nick itself or an object with the nick as "name".
+     */
+    @Nullable
+    private static String parseNick(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+
+            return null;
+        }
+
+        String nick = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+
+            if ("name".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                nick = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return nick;
+    }
+}
@@ -19,58 +19,82 @@
  */
 package com.nextcloud.talk.webrtc;
 
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Arrays;
 
 /**
  * Helper class to register and notify DataChannelMessageListeners.
  *
  * This class is only meant for internal use by PeerConnectionWrapper; listeners must register themselves against
  * a PeerConnectionWrapper rather than against a DataChannelMessageNotifier.
+ *
+ * The listeners are kept in an immutable array that is replaced whenever a listener is added or removed, so notifying
+ * them, which happens for every data channel message, does neither allocate nor lock.
  */
 public class DataChannelMessageNotifier {
 
-    private final Set<PeerConnectionWrapper.DataChannelMessageListener> dataChannelMessageListeners = new LinkedHashSet<>();
+    private volatile PeerConnectionWrapper.DataChannelMessageListener[] dataChannelMessageListeners =
+        new PeerConnectionWrapper.DataChannelMessageListener[0];
 
     public synchronized void addListener(PeerConnectionWrapper.DataChannelMessageListener listener) {
         if (listener == null) {
             throw new IllegalArgumentException("DataChannelMessageListener can not be null");
         }
 
-        dataChannelMessageListeners.add(listener);
+        for (PeerConnectionWrapper.DataChannelMessageListener registeredListener : dataChannelMessageListeners) {
+            if (registeredListener.equals(listener)) {
+                return;
+            }
+        }
+
+        PeerConnectionWrapper.DataChannelMessageListener[] listeners =
+            Arrays.copyOf(dataChannelMessageListeners, dataChannelMessageListeners.length + 1);
+        listeners[dataChannelMessageListeners.length] = listener;
+
+        dataChannelMessageListeners = listeners;
     }
 
     public synchronized void removeListener(PeerConnectionWrapper.DataChannelMessageListener listener) {
-        dataChannelMessageListeners.remove(listener);
+        PeerConnectionWrapper.DataChannelMessageListener[] listeners = dataChannelMessageListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                PeerConnectionWrapper.DataChannelMessageListener[] updatedListeners =
+                    new PeerConnectionWrapper.DataChannelMessageListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updatedListeners, 0, i);
+                System.arraycopy(listeners, i + 1, updatedListeners, i, listeners.length - i - 1);
+
+                dataChannelMessageListeners = updatedListeners;
+
+                return;
+            }
+        }
     }
 
-    public synchronized void notifyAudioOn() {
-        for (PeerConnectionWrapper.DataChannelMessageListener listener : new ArrayList<>(dataChannelMessageListeners)) {
+    public void notifyAudioOn() {
+        for (PeerConnectionWrapper.DataChannelMessageListener listener : dataChannelMessageListeners) {
             listener.onAudioOn();
         }
     }
 
-    public synchronized void notifyAudioOff() {
-        for (PeerConnectionWrapper.DataChannelMessageListener listener : new ArrayList<>(dataChannelMessageListeners)) {
+    public void notifyAudioOff() {
+        for (PeerConnectionWrapper.DataChannelMessageListener listener : dataChannelMessageListeners) {
             listener.onAudioOff();
         }
     }
 
-    public synchronized void notifyVideoOn() {
-        for (PeerConnectionWrapper.DataChannelMessageListener listener : new ArrayList<>(dataChannelMessageListeners)) {
+    public void notifyVideoOn() {
+        for (PeerConnectionWrapper.DataChannelMessageListener listener : dataChannelMessageListeners) {
             listener.onVideoOn();
         }
     }
 
-    public synchronized void notifyVideoOff() {
-        for (PeerConnectionWrapper.DataChannelMessageListener listener : new ArrayList<>(dataChannelMessageListeners)) {
+    public void notifyVideoOff() {
+        for (PeerConnectionWrapper.DataChannelMessageListener listener : dataChannelMessageListeners) {
             listener.onVideoOff();
         }
     }
 
-    public synchronized void notifyNickChanged(String nick) {
-        for (PeerConnectionWrapper.DataChannelMessageListener listener : new ArrayList<>(dataChannelMessageListeners)) {
+    public void notifyNickChanged(String nick) {
+        for (PeerConnectionWrapper.DataChannelMessageListener listener : dataChannelMessageListeners) {
             listener.onNickChanged(nick);
         }
     }
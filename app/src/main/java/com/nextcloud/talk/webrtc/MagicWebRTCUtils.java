@@ -16,31 +16,17 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- *
- * Part of the code related to codec handling is originally:
- *
- *
- * Copyright 2016 The WebRTC Project Authors. All rights reserved.
- *
- * Use of this source code is governed by a BSD-style license
- * that can be found in the LICENSE file in the root of the source
- * tree. An additional intellectual property rights grant can be found
- * in the file PATENTS.  All contributing project authors may
- * be found in the AUTHORS file in the root of the source tree.
  */
 
 package com.nextcloud.talk.webrtc;
 
 import android.os.Build;
-import android.util.Log;
 
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
 
 public class MagicWebRTCUtils {
-    private static final String TAG = "MagicWebRTCUtils";
-
     /* AEC blacklist and SL_ES_WHITELIST are borrowed from Signal
        https://github.com/WhisperSystems/Signal-Android/blob/551470123d006b76a68d705d131bb12513a5e683/src/org/thoughtcrime/securesms/ApplicationContext.java
     */
@@ -95,87 +81,4 @@ public class MagicWebRTCUtils {
         return (!HARDWARE_ACCELERATION_VENDOR_EXCLUDE_SET.contains(Build.MANUFACTURER.toLowerCase(Locale.ROOT))
                 && !HARDWARE_ACCELERATION_DEVICE_EXCLUDE_SET.contains(Build.MODEL.toUpperCase(Locale.ROOT)));
     }
-
-    public static String preferCodec(String sdpDescription, String codec, boolean isAudio) {
-        final String[] lines = sdpDescription.split("\r\n");
-        final int mLineIndex = findMediaDescriptionLine(isAudio, lines);
-        if (mLineIndex == -1) {
-            Log.w(TAG, "No mediaDescription line, so can't prefer " + codec);
-            return sdpDescription;
-        }
-        // A list with all the payload types with name |codec|. The payload types are integers in the
-        // range 96-127, but they are stored as strings here.
-        final List<String> codecPayloadTypes = new ArrayList<>();
-        // a=rtpmap:<payload type> <encoding name>/<clock rate> [/<encoding parameters>]
-        final Pattern codecPattern = Pattern.compile("^a=rtpmap:(\\d+) " + codec + "(/\\d+)+[\r]?$");
-        for (int i = 0; i < lines.length; ++i) {
-            Matcher codecMatcher = codecPattern.matcher(lines[i]);
-            if (codecMatcher.matches()) {
-                codecPayloadTypes.add(codecMatcher.group(1));
-            }
-        }
-        if (codecPayloadTypes.isEmpty()) {
-            Log.w(TAG, "No payload types with name " + codec);
-            return sdpDescription;
-        }
-
-        final String newMLine = movePayloadTypesToFront(codecPayloadTypes, lines[mLineIndex]);
-        if (newMLine == null) {
-            return sdpDescription;
-        }
-        Log.d(TAG, "Change media description from: " + lines[mLineIndex] + " to " + newMLine);
-        lines[mLineIndex] = newMLine;
-        return joinString(Arrays.asList(lines), "\r\n", true);
-    }
-
-    /**
-     * Returns the line number containing "m=audio|video", or -1 if no such line exists.
-     */
-    private static int findMediaDescriptionLine(boolean isAudio, String[] sdpLines) {
-        final String mediaDescription = isAudio ? "m=audio " : "m=video ";
-        for (int i = 0; i < sdpLines.length; ++i) {
-            if (sdpLines[i].startsWith(mediaDescription)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
-    private static String movePayloadTypesToFront(List<String> preferredPayloadTypes, String mLine) {
-        // The format of the media description line should be: m=<media> <port> <proto> <fmt> ...
-        final List<String> origLineParts = Arrays.asList(mLine.split(" "));
-        if (origLineParts.size() <= 3) {
-            Log.e(TAG, "Wrong SDP media description format: " + mLine);
-            return null;
-        }
-        final List<String> header = origLineParts.subList(0, 3);
-        final List<String> unpreferredPayloadTypes =
-                new ArrayList<>(origLineParts.subList(3, origLineParts.size()));
-        unpreferredPayloadTypes.removeAll(preferredPayloadTypes);
-        // Reconstruct the line with |preferredPayloadTypes| moved to the beginning of the payload
-        // types.
-        final List<String> newLineParts = new ArrayList<>();
-        newLineParts.addAll(header);
-        newLineParts.addAll(preferredPayloadTypes);
-        newLineParts.addAll(unpreferredPayloadTypes);
-        return joinString(newLineParts, " ", false /* delimiterAtEnd */);
-    }
-
-    private static String joinString(
-            Iterable<? extends CharSequence> s,
-            String delimiter,
-            boolean delimiterAtEnd) {
-        Iterator<? extends CharSequence> iter = s.iterator();
-        if (!iter.hasNext()) {
-            return "";
-        }
-        StringBuilder buffer = new StringBuilder(iter.next());
-        while (iter.hasNext()) {
-            buffer.append(delimiter).append(iter.next());
-        }
-        if (delimiterAtEnd) {
-            buffer.append(delimiter);
-        }
-        return buffer.toString();
-    }
 }
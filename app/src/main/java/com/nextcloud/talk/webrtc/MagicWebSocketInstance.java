@@ -31,7 +31,6 @@ import com.nextcloud.talk.events.NetworkEvent;
 import com.nextcloud.talk.events.WebSocketCommunicationEvent;
 import com.nextcloud.talk.models.json.participants.Participant;
 import com.nextcloud.talk.models.json.signaling.NCSignalingMessage;
-import com.nextcloud.talk.models.json.websocket.BaseWebSocketMessage;
 import com.nextcloud.talk.models.json.websocket.ByeWebSocketMessage;
 import com.nextcloud.talk.models.json.websocket.CallOverallWebSocketMessage;
 import com.nextcloud.talk.models.json.websocket.ErrorOverallWebSocketMessage;
@@ -52,11 +51,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import javax.inject.Inject;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import autodagger.AutoInjector;
+import io.reactivex.schedulers.Schedulers;
+import kotlin.Unit;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -95,6 +98,7 @@ public class MagicWebSocketInstance extends WebSocketListener {
 
     private String currentRoomToken;
     private boolean reconnecting = false;
+    private volatile boolean disposed = false;
 
     private HashMap<String, Participant> usersHashMap;
 
@@ -104,6 +108,10 @@ public class MagicWebSocketInstance extends WebSocketListener {
 
     private final ExternalSignalingMessageSender signalingMessageSender = new ExternalSignalingMessageSender();
 
+    private final ReconnectScheduler reconnectScheduler = new ReconnectScheduler(Schedulers.io(),
+                                                                                 new Random(),
+                                                                                 this::reconnectWebSocket);
+
     MagicWebSocketInstance(User conversationUser, String connectionUrl, String webSocketTicket) {
         NextcloudTalkApplication.Companion.getSharedApplication().getComponentApplication().inject(this);
 
@@ -149,7 +157,9 @@ public class MagicWebSocketInstance extends WebSocketListener {
             messagesQueue = new ArrayList<>();
         }
 
-        restartWebSocket();
+        if (!disposed) {
+            reconnectScheduler.scheduleReconnect();
+        }
     }
 
 
@@ -158,6 +168,18 @@ public class MagicWebSocketInstance extends WebSocketListener {
     }
 
     public final void restartWebSocket() {
+        reconnectScheduler.cancel();
+        openWebSocket();
+    }
+
+    private Unit reconnectWebSocket() {
+        if (!disposed) {
+            openWebSocket();
+        }
+        return Unit.INSTANCE;
+    }
+
+    private void openWebSocket() {
         reconnecting = true;
 
         // TODO when improving logging, keep in mind this issue: https://github.com/nextcloud/talk-android/issues/1013
@@ -172,24 +194,26 @@ public class MagicWebSocketInstance extends WebSocketListener {
             Log.d(TAG, "Receiving : " + webSocket + " " + text);
 
             try {
-                BaseWebSocketMessage baseWebSocketMessage = LoganSquare.parse(text, BaseWebSocketMessage.class);
-                String messageType = baseWebSocketMessage.getType();
+                WebSocketMessageParser.ParsedMessage parsedMessage = WebSocketMessageParser.parse(text);
+                String messageType = parsedMessage.type;
                 if (messageType != null) {
                     switch (messageType) {
                         case "hello":
-                            processHelloMessage(webSocket, text);
+                            processHelloMessage(webSocket,
+                                                (HelloResponseOverallWebSocketMessage) parsedMessage.message);
                             break;
                         case "error":
-                            processErrorMessage(webSocket, text);
+                            Log.e(TAG, "Received error: " + text);
+                            processErrorMessage(webSocket, (ErrorOverallWebSocketMessage) parsedMessage.message);
                             break;
                         case "room":
-                            processJoinedRoomMessage(text);
+                            processJoinedRoomMessage((JoinedRoomOverallWebSocketMessage) parsedMessage.message);
                             break;
                         case "event":
-                            processEventMessage(text);
+                            processEventMessage((EventOverallWebSocketMessage) parsedMessage.message);
                             break;
                         case "message":
-                            processMessage(text);
+                            processMessage((CallOverallWebSocketMessage) parsedMessage.message);
                             break;
                         case "bye":
                             connected = false;
@@ -207,11 +231,8 @@ public class MagicWebSocketInstance extends WebSocketListener {
         }
     }
 
-    private void processMessage(String text) throws IOException {
-        CallOverallWebSocketMessage callOverallWebSocketMessage =
-            LoganSquare.parse(text, CallOverallWebSocketMessage.class);
-
-        if (callOverallWebSocketMessage.getCallWebSocketMessage() != null) {
+    private void processMessage(@Nullable CallOverallWebSocketMessage callOverallWebSocketMessage) {
+        if (callOverallWebSocketMessage != null && callOverallWebSocketMessage.getCallWebSocketMessage() != null) {
             NCSignalingMessage ncSignalingMessage = callOverallWebSocketMessage
                 .getCallWebSocketMessage()
                 .getNcSignalingMessage();
@@ -225,10 +246,8 @@ public class MagicWebSocketInstance extends WebSocketListener {
         }
     }
 
-    private void processEventMessage(String text) throws IOException {
-        EventOverallWebSocketMessage eventOverallWebSocketMessage =
-            LoganSquare.parse(text, EventOverallWebSocketMessage.class);
-        if (eventOverallWebSocketMessage.getEventMap() != null) {
+    private void processEventMessage(@Nullable EventOverallWebSocketMessage eventOverallWebSocketMessage) {
+        if (eventOverallWebSocketMessage != null && eventOverallWebSocketMessage.getEventMap() != null) {
             String target = (String) eventOverallWebSocketMessage.getEventMap().get("target");
             if (target != null) {
                 switch (target) {
@@ -296,10 +315,10 @@ public class MagicWebSocketInstance extends WebSocketListener {
         }
     }
 
-    private void processJoinedRoomMessage(String text) throws IOException {
-        JoinedRoomOverallWebSocketMessage joinedRoomOverallWebSocketMessage =
-            LoganSquare.parse(text, JoinedRoomOverallWebSocketMessage.class);
-        if (joinedRoomOverallWebSocketMessage.getRoomWebSocketMessage() != null) {
+    private void processJoinedRoomMessage(
+        @Nullable JoinedRoomOverallWebSocketMessage joinedRoomOverallWebSocketMessage) {
+        if (joinedRoomOverallWebSocketMessage != null &&
+            joinedRoomOverallWebSocketMessage.getRoomWebSocketMessage() != null) {
             currentRoomToken = joinedRoomOverallWebSocketMessage.getRoomWebSocketMessage().getRoomId();
 
             if (joinedRoomOverallWebSocketMessage
@@ -311,31 +330,33 @@ public class MagicWebSocketInstance extends WebSocketListener {
         }
     }
 
-    private void processErrorMessage(WebSocket webSocket, String text) throws IOException {
-        Log.e(TAG, "Received error: " + text);
-        ErrorOverallWebSocketMessage errorOverallWebSocketMessage =
-            LoganSquare.parse(text, ErrorOverallWebSocketMessage.class);
-        ErrorWebSocketMessage message = errorOverallWebSocketMessage.getErrorWebSocketMessage();
+    private void processErrorMessage(WebSocket webSocket,
+                                     @Nullable ErrorOverallWebSocketMessage errorOverallWebSocketMessage) {
+        ErrorWebSocketMessage message = null;
+        if (errorOverallWebSocketMessage != null) {
+            message = errorOverallWebSocketMessage.getErrorWebSocketMessage();
+        }
 
         if(message != null) {
             if ("no_such_session".equals(message.getCode())) {
                 Log.d(TAG, "WebSocket " + webSocket.hashCode() + " resumeID " + resumeId + " expired");
                 resumeId = "";
                 currentRoomToken = "";
-                restartWebSocket();
+                reconnectScheduler.scheduleReconnect();
             } else if ("hello_expected".equals(message.getCode())) {
-                restartWebSocket();
+                reconnectScheduler.scheduleReconnect();
             }
         }
     }
 
-    private void processHelloMessage(WebSocket webSocket, String text) throws IOException {
+    private void processHelloMessage(WebSocket webSocket,
+                                     @Nullable HelloResponseOverallWebSocketMessage helloResponseWebSocketMessage) {
         connected = true;
         reconnecting = false;
+        reconnectScheduler.onConnected();
         String oldResumeId = resumeId;
-        HelloResponseOverallWebSocketMessage helloResponseWebSocketMessage =
-            LoganSquare.parse(text, HelloResponseOverallWebSocketMessage.class);
-        if (helloResponseWebSocketMessage.getHelloResponseWebSocketMessage() != null) {
+        if (helloResponseWebSocketMessage != null &&
+            helloResponseWebSocketMessage.getHelloResponseWebSocketMessage() != null) {
             resumeId = helloResponseWebSocketMessage.getHelloResponseWebSocketMessage().getResumeId();
             sessionId = helloResponseWebSocketMessage.getHelloResponseWebSocketMessage().getSessionId();
             hasMCU = helloResponseWebSocketMessage.getHelloResponseWebSocketMessage().serverHasMCUSupport();
@@ -441,6 +462,20 @@ public class MagicWebSocketInstance extends WebSocketListener {
         return connected;
     }
 
+    /**
+     * Closes the connection for good: no reconnection is scheduled anymore and network changes are no longer
+     * observed. To be called when the instance is removed.
+     */
+    void dispose() {
+        disposed = true;
+        reconnectScheduler.cancel();
+        eventBus.unregister(this);
+        if (internalWebSocket != null) {
+            internalWebSocket.close(1000, null);
+        }
+        connected = false;
+    }
+
     public String getDisplayNameForSession(String session) {
         Participant participant = usersHashMap.get(session);
         if (participant != null) {
@@ -454,9 +489,18 @@ public class MagicWebSocketInstance extends WebSocketListener {
 
     @Subscribe(threadMode = ThreadMode.BACKGROUND)
     public void onMessageEvent(NetworkEvent networkEvent) {
-        if (networkEvent.getNetworkConnectionEvent() == NetworkEvent.NetworkConnectionEvent.NETWORK_CONNECTED &&
-            !isConnected()) {
-            restartWebSocket();
+        if (disposed) {
+            return;
+        }
+
+        if (networkEvent.getNetworkConnectionEvent() == NetworkEvent.NetworkConnectionEvent.NETWORK_CONNECTED) {
+            if (!isConnected()) {
+                reconnectScheduler.scheduleReconnect();
+            }
+            reconnectScheduler.onNetworkAvailable();
+        } else if (networkEvent.getNetworkConnectionEvent() ==
+            NetworkEvent.NetworkConnectionEvent.NETWORK_DISCONNECTED) {
+            reconnectScheduler.onNetworkLost();
         }
     }
 
@@ -0,0 +1,210 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Session description (SDP) split into its session level lines and its media sections.
+ *
+ * The description is parsed just once, so several changes can be applied to it before serializing it again with
+ * {@link #toString()}. Only the lines that need to be modified are interpreted, the rest are kept as they are.
+ */
+public class ParsedSessionDescription {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final List<String> sessionLines = new ArrayList<>();
+    private final List<MediaSection> mediaSections = new ArrayList<>();
+
+    private ParsedSessionDescription() {
+    }
+
+    public static ParsedSessionDescription parse(String sessionDescription) {
+        ParsedSessionDescription parsedSessionDescription = new ParsedSessionDescription();
+
+        MediaSection currentMediaSection = null;
+        for (String line : sessionDescription.split("\r?\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            if (line.startsWith("m=")) {
+                currentMediaSection = new MediaSection(line);
+                parsedSessionDescription.mediaSections.add(currentMediaSection);
+            } else if (currentMediaSection != null) {
+                currentMediaSection.lines.add(line);
+            } else {
+                parsedSessionDescription.sessionLines.add(line);
+            }
+        }
+
+        return parsedSessionDescription;
+    }
+
+    public List<MediaSection> getMediaSections() {
+        return Collections.unmodifiableList(mediaSections);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (String line : sessionLines) {
+            builder.append(line).append(LINE_SEPARATOR);
+        }
+        for (MediaSection mediaSection : mediaSections) {
+            for (String line : mediaSection.lines) {
+                builder.append(line).append(LINE_SEPARATOR);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * A media section, from its "m=" line to the next one.
+     */
+    public static class MediaSection {
+
+        private static final String RTPMAP_PREFIX = "a=rtpmap:";
+        private static final String BANDWIDTH_PREFIX = "b=AS:";
+
+        // The format of the media description line is: m=<media> <port> <proto> <fmt> ...
+        private static final int MEDIA_DESCRIPTION_HEADER_FIELDS = 3;
+
+        // The first line is always the "m=" line
+        private final List<String> lines = new ArrayList<>();
+        private final String media;
+
+        private MediaSection(String mediaDescriptionLine) {
+            lines.add(mediaDescriptionLine);
+
+            int mediaEnd = mediaDescriptionLine.indexOf(' ');
+            media = mediaEnd > 0 ? mediaDescriptionLine.substring(2, mediaEnd) : mediaDescriptionLine.substring(2);
+        }
+
+        /**
+         * Returns the media type, like "audio", "video" or "application".
+         */
+        public String getMedia() {
+            return media;
+        }
+
+        /**
+         * Returns the payload types in the media description line, in order of preference.
+         */
+        public List<String> getPayloadTypes() {
+            String[] fields = lines.get(0).split(" ");
+            List<String> payloadTypes = new ArrayList<>();
+            for (int i = MEDIA_DESCRIPTION_HEADER_FIELDS; i < fields.length; i++) {
+                payloadTypes.add(fields[i]);
+            }
+
+            return payloadTypes;
+        }
+
+        /**
+         * Returns the payload types mapped to the given codec, like "H264" or "VP8".
+         */
+        public List<String> getPayloadTypesForCodec(String codec) {
+            List<String> payloadTypes = new ArrayList<>();
+
+            // a=rtpmap:<payload type> <encoding name>/<clock rate> [/<encoding parameters>]
+            for (String line : lines) {
+                if (!line.startsWith(RTPMAP_PREFIX)) {
+                    continue;
+                }
+
+                int payloadTypeEnd = line.indexOf(' ', RTPMAP_PREFIX.length());
+                int encodingNameEnd = line.indexOf('/', payloadTypeEnd);
+                if (payloadTypeEnd < 0 || encodingNameEnd < 0) {
+                    continue;
+                }
+
+                if (codec.equalsIgnoreCase(line.substring(payloadTypeEnd + 1, encodingNameEnd))) {
+                    payloadTypes.add(line.substring(RTPMAP_PREFIX.length(), payloadTypeEnd));
+                }
+            }
+
+            return payloadTypes;
+        }
+
+        /**
+         * Moves the given payload types to the front of the media description line, keeping the given order.
+         *
+         * Payload types that are not in the media description line are ignored.
+         */
+        public void preferPayloadTypes(List<String> preferredPayloadTypes) {
+            String[] fields = lines.get(0).split(" ");
+            if (fields.length <= MEDIA_DESCRIPTION_HEADER_FIELDS) {
+                return;
+            }
+
+            List<String> payloadTypes = getPayloadTypes();
+
+            StringBuilder mediaDescriptionLine = new StringBuilder();
+            for (int i = 0; i < MEDIA_DESCRIPTION_HEADER_FIELDS; i++) {
+                mediaDescriptionLine.append(fields[i]).append(' ');
+            }
+            for (String payloadType : preferredPayloadTypes) {
+                if (payloadTypes.remove(payloadType)) {
+                    mediaDescriptionLine.append(payloadType).append(' ');
+                }
+            }
+            for (String payloadType : payloadTypes) {
+                mediaDescriptionLine.append(payloadType).append(' ');
+            }
+            mediaDescriptionLine.setLength(mediaDescriptionLine.length() - 1);
+
+            lines.set(0, mediaDescriptionLine.toString());
+        }
+
+        /**
+         * Sets the maximum bandwidth of the media section, replacing the previous one, if any.
+         *
+         * @param bandwidthKbps the maximum bandwidth, in kilobits per second
+         */
+        public void setBandwidthKbps(int bandwidthKbps) {
+            String bandwidthLine = String.format(Locale.ROOT, "%s%d", BANDWIDTH_PREFIX, bandwidthKbps);
+
+            for (int i = 1; i < lines.size(); i++) {
+                if (lines.get(i).startsWith(BANDWIDTH_PREFIX)) {
+                    lines.set(i, bandwidthLine);
+
+                    return;
+                }
+            }
+
+            // Bandwidth lines go after the "m=", "i=" and "c=" lines
+            int index = 1;
+            while (index < lines.size() && (lines.get(index).startsWith("i=") || lines.get(index).startsWith("c="))) {
+                index++;
+            }
+
+            lines.add(index, bandwidthLine);
+        }
+    }
+}
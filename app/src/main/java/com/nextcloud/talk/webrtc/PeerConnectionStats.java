@@ -0,0 +1,285 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import org.webrtc.RTCStats;
+
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Quality metrics of a peer connection, computed from two consecutive stats reports.
+ *
+ * Rates (bitrates and packet loss) are computed over the time between both reports; the rest of the values are the
+ * latest ones. Values that are not known (for example, the round trip time before the connection is established) are
+ * -1.
+ */
+public class PeerConnectionStats {
+
+    public static final int UNKNOWN = -1;
+
+    private static final double MICROSECONDS_PER_SECOND = 1_000_000.0;
+    private static final int MILLISECONDS_PER_SECOND = 1000;
+    private static final int BITS_PER_BYTE = 8;
+    private static final int BITS_PER_KILOBIT = 1000;
+    private static final int PERCENT = 100;
+
+    private final long sendBitrateKbps;
+    private final long receiveBitrateKbps;
+    private final long roundTripTimeMs;
+    private final long availableOutgoingBitrateKbps;
+    private final long jitterMs;
+    private final double packetLossPercent;
+    private final long framesDecoded;
+    private final long framesDropped;
+    @Nullable
+    private final String videoCodec;
+
+    PeerConnectionStats(long sendBitrateKbps,
+                        long receiveBitrateKbps,
+                        long roundTripTimeMs,
+                        long availableOutgoingBitrateKbps,
+                        long jitterMs,
+                        double packetLossPercent,
+                        long framesDecoded,
+                        long framesDropped,
+                        @Nullable String videoCodec) {
+        this.sendBitrateKbps = sendBitrateKbps;
+        this.receiveBitrateKbps = receiveBitrateKbps;
+        this.roundTripTimeMs = roundTripTimeMs;
+        this.availableOutgoingBitrateKbps = availableOutgoingBitrateKbps;
+        this.jitterMs = jitterMs;
+        this.packetLossPercent = packetLossPercent;
+        this.framesDecoded = framesDecoded;
+        this.framesDropped = framesDropped;
+        this.videoCodec = videoCodec;
+    }
+
+    public long getSendBitrateKbps() {
+        return sendBitrateKbps;
+    }
+
+    public long getReceiveBitrateKbps() {
+        return receiveBitrateKbps;
+    }
+
+    public long getRoundTripTimeMs() {
+        return roundTripTimeMs;
+    }
+
+    /**
+     * @return the outgoing bitrate estimated by the congestion control for the nominated candidate pair, or
+     * {@link #UNKNOWN}
+     */
+    public long getAvailableOutgoingBitrateKbps() {
+        return availableOutgoingBitrateKbps;
+    }
+
+    public long getJitterMs() {
+        return jitterMs;
+    }
+
+    public double getPacketLossPercent() {
+        return packetLossPercent;
+    }
+
+    public long getFramesDecoded() {
+        return framesDecoded;
+    }
+
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    @Nullable
+    public String getVideoCodec() {
+        return videoCodec;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                             "send %d kbps (available %d kbps), receive %d kbps, rtt %d ms, jitter %d ms, " +
+                                 "loss %.1f%%, frames %d decoded %d dropped, codec %s",
+                             sendBitrateKbps,
+                             availableOutgoingBitrateKbps,
+                             receiveBitrateKbps,
+                             roundTripTimeMs,
+                             jitterMs,
+                             packetLossPercent,
+                             framesDecoded,
+                             framesDropped,
+                             videoCodec);
+    }
+
+    /**
+     * Computes the metrics from the stats of a report and, if any, the stats of the previous report of the same peer
+     * connection.
+     *
+     * Without a previous report the rates can not be computed and are 0.
+     *
+     * @param previous the stats of the previous report, by stats ID, or null
+     * @param current the stats of the current report, by stats ID
+     */
+    public static PeerConnectionStats compute(@Nullable Map<String, RTCStats> previous,
+                                              @NonNull Map<String, RTCStats> current) {
+        double sendBitsPerSecond = 0;
+        double receiveBitsPerSecond = 0;
+        long packetsLostDelta = 0;
+        long packetsReceivedDelta = 0;
+        long roundTripTimeMs = UNKNOWN;
+        long availableOutgoingBitrateKbps = UNKNOWN;
+        long jitterMs = UNKNOWN;
+        long framesDecoded = 0;
+        long framesDropped = 0;
+        String videoCodecId = null;
+
+        for (RTCStats stats : current.values()) {
+            RTCStats previousStats = previous != null ? previous.get(stats.getId()) : null;
+
+            switch (stats.getType()) {
+                case "outbound-rtp":
+                    sendBitsPerSecond += getBitsPerSecond(previousStats, stats, "bytesSent");
+                    if (videoCodecId == null && isVideo(stats)) {
+                        videoCodecId = getString(stats, "codecId");
+                    }
+                    break;
+                case "inbound-rtp":
+                    receiveBitsPerSecond += getBitsPerSecond(previousStats, stats, "bytesReceived");
+                    packetsLostDelta += getDelta(previousStats, stats, "packetsLost");
+                    packetsReceivedDelta += getDelta(previousStats, stats, "packetsReceived");
+
+                    Double jitter = getDouble(stats, "jitter");
+                    if (jitter != null) {
+                        jitterMs = Math.max(jitterMs, Math.round(jitter * MILLISECONDS_PER_SECOND));
+                    }
+
+                    if (isVideo(stats)) {
+                        framesDecoded += getLong(stats, "framesDecoded");
+                        framesDropped += getLong(stats, "framesDropped");
+                        if (videoCodecId == null) {
+                            videoCodecId = getString(stats, "codecId");
+                        }
+                    }
+                    break;
+                case "candidate-pair":
+                    if (!Boolean.TRUE.equals(stats.getMembers().get("nominated"))) {
+                        break;
+                    }
+
+                    Double currentRoundTripTime = getDouble(stats, "currentRoundTripTime");
+                    if (currentRoundTripTime != null) {
+                        roundTripTimeMs = Math.round(currentRoundTripTime * MILLISECONDS_PER_SECOND);
+                    }
+
+                    Double availableOutgoingBitrate = getDouble(stats, "availableOutgoingBitrate");
+                    if (availableOutgoingBitrate != null) {
+                        availableOutgoingBitrateKbps = Math.round(availableOutgoingBitrate / BITS_PER_KILOBIT);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        double packetLossPercent = 0;
+        long packetsDelta = packetsLostDelta + packetsReceivedDelta;
+        if (packetsDelta > 0 && packetsLostDelta > 0) {
+            packetLossPercent = (double) packetsLostDelta * PERCENT / packetsDelta;
+        }
+
+        return new PeerConnectionStats(Math.round(sendBitsPerSecond / BITS_PER_KILOBIT),
+                                       Math.round(receiveBitsPerSecond / BITS_PER_KILOBIT),
+                                       roundTripTimeMs,
+                                       availableOutgoingBitrateKbps,
+                                       jitterMs,
+                                       packetLossPercent,
+                                       framesDecoded,
+                                       framesDropped,
+                                       getCodecName(current, videoCodecId));
+    }
+
+    private static boolean isVideo(RTCStats stats) {
+        Object kind = stats.getMembers().get("kind");
+        if (kind == null) {
+            kind = stats.getMembers().get("mediaType");
+        }
+
+        return "video".equals(kind);
+    }
+
+    private static double getBitsPerSecond(@Nullable RTCStats previousStats, RTCStats stats, String bytesMember) {
+        if (previousStats == null || stats.getTimestampUs() <= previousStats.getTimestampUs()) {
+            return 0;
+        }
+
+        double seconds = (stats.getTimestampUs() - previousStats.getTimestampUs()) / MICROSECONDS_PER_SECOND;
+
+        return getDelta(previousStats, stats, bytesMember) * BITS_PER_BYTE / seconds;
+    }
+
+    private static long getDelta(@Nullable RTCStats previousStats, RTCStats stats, String member) {
+        if (previousStats == null) {
+            return 0;
+        }
+
+        // Counters are reset if the stream is recreated
+        return Math.max(0, getLong(stats, member) - getLong(previousStats, member));
+    }
+
+    private static long getLong(RTCStats stats, String member) {
+        Object value = stats.getMembers().get(member);
+
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    @Nullable
+    private static Double getDouble(RTCStats stats, String member) {
+        Object value = stats.getMembers().get(member);
+
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+
+    @Nullable
+    private static String getString(RTCStats stats, String member) {
+        Object value = stats.getMembers().get(member);
+
+        return value instanceof String ? (String) value : null;
+    }
+
+    @Nullable
+    private static String getCodecName(Map<String, RTCStats> current, @Nullable String codecId) {
+        if (codecId == null || current.get(codecId) == null) {
+            return null;
+        }
+
+        String mimeType = getString(current.get(codecId), "mimeType");
+        if (mimeType == null) {
+            return null;
+        }
+
+        // "video/VP8" -> "VP8"
+        return mimeType.substring(mimeType.indexOf('/') + 1);
+    }
+}
@@ -54,7 +54,6 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 import javax.inject.Inject;
@@ -108,6 +107,10 @@ public class PeerConnectionWrapper {
 
     private final PeerConnectionNotifier peerConnectionNotifier = new PeerConnectionNotifier();
 
+    private final DataChannelMessageCodec dataChannelMessageCodec = new DataChannelMessageCodec();
+
+    private volatile byte[] nickChangedMessage;
+
     private List<IceCandidate> iceCandidates = new ArrayList<>();
     private PeerConnection peerConnection;
     private String sessionId;
@@ -259,14 +262,50 @@ public class PeerConnectionWrapper {
     }
 
     public void sendChannelData(DataChannelMessage dataChannelMessage) {
-        ByteBuffer buffer;
+        try {
+            sendChannelData(LoganSquare.serialize(dataChannelMessage).getBytes());
+        } catch (IOException e) {
+            Log.d(TAG, "Failed to send channel data, attempting regular " + dataChannelMessage);
+        }
+    }
+
+    /**
+     * Sends an already encoded message, like the constants in DataChannelMessageCodec.
+     */
+    void sendChannelData(byte[] encodedDataChannelMessage) {
         if (dataChannel != null) {
-            try {
-                buffer = ByteBuffer.wrap(LoganSquare.serialize(dataChannelMessage).getBytes());
-                dataChannel.send(new DataChannel.Buffer(buffer, false));
-            } catch (IOException e) {
-                Log.d(TAG, "Failed to send channel data, attempting regular " + dataChannelMessage);
-            }
+            dataChannel.send(new DataChannel.Buffer(ByteBuffer.wrap(encodedDataChannelMessage), false));
+        }
+    }
+
+    public void sendAudioOn(boolean audioOn) {
+        sendChannelData(audioOn ? DataChannelMessageCodec.AUDIO_ON : DataChannelMessageCodec.AUDIO_OFF);
+    }
+
+    public void sendVideoOn(boolean videoOn) {
+        sendChannelData(videoOn ? DataChannelMessageCodec.VIDEO_ON : DataChannelMessageCodec.VIDEO_OFF);
+    }
+
+    /**
+     * Sends the nick of the local participant.
+     *
+     * The nick is also remembered and automatically sent again once the data channel is open, so this can be called
+     * before the connection is established.
+     *
+     * @param userId the user ID of the local participant, or null for guests
+     * @param nick the nick of the local participant
+     */
+    public void sendNick(@Nullable String userId, String nick) {
+        try {
+            nickChangedMessage = DataChannelMessageCodec.encodeNickChanged(userId, nick);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to encode nick", e);
+
+            return;
+        }
+
+        if (dataChannel != null && dataChannel.state() == DataChannel.State.OPEN) {
+            sendChannelData(nickChangedMessage);
         }
     }
 
@@ -280,17 +319,13 @@ public class PeerConnectionWrapper {
 
     private void sendInitialMediaStatus() {
         if (localStream != null) {
-            if (localStream.videoTracks.size() == 1 && localStream.videoTracks.get(0).enabled()) {
-                sendChannelData(new DataChannelMessage("videoOn"));
-            } else {
-                sendChannelData(new DataChannelMessage("videoOff"));
-            }
+            sendVideoOn(localStream.videoTracks.size() == 1 && localStream.videoTracks.get(0).enabled());
+            sendAudioOn(localStream.audioTracks.size() == 1 && localStream.audioTracks.get(0).enabled());
+        }
 
-            if (localStream.audioTracks.size() == 1 && localStream.audioTracks.get(0).enabled()) {
-                sendChannelData(new DataChannelMessage("audioOn"));
-            } else {
-                sendChannelData(new DataChannelMessage("audioOff"));
-            }
+        byte[] nickChangedMessage = this.nickChangedMessage;
+        if (nickChangedMessage != null) {
+            sendChannelData(nickChangedMessage);
         }
     }
 
@@ -329,8 +364,7 @@ public class PeerConnectionWrapper {
         private void onOfferOrAnswer(String type, String sdp) {
             SessionDescription sessionDescriptionWithPreferredCodec;
 
-            boolean isAudio = false;
-            String sessionDescriptionStringWithPreferredCodec = MagicWebRTCUtils.preferCodec(sdp, "H264", isAudio);
+            String sessionDescriptionStringWithPreferredCodec = CodecSelectionPolicy.getDefault().apply(sdp);
 
             sessionDescriptionWithPreferredCodec = new SessionDescription(
                 SessionDescription.Type.fromCanonicalForm(type),
@@ -374,59 +408,8 @@ public class PeerConnectionWrapper {
                 return;
             }
 
-            ByteBuffer data = buffer.data;
-            final byte[] bytes = new byte[data.capacity()];
-            data.get(bytes);
-            String strData = new String(bytes);
-            Log.d(TAG, "Got msg: " + strData + " over " + TAG + " " + sessionId);
-
-            DataChannelMessage dataChannelMessage;
-            try {
-                dataChannelMessage = LoganSquare.parse(strData, DataChannelMessage.class);
-            } catch (IOException e) {
-                Log.d(TAG, "Failed to parse data channel message");
-
-                return;
-            }
-
-            if ("nickChanged".equals(dataChannelMessage.getType())) {
-                String nick = null;
-                if (dataChannelMessage.getPayload() instanceof String) {
-                    nick = (String) dataChannelMessage.getPayload();
-                } else if (dataChannelMessage.getPayload() instanceof Map) {
-                    Map<String, String> payloadMap = (Map<String, String>) dataChannelMessage.getPayload();
-                    nick = payloadMap.get("name");
-                }
-
-                if (nick != null) {
-                    dataChannelMessageNotifier.notifyNickChanged(nick);
-                }
-
-                return;
-            }
-
-            if ("audioOn".equals(dataChannelMessage.getType())) {
-                dataChannelMessageNotifier.notifyAudioOn();
-
-                return;
-            }
-
-            if ("audioOff".equals(dataChannelMessage.getType())) {
-                dataChannelMessageNotifier.notifyAudioOff();
-
-                return;
-            }
-
-            if ("videoOn".equals(dataChannelMessage.getType())) {
-                dataChannelMessageNotifier.notifyVideoOn();
-
-                return;
-            }
-
-            if ("videoOff".equals(dataChannelMessage.getType())) {
-                dataChannelMessageNotifier.notifyVideoOff();
-
-                return;
+            if (!dataChannelMessageCodec.decode(buffer.data, dataChannelMessageNotifier)) {
+                Log.d(TAG, "Failed to decode data channel message over " + sessionId);
             }
         }
     }
@@ -533,9 +516,8 @@ public class PeerConnectionWrapper {
             ncMessagePayload.setType(type);
 
             SessionDescription sessionDescriptionWithPreferredCodec;
-            String sessionDescriptionStringWithPreferredCodec = MagicWebRTCUtils.preferCodec
-                    (sessionDescription.description,
-                            "H264", false);
+            String sessionDescriptionStringWithPreferredCodec =
+                CodecSelectionPolicy.getDefault().apply(sessionDescription.description);
             sessionDescriptionWithPreferredCodec = new SessionDescription(
                     sessionDescription.type,
                     sessionDescriptionStringWithPreferredCodec);
@@ -0,0 +1,129 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc
+
+import io.reactivex.Scheduler
+import io.reactivex.disposables.Disposable
+import java.util.Random
+import java.util.concurrent.TimeUnit
+
+/**
+ * Decides when to reconnect to the external signaling server after the connection was lost.
+ *
+ * Consecutive attempts are delayed with a capped exponential backoff. Half of each delay is randomized, so clients
+ * that lost their connection at the same time (for example, because the server was restarted) do not all reconnect
+ * at the same instant. While there is no network no attempt is made, and once the network is back the reconnection
+ * happens immediately.
+ *
+ * Thread safe, [reconnect] is called on the given [scheduler].
+ */
+class ReconnectScheduler(
+    private val scheduler: Scheduler,
+    private val random: Random,
+    private val reconnect: () -> Unit
+) {
+    private var attempts = 0
+    private var reconnectPending = false
+    private var networkAvailable = true
+    private var timer: Disposable? = null
+
+    /**
+     * Schedules a reconnection, unless one is already pending.
+     */
+    @Synchronized
+    fun scheduleReconnect() {
+        if (reconnectPending) {
+            return
+        }
+
+        reconnectPending = true
+        if (networkAvailable) {
+            scheduleTimer(getDelay(attempts))
+            attempts++
+        }
+    }
+
+    /**
+     * Resets the backoff once the connection was established again.
+     */
+    @Synchronized
+    fun onConnected() {
+        attempts = 0
+        cancel()
+    }
+
+    /**
+     * Cancels a pending reconnection.
+     */
+    @Synchronized
+    fun cancel() {
+        reconnectPending = false
+        timer?.dispose()
+        timer = null
+    }
+
+    @Synchronized
+    fun onNetworkAvailable() {
+        networkAvailable = true
+        attempts = 0
+        if (reconnectPending) {
+            scheduleTimer(0)
+        }
+    }
+
+    @Synchronized
+    fun onNetworkLost() {
+        networkAvailable = false
+        timer?.dispose()
+        timer = null
+    }
+
+    internal fun getDelay(attempt: Int): Long {
+        val backoff = if (attempt >= MAX_BACKOFF_SHIFT) {
+            MAX_DELAY_MILLIS
+        } else {
+            (INITIAL_DELAY_MILLIS shl attempt).coerceAtMost(MAX_DELAY_MILLIS)
+        }
+        val half = backoff / 2
+        return half + (random.nextDouble() * half).toLong()
+    }
+
+    private fun scheduleTimer(delay: Long) {
+        timer?.dispose()
+        timer = scheduler.scheduleDirect({ onTimer() }, delay, TimeUnit.MILLISECONDS)
+    }
+
+    private fun onTimer() {
+        synchronized(this) {
+            if (!reconnectPending || !networkAvailable) {
+                return
+            }
+            reconnectPending = false
+            timer = null
+        }
+        reconnect()
+    }
+
+    companion object {
+        private const val INITIAL_DELAY_MILLIS = 1000L
+        private const val MAX_DELAY_MILLIS = 60000L
+        private const val MAX_BACKOFF_SHIFT = 6
+    }
+}
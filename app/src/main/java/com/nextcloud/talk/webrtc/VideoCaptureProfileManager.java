@@ -0,0 +1,330 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.util.Log;
+
+import org.webrtc.VideoCapturer;
+
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Picks the resolution and framerate used to capture the local video.
+ *
+ * Capturing and encoding 720p at 30 fps is wasted in calls with several participants, as the remote participants
+ * only see a small tile of it, and it makes phones overheat and drain their battery. The profile is chosen from the
+ * number of participants in the call and then lowered further when the device is in power save mode, the battery is
+ * low, the device is getting hot or the uplink is slow. Those device conditions are observed while capturing, and
+ * the capture format is changed on the fly whenever the selected profile changes.
+ *
+ * The uplink is measured from the stats of the connections sending the video, see
+ * {@link #setMeasuredUplinkKbps(long)}. Until the first measurement the bandwidth the system estimates for the type of
+ * the active network is used as a hint.
+ */
+public class VideoCaptureProfileManager {
+
+    private static final String TAG = VideoCaptureProfileManager.class.getSimpleName();
+
+    private static final int LOW_BATTERY_PERCENTAGE = 15;
+
+    private static final int SLOW_UPLINK_KBPS = 2500;
+    private static final int VERY_SLOW_UPLINK_KBPS = 1000;
+    private static final int MINIMAL_UPLINK_KBPS = 300;
+
+    public enum Profile {
+        HIGH(1280, 720, 30),
+        MEDIUM(960, 540, 24),
+        LOW(640, 360, 20),
+        MINIMAL(320, 240, 15);
+
+        public final int width;
+        public final int height;
+        public final int framerate;
+
+        Profile(int width, int height, int framerate) {
+            this.width = width;
+            this.height = height;
+            this.framerate = framerate;
+        }
+
+        private Profile atMost(Profile profile) {
+            return values()[Math.max(ordinal(), profile.ordinal())];
+        }
+
+        private Profile lower() {
+            return values()[Math.min(ordinal() + 1, values().length - 1)];
+        }
+    }
+
+    /**
+     * How hot the device is, simplified from the thermal status reported by the system.
+     */
+    public enum ThermalState {
+        NORMAL,
+        WARM,
+        HOT
+    }
+
+    private final Context context;
+    private final PowerManager powerManager;
+    private final ConnectivityManager connectivityManager;
+
+    private VideoCapturer videoCapturer;
+    private boolean capturing;
+    private Profile currentProfile;
+
+    private int participantCount = 1;
+    private boolean powerSaveMode;
+    private boolean batteryLow;
+    private ThermalState thermalState = ThermalState.NORMAL;
+    private int uplinkKbps;
+    private boolean uplinkMeasured;
+
+    private final BroadcastReceiver powerStateReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            updatePowerState(intent);
+        }
+    };
+
+    private PowerManager.OnThermalStatusChangedListener thermalStatusListener;
+
+    public VideoCaptureProfileManager(Context context) {
+        this.context = context.getApplicationContext();
+        this.powerManager = (PowerManager) this.context.getSystemService(Context.POWER_SERVICE);
+        this.connectivityManager =
+            (ConnectivityManager) this.context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * Starts capturing with the given capturer using the profile for the current conditions.
+     */
+    public synchronized void startCapture(VideoCapturer videoCapturer) {
+        if (videoCapturer == null) {
+            return;
+        }
+
+        this.videoCapturer = videoCapturer;
+
+        if (!capturing) {
+            registerObservers();
+        }
+
+        capturing = true;
+        currentProfile = selectProfile(participantCount, powerSaveMode || batteryLow, thermalState, uplinkKbps);
+        videoCapturer.startCapture(currentProfile.width, currentProfile.height, currentProfile.framerate);
+
+        Log.d(TAG, "Started capture with profile " + currentProfile);
+    }
+
+    /**
+     * Stops capturing, if the capturer was capturing, and stops observing the device conditions.
+     */
+    public synchronized void stopCapture() {
+        if (!capturing) {
+            return;
+        }
+
+        capturing = false;
+        currentProfile = null;
+        unregisterObservers();
+
+        try {
+            videoCapturer.stopCapture();
+        } catch (InterruptedException e) {
+            Log.d(TAG, "Failed to stop capturing video");
+        }
+    }
+
+    public synchronized boolean isCapturing() {
+        return capturing;
+    }
+
+    /**
+     * Sets the uplink measured while sending the video.
+     *
+     * Consecutive measurements are averaged, so a single outlier does not change the capture format.
+     *
+     * @param uplinkKbps the outgoing bitrate available to the video connections
+     */
+    public synchronized void setMeasuredUplinkKbps(long uplinkKbps) {
+        if (!capturing || uplinkKbps <= 0) {
+            return;
+        }
+
+        int measuredKbps = (int) Math.min(uplinkKbps, Integer.MAX_VALUE);
+        this.uplinkKbps = uplinkMeasured ? (this.uplinkKbps + measuredKbps) / 2 : measuredKbps;
+        uplinkMeasured = true;
+        updateProfile();
+    }
+
+    /**
+     * Sets the number of participants currently shown in the call, including the local one.
+     */
+    public synchronized void setParticipantCount(int participantCount) {
+        this.participantCount = participantCount;
+        updateProfile();
+    }
+
+    private void updateProfile() {
+        if (!capturing) {
+            return;
+        }
+
+        Profile profile = selectProfile(participantCount, powerSaveMode || batteryLow, thermalState, uplinkKbps);
+        if (profile == currentProfile) {
+            return;
+        }
+
+        Log.d(TAG, "Changing capture profile from " + currentProfile + " to " + profile);
+
+        currentProfile = profile;
+        videoCapturer.changeCaptureFormat(profile.width, profile.height, profile.framerate);
+    }
+
+    /**
+     * Returns the profile to capture with under the given conditions.
+     *
+     * @param participantCount the number of participants in the call, including the local one
+     * @param lowPower whether the device is in power save mode or its battery is low and not charging
+     * @param thermalState how hot the device is
+     * @param uplinkKbps the estimated upstream bandwidth, or 0 if unknown
+     */
+    @VisibleForTesting
+    static Profile selectProfile(int participantCount, boolean lowPower, ThermalState thermalState, int uplinkKbps) {
+        Profile profile;
+        if (participantCount <= 2) {
+            profile = Profile.HIGH;
+        } else if (participantCount <= 4) {
+            profile = Profile.MEDIUM;
+        } else if (participantCount <= 8) {
+            profile = Profile.LOW;
+        } else {
+            profile = Profile.MINIMAL;
+        }
+
+        if (lowPower) {
+            profile = profile.atMost(Profile.LOW);
+        }
+
+        if (thermalState == ThermalState.HOT) {
+            profile = Profile.MINIMAL;
+        } else if (thermalState == ThermalState.WARM) {
+            profile = profile.lower();
+        }
+
+        if (uplinkKbps > 0) {
+            if (uplinkKbps < MINIMAL_UPLINK_KBPS) {
+                profile = Profile.MINIMAL;
+            } else if (uplinkKbps < VERY_SLOW_UPLINK_KBPS) {
+                profile = profile.atMost(Profile.LOW);
+            } else if (uplinkKbps < SLOW_UPLINK_KBPS) {
+                profile = profile.atMost(Profile.MEDIUM);
+            }
+        }
+
+        return profile;
+    }
+
+    private void registerObservers() {
+        IntentFilter powerStateFilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+        powerStateFilter.addAction(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED);
+        // ACTION_BATTERY_CHANGED is sticky, so the current battery state is returned (and processed) right away.
+        updatePowerState(context.registerReceiver(powerStateReceiver, powerStateFilter));
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            registerThermalStatusListener();
+        }
+
+        // Only a hint based on the network type, replaced by the first measurement
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(
+            connectivityManager.getActiveNetwork());
+        uplinkKbps = capabilities != null ? capabilities.getLinkUpstreamBandwidthKbps() : 0;
+        uplinkMeasured = false;
+    }
+
+    private void unregisterObservers() {
+        context.unregisterReceiver(powerStateReceiver);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            unregisterThermalStatusListener();
+        }
+
+        uplinkKbps = 0;
+        uplinkMeasured = false;
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    private void registerThermalStatusListener() {
+        thermalStatusListener = status -> {
+            synchronized (VideoCaptureProfileManager.this) {
+                thermalState = toThermalState(status);
+                updateProfile();
+            }
+        };
+        thermalState = toThermalState(powerManager.getCurrentThermalStatus());
+        powerManager.addThermalStatusListener(thermalStatusListener);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    private void unregisterThermalStatusListener() {
+        if (thermalStatusListener != null) {
+            powerManager.removeThermalStatusListener(thermalStatusListener);
+            thermalStatusListener = null;
+        }
+    }
+
+    private static ThermalState toThermalState(int thermalStatus) {
+        if (thermalStatus >= PowerManager.THERMAL_STATUS_SEVERE) {
+            return ThermalState.HOT;
+        } else if (thermalStatus >= PowerManager.THERMAL_STATUS_MODERATE) {
+            return ThermalState.WARM;
+        }
+
+        return ThermalState.NORMAL;
+    }
+
+    private synchronized void updatePowerState(Intent batteryIntent) {
+        powerSaveMode = powerManager.isPowerSaveMode();
+
+        // ACTION_POWER_SAVE_MODE_CHANGED does not carry the battery state, so the previous one is kept in that case.
+        if (batteryIntent != null && Intent.ACTION_BATTERY_CHANGED.equals(batteryIntent.getAction())) {
+            int level = batteryIntent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = batteryIntent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            int status = batteryIntent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+            boolean charging = status == BatteryManager.BATTERY_STATUS_CHARGING ||
+                status == BatteryManager.BATTERY_STATUS_FULL;
+
+            batteryLow = !charging && level >= 0 && scale > 0 && level * 100 / scale <= LOW_BATTERY_PERCENTAGE;
+        }
+
+        updateProfile();
+    }
+}
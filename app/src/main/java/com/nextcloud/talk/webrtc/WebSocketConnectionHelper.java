@@ -97,11 +97,11 @@ public class WebSocketConnectionHelper {
 
     public static synchronized void deleteExternalSignalingInstanceForUserEntity(long id) {
         MagicWebSocketInstance magicWebSocketInstance;
-        if ((magicWebSocketInstance = magicWebSocketInstanceMap.get(id)) != null) {
+        if ((magicWebSocketInstance = magicWebSocketInstanceMap.remove(id)) != null) {
             if (magicWebSocketInstance.isConnected()) {
                 magicWebSocketInstance.sendBye();
-                magicWebSocketInstanceMap.remove(id);
             }
+            magicWebSocketInstance.dispose();
         }
     }
 
@@ -0,0 +1,136 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import com.bluelinelabs.logansquare.JsonMapper;
+import com.bluelinelabs.logansquare.LoganSquare;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nextcloud.talk.models.json.websocket.CallOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.ErrorOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.EventOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.HelloResponseOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.JoinedRoomOverallWebSocketMessage;
+
+import java.io.IOException;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Parses the messages received from the external signaling server in a single pass.
+ * <p>
+ * The payload of a message is stored in the field named like its type (for example, "hello" for type "hello"), so
+ * the payload can be decoded into its model as soon as its field is reached, no matter if "type" was read already.
+ */
+final class WebSocketMessageParser {
+
+    private static final JsonMapper<HelloResponseOverallWebSocketMessage> HELLO_MAPPER =
+        LoganSquare.mapperFor(HelloResponseOverallWebSocketMessage.class);
+    private static final JsonMapper<ErrorOverallWebSocketMessage> ERROR_MAPPER =
+        LoganSquare.mapperFor(ErrorOverallWebSocketMessage.class);
+    private static final JsonMapper<JoinedRoomOverallWebSocketMessage> ROOM_MAPPER =
+        LoganSquare.mapperFor(JoinedRoomOverallWebSocketMessage.class);
+    private static final JsonMapper<EventOverallWebSocketMessage> EVENT_MAPPER =
+        LoganSquare.mapperFor(EventOverallWebSocketMessage.class);
+    private static final JsonMapper<CallOverallWebSocketMessage> MESSAGE_MAPPER =
+        LoganSquare.mapperFor(CallOverallWebSocketMessage.class);
+
+    private WebSocketMessageParser() {
+    }
+
+    static final class ParsedMessage {
+        @Nullable
+        final String type;
+
+        /**
+         * The "Overall" model of the message type, or null if the message has no payload or the type is not handled.
+         */
+        @Nullable
+        final Object message;
+
+        private ParsedMessage(@Nullable String type, @Nullable Object message) {
+            this.type = type;
+            this.message = message;
+        }
+    }
+
+    static ParsedMessage parse(String text) throws IOException {
+        try (JsonParser jsonParser = LoganSquare.JSON_FACTORY.createParser(text)) {
+            if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("WebSocket message is not a JSON object");
+            }
+
+            String type = null;
+            String messageFieldName = null;
+            Object message = null;
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jsonParser.getCurrentName();
+                jsonParser.nextToken();
+
+                Object payload = null;
+                switch (fieldName) {
+                    case "type":
+                        type = jsonParser.getValueAsString();
+                        break;
+                    case "hello":
+                        payload = parsePayload(HELLO_MAPPER, new HelloResponseOverallWebSocketMessage(), fieldName,
+                                               jsonParser);
+                        break;
+                    case "error":
+                        payload = parsePayload(ERROR_MAPPER, new ErrorOverallWebSocketMessage(), fieldName,
+                                               jsonParser);
+                        break;
+                    case "room":
+                        payload = parsePayload(ROOM_MAPPER, new JoinedRoomOverallWebSocketMessage(), fieldName,
+                                               jsonParser);
+                        break;
+                    case "event":
+                        payload = parsePayload(EVENT_MAPPER, new EventOverallWebSocketMessage(), fieldName,
+                                               jsonParser);
+                        break;
+                    case "message":
+                        payload = parsePayload(MESSAGE_MAPPER, new CallOverallWebSocketMessage(), fieldName,
+                                               jsonParser);
+                        break;
+                    default:
+                        break;
+                }
+                if (payload != null) {
+                    message = payload;
+                    messageFieldName = fieldName;
+                }
+
+                jsonParser.skipChildren();
+            }
+
+            if (type == null || !type.equals(messageFieldName)) {
+                // the payload (if any) does not belong to the type of the message
+                message = null;
+            }
+            return new ParsedMessage(type, message);
+        }
+    }
+
+    private static <T> T parsePayload(JsonMapper<T> mapper, T instance, String fieldName, JsonParser jsonParser)
+        throws IOException {
+        mapper.parseField(instance, fieldName, jsonParser);
+        return instance;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.chat
+
+import com.nextcloud.talk.models.json.chat.ChatMessage
+import io.reactivex.schedulers.TestScheduler
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+
+class MessageExpirationSchedulerTest {
+
+    private lateinit var testScheduler: TestScheduler
+    private lateinit var expiredMessages: MutableList<List<ChatMessage>>
+    private lateinit var expirationScheduler: MessageExpirationScheduler
+
+    @Before
+    fun setUp() {
+        testScheduler = TestScheduler()
+        testScheduler.advanceTimeTo(NOW_IN_SECONDS, TimeUnit.SECONDS)
+        expiredMessages = ArrayList()
+        expirationScheduler = MessageExpirationScheduler(testScheduler) { expiredMessages.add(it) }
+    }
+
+    @Test
+    fun testMessagesAreRemovedInOrderOfExpiration() {
+        expirationScheduler.schedule(
+            listOf(
+                message(1, NOW_IN_SECONDS + 30),
+                message(2, 0),
+                message(3, NOW_IN_SECONDS + 10)
+            )
+        )
+
+        testScheduler.advanceTimeBy(9, TimeUnit.SECONDS)
+        assertTrue(expiredMessages.isEmpty())
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS)
+        assertEquals(listOf(3), expiredMessages.flatten().map { it.jsonMessageId })
+
+        testScheduler.advanceTimeBy(20, TimeUnit.SECONDS)
+        assertEquals(listOf(3, 1), expiredMessages.flatten().map { it.jsonMessageId })
+    }
+
+    @Test
+    fun testMessagesWithTheSameDeadlineAreRemovedTogether() {
+        expirationScheduler.schedule(listOf(message(1, NOW_IN_SECONDS + 5), message(2, NOW_IN_SECONDS + 5)))
+
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+
+        assertEquals(1, expiredMessages.size)
+        assertEquals(setOf(1, 2), expiredMessages[0].map { it.jsonMessageId }.toSet())
+    }
+
+    @Test
+    fun testEarlierMessageScheduledLaterIsRemovedFirst() {
+        expirationScheduler.schedule(listOf(message(1, NOW_IN_SECONDS + 60)))
+        expirationScheduler.schedule(listOf(message(2, NOW_IN_SECONDS + 5)))
+
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+
+        assertEquals(listOf(2), expiredMessages.flatten().map { it.jsonMessageId })
+    }
+
+    @Test
+    fun testAlreadyExpiredMessageIsRemovedImmediately() {
+        expirationScheduler.schedule(listOf(message(1, NOW_IN_SECONDS - 1)))
+
+        testScheduler.triggerActions()
+
+        assertEquals(listOf(1), expiredMessages.flatten().map { it.jsonMessageId })
+    }
+
+    @Test
+    fun testMessageIsScheduledOnlyOnce() {
+        expirationScheduler.schedule(listOf(message(1, NOW_IN_SECONDS + 5)))
+        expirationScheduler.schedule(listOf(message(1, NOW_IN_SECONDS + 5)))
+
+        testScheduler.advanceTimeBy(5, TimeUnit.SECONDS)
+
+        assertEquals(listOf(1), expiredMessages.flatten().map { it.jsonMessageId })
+    }
+
+    @Test
+    fun testClearCancelsPendingExpirations() {
+        expirationScheduler.schedule(listOf(message(1, NOW_IN_SECONDS + 5)))
+
+        expirationScheduler.clear()
+        testScheduler.advanceTimeBy(10, TimeUnit.SECONDS)
+
+        assertTrue(expiredMessages.isEmpty())
+    }
+
+    private fun message(id: Int, expirationTimestamp: Long): ChatMessage {
+        return ChatMessage(jsonMessageId = id, expirationTimestamp = expirationTimestamp.toInt())
+    }
+
+    companion object {
+        private const val NOW_IN_SECONDS = 1_700_000_000L
+    }
+}
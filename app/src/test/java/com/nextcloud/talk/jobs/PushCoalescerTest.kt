@@ -0,0 +1,59 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.jobs
+
+import com.nextcloud.talk.jobs.PushCoalescer.Role
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class PushCoalescerTest {
+
+    @Test
+    fun testFirstPushIsShownAndLaterOnesAreMergedIntoOneBatch() {
+        val pushCoalescer = PushCoalescer(WINDOW_MILLIS)
+
+        assertEquals(Role.SHOW, pushCoalescer.offer("1@room", 1, 0))
+        assertEquals(Role.COLLECT, pushCoalescer.offer("1@room", 2, 100))
+        assertEquals(Role.SHOW, pushCoalescer.offer("1@otherRoom", 3, 200))
+        assertEquals(Role.MERGED, pushCoalescer.offer("1@room", 4, 300))
+
+        assertEquals(1900, pushCoalescer.remainingWindowMillis("1@room", 100))
+        assertEquals(listOf(2L, 4L), pushCoalescer.drain("1@room", 2000))
+    }
+
+    @Test
+    fun testDrainingOpensANewWindow() {
+        val pushCoalescer = PushCoalescer(WINDOW_MILLIS)
+
+        assertEquals(Role.SHOW, pushCoalescer.offer("1@room", 1, 0))
+        assertEquals(Role.COLLECT, pushCoalescer.offer("1@room", 2, 100))
+        assertEquals(listOf(2L), pushCoalescer.drain("1@room", 2000))
+
+        assertEquals(Role.COLLECT, pushCoalescer.offer("1@room", 3, 2500))
+        assertEquals(listOf(3L), pushCoalescer.drain("1@room", 4000))
+        assertEquals(emptyList<Long>(), pushCoalescer.drain("1@room", 4000))
+
+        assertEquals(Role.SHOW, pushCoalescer.offer("1@room", 4, 6000))
+    }
+
+    companion object {
+        private const val WINDOW_MILLIS = 2000L
+    }
+}
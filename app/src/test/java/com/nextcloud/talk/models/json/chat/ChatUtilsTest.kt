@@ -0,0 +1,90 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.models.json.chat
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class ChatUtilsTest {
+    @Test
+    fun testMessageWithoutParameters() {
+        assertEquals("Hello {world}", ChatUtils.getParsedMessage("Hello {world}", null))
+        assertNull(ChatUtils.getParsedMessage(null, null))
+    }
+
+    @Test
+    fun testSystemMessageWithSeveralParameters() {
+        val messageParameters = parameters(
+            "actor" to hashMapOf("type" to "user", "name" to "Alice"),
+            "user" to hashMapOf("type" to "guest", "name" to "Bob"),
+            "group" to hashMapOf("type" to "user-group", "name" to "Team"),
+            "file" to hashMapOf("type" to "file", "name" to "notes.md", "link" to "https://example.com/f/1")
+        )
+
+        assertEquals(
+            "@Alice added @Bob and Team, @Alice shared notes.md",
+            ChatUtils.getParsedMessage("{actor} added {user} and {group}, {actor} shared {file}", messageParameters)
+        )
+    }
+
+    @Test
+    fun testUnknownAndUnterminatedPlaceholdersAreKept() {
+        val messageParameters = parameters("actor" to hashMapOf("type" to "user", "name" to "Alice"))
+
+        assertEquals(
+            "{unknown} {@Alice} {actor",
+            ChatUtils.getParsedMessage("{unknown} {{actor}} {actor", messageParameters)
+        )
+    }
+
+    @Test
+    fun testReplacementsAreNotRenderedAgain() {
+        val messageParameters = parameters(
+            "actor" to hashMapOf("type" to "user", "name" to "{user}"),
+            "user" to hashMapOf("type" to "user", "name" to "Bob")
+        )
+
+        assertEquals("@{user} and @Bob", ChatUtils.getParsedMessage("{actor} and {user}", messageParameters))
+    }
+
+    @Test
+    fun testGeoLocationAndLinksReplaceTheWholeMessage() {
+        val geoLocation = parameters(
+            "object" to hashMapOf("type" to "geo-location", "name" to "Berlin", "id" to "geo:52.5,13.4")
+        )
+        assertEquals("Berlin", ChatUtils.getParsedMessage("{object}", geoLocation))
+
+        val deck = parameters(
+            "object" to hashMapOf("type" to "deck-card", "name" to "Card", "link" to "https://example.com/deck")
+        )
+        assertEquals("https://example.com/deck", ChatUtils.getParsedMessage("Shared {object}", deck))
+    }
+
+    private fun parameters(
+        vararg parameters: Pair<String, HashMap<String, String>>
+    ): HashMap<String?, HashMap<String?, String?>> {
+        val messageParameters = HashMap<String?, HashMap<String?, String?>>()
+        for ((key, value) in parameters) {
+            messageParameters[key] = HashMap<String?, String?>(value)
+        }
+        return messageParameters
+    }
+}
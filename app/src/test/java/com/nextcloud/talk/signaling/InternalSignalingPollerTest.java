@@ -0,0 +1,181 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.nextcloud.talk.signaling;
+
+import com.nextcloud.talk.models.json.signaling.Signaling;
+import com.nextcloud.talk.models.json.signaling.SignalingOCS;
+import com.nextcloud.talk.models.json.signaling.SignalingOverall;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class InternalSignalingPollerTest {
+
+    private TestScheduler testScheduler;
+    private Queue<Observable<SignalingOverall>> responses;
+    private List<List<Signaling>> receivedSignalings;
+    private boolean keepPolling;
+
+    private InternalSignalingPoller internalSignalingPoller;
+
+    @Before
+    public void setUp() {
+        testScheduler = new TestScheduler();
+        responses = new LinkedList<>();
+        receivedSignalings = new ArrayList<>();
+        keepPolling = true;
+
+        Observable<SignalingOverall> pullRequest = Observable.defer(() -> {
+            Observable<SignalingOverall> response = responses.poll();
+            return response != null ? response : Observable.never();
+        });
+
+        internalSignalingPoller = new InternalSignalingPoller(pullRequest,
+                                                              testScheduler,
+                                                              testScheduler,
+                                                              () -> keepPolling,
+                                                              receivedSignalings::add);
+    }
+
+    @Test
+    public void testResponsesWithMessagesArePolledAgainImmediately() {
+        responses.add(response(signaling()));
+        responses.add(response(signaling()));
+
+        internalSignalingPoller.start();
+        testScheduler.triggerActions();
+
+        assertEquals(2, receivedSignalings.size());
+        assertEquals(3, internalSignalingPoller.getRequestCount());
+        assertEquals(0, internalSignalingPoller.getEmptyResponseCount());
+    }
+
+    @Test
+    public void testFastEmptyResponsesIncreaseTheDelay() {
+        responses.add(response());
+        responses.add(response());
+        responses.add(response());
+
+        internalSignalingPoller.start();
+        testScheduler.triggerActions();
+
+        assertEquals(1, internalSignalingPoller.getRequestCount());
+        assertEquals(InternalSignalingPoller.MIN_IDLE_DELAY_MILLIS, internalSignalingPoller.getPollDelayMillis());
+
+        testScheduler.advanceTimeBy(InternalSignalingPoller.MIN_IDLE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, internalSignalingPoller.getRequestCount());
+        assertEquals(2 * InternalSignalingPoller.MIN_IDLE_DELAY_MILLIS, internalSignalingPoller.getPollDelayMillis());
+
+        responses.add(response(signaling()));
+        testScheduler.advanceTimeBy(2 * InternalSignalingPoller.MIN_IDLE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        testScheduler.advanceTimeBy(4 * InternalSignalingPoller.MIN_IDLE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, internalSignalingPoller.getPollDelayMillis());
+        assertEquals(3, internalSignalingPoller.getEmptyResponseCount());
+    }
+
+    @Test
+    public void testHeldEmptyResponsesArePolledAgainImmediately() {
+        responses.add(response().delay(InternalSignalingPoller.FAST_EMPTY_RESPONSE_MILLIS, TimeUnit.MILLISECONDS,
+                                       testScheduler));
+
+        internalSignalingPoller.start();
+        testScheduler.advanceTimeBy(InternalSignalingPoller.FAST_EMPTY_RESPONSE_MILLIS, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, internalSignalingPoller.getPollDelayMillis());
+        assertEquals(2, internalSignalingPoller.getRequestCount());
+        assertEquals(InternalSignalingPoller.FAST_EMPTY_RESPONSE_MILLIS,
+                     internalSignalingPoller.getLastLatencyMillis());
+    }
+
+    @Test
+    public void testErrorsAreRetriedWithBackoff() {
+        responses.add(Observable.error(new IOException()));
+        responses.add(Observable.error(new IOException()));
+
+        internalSignalingPoller.start();
+        testScheduler.triggerActions();
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(2, internalSignalingPoller.getRequestCount());
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(2, internalSignalingPoller.getRequestCount());
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(3, internalSignalingPoller.getRequestCount());
+        assertEquals(2, internalSignalingPoller.getErrorCount());
+    }
+
+    @Test
+    public void testStopWhenNoLongerNeeded() {
+        responses.add(response(signaling()));
+        keepPolling = false;
+
+        internalSignalingPoller.start();
+        testScheduler.triggerActions();
+
+        assertEquals(0, receivedSignalings.size());
+        assertFalse(internalSignalingPoller.isRunning());
+    }
+
+    @Test
+    public void testStopCancelsPendingRequest() {
+        internalSignalingPoller.start();
+        testScheduler.triggerActions();
+
+        internalSignalingPoller.stop();
+        responses.add(response(signaling()));
+        testScheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(1, internalSignalingPoller.getRequestCount());
+        assertFalse(internalSignalingPoller.isRunning());
+    }
+
+    private static Signaling signaling() {
+        return new Signaling("message", "{}");
+    }
+
+    private static Observable<SignalingOverall> response(Signaling... signalings) {
+        SignalingOCS signalingOCS = new SignalingOCS();
+        List<Signaling> signalingList = new ArrayList<>();
+        Collections.addAll(signalingList, signalings);
+        signalingOCS.setSignalings(signalingList);
+        SignalingOverall signalingOverall = new SignalingOverall();
+        signalingOverall.setOcs(signalingOCS);
+        return Observable.just(signalingOverall);
+    }
+}
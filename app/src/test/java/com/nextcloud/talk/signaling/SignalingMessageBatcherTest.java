@@ -0,0 +1,105 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.nextcloud.talk.signaling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.CompletableSubject;
+
+import static org.junit.Assert.assertEquals;
+
+public class SignalingMessageBatcherTest {
+
+    private static final long WINDOW_MILLIS = 50;
+
+    private TestScheduler testScheduler;
+    private List<List<String>> sentBatches;
+    private List<CompletableSubject> pendingRequests;
+
+    private SignalingMessageBatcher signalingMessageBatcher;
+
+    @Before
+    public void setUp() {
+        testScheduler = new TestScheduler();
+        sentBatches = new ArrayList<>();
+        pendingRequests = new ArrayList<>();
+
+        signalingMessageBatcher = new SignalingMessageBatcher(testScheduler, WINDOW_MILLIS, messages -> {
+            sentBatches.add(messages);
+            CompletableSubject request = CompletableSubject.create();
+            pendingRequests.add(request);
+            return request;
+        });
+    }
+
+    @Test
+    public void testMessagesWithinWindowAreSentTogether() {
+        signalingMessageBatcher.add("1");
+        testScheduler.advanceTimeBy(WINDOW_MILLIS - 1, TimeUnit.MILLISECONDS);
+        signalingMessageBatcher.add("2");
+        signalingMessageBatcher.add("3");
+
+        assertEquals(0, sentBatches.size());
+
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(Collections.singletonList(Arrays.asList("1", "2", "3")), sentBatches);
+    }
+
+    @Test
+    public void testMessagesAddedWhileSendingAreSentAfterwardsInOrder() {
+        signalingMessageBatcher.add("1");
+        testScheduler.advanceTimeBy(WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+
+        signalingMessageBatcher.add("2");
+        signalingMessageBatcher.add("3");
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(1, sentBatches.size());
+
+        pendingRequests.get(0).onComplete();
+        testScheduler.triggerActions();
+
+        assertEquals(Arrays.asList(Collections.singletonList("1"), Arrays.asList("2", "3")), sentBatches);
+    }
+
+    @Test
+    public void testNewWindowAfterBatchWasSent() {
+        signalingMessageBatcher.add("1");
+        testScheduler.advanceTimeBy(WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        pendingRequests.get(0).onComplete();
+
+        signalingMessageBatcher.add("2");
+        testScheduler.advanceTimeBy(WINDOW_MILLIS - 1, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, sentBatches.size());
+
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(Arrays.asList(Collections.singletonList("1"), Collections.singletonList("2")), sentBatches);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.chunked
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class AdaptiveChunkSizerTest {
+
+    @Test
+    fun testChunkSizeGrowsAtMostTwicePerChunkUpToTheMaximum() {
+        val chunkSizer = AdaptiveChunkSizer(1000, 10000, 1000)
+
+        assertEquals(1000L, chunkSizer.chunkSize)
+
+        // 100000 bytes per second
+        chunkSizer.onChunkUploaded(1000, 10)
+        assertEquals(2000L, chunkSizer.chunkSize)
+
+        chunkSizer.onChunkUploaded(2000, 20)
+        assertEquals(4000L, chunkSizer.chunkSize)
+
+        chunkSizer.onChunkUploaded(4000, 40)
+        assertEquals(8000L, chunkSizer.chunkSize)
+
+        chunkSizer.onChunkUploaded(8000, 80)
+        assertEquals(10000L, chunkSizer.chunkSize)
+    }
+
+    @Test
+    fun testChunkSizeShrinksOnSlowLinksDownToTheMinimum() {
+        val chunkSizer = AdaptiveChunkSizer(1000, 10000, 1000)
+
+        // 8000 bytes per second
+        chunkSizer.onChunkUploaded(8000, 1000)
+        assertEquals(2000L, chunkSizer.chunkSize)
+
+        // 500 bytes per second, averaged with the previous throughput
+        chunkSizer.onChunkUploaded(1000, 2000)
+        assertEquals(4000L, chunkSizer.chunkSize)
+
+        chunkSizer.onChunkUploaded(100, 1000)
+        chunkSizer.onChunkUploaded(100, 1000)
+        chunkSizer.onChunkUploaded(100, 1000)
+        assertEquals(1000L, chunkSizer.chunkSize)
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.chunked
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class ChunkQueueTest {
+
+    @Test
+    fun testAdjacentChunksAreMergedAndSplitWithTheRequestedSize() {
+        val chunkQueue = ChunkQueue(listOf(Chunk(0, 99), Chunk(100, 199), Chunk(200, 250)))
+
+        assertEquals(Chunk(0, 149), chunkQueue.next(150))
+        assertEquals(Chunk(150, 199), chunkQueue.next(50))
+        assertEquals(Chunk(200, 250), chunkQueue.next(150))
+        assertNull(chunkQueue.next(150))
+    }
+
+    @Test
+    fun testChunksAlreadyOnTheServerAreNotUploadedAgain() {
+        // Chunk(100, 199) is already on the server
+        val chunkQueue = ChunkQueue(listOf(Chunk(0, 99), Chunk(200, 299)))
+
+        assertEquals(Chunk(0, 99), chunkQueue.next(150))
+        assertEquals(Chunk(200, 299), chunkQueue.next(150))
+        assertNull(chunkQueue.next(150))
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.upload.normal
+
+import com.nextcloud.talk.upload.chunked.OnDataTransferProgressListener
+import okio.Buffer
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayInputStream
+
+class StreamingRequestBodyTest {
+
+    @Test
+    fun testContentIsStreamedAgainOnEachWrite() {
+        val content = ByteArray(20000) { it.toByte() }
+        var openCount = 0
+        val requestBody = StreamingRequestBody(null, content.size.toLong(), null) {
+            openCount++
+            ByteArrayInputStream(content)
+        }
+
+        assertEquals(0, openCount)
+
+        val firstAttempt = Buffer()
+        requestBody.writeTo(firstAttempt)
+        val secondAttempt = Buffer()
+        requestBody.writeTo(secondAttempt)
+
+        assertEquals(2, openCount)
+        assertArrayEquals(content, firstAttempt.readByteArray())
+        assertArrayEquals(content, secondAttempt.readByteArray())
+    }
+
+    @Test
+    fun testProgressIsReportedUpToHundredPercent() {
+        val content = ByteArray(20000)
+        val percentages = mutableListOf<Int>()
+        val listener = object : OnDataTransferProgressListener {
+            override fun onTransferProgress(percentage: Int) {
+                percentages.add(percentage)
+            }
+        }
+        val requestBody = StreamingRequestBody(null, content.size.toLong(), listener) {
+            ByteArrayInputStream(content)
+        }
+
+        requestBody.writeTo(Buffer())
+
+        assertEquals(listOf(40, 81, 100), percentages)
+    }
+}
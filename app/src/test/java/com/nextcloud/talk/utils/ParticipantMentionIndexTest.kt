@@ -0,0 +1,75 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils
+
+import com.nextcloud.talk.models.json.participants.Participant
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class ParticipantMentionIndexTest {
+    private val index = ParticipantMentionIndex(
+        listOf(
+            participant(Participant.ActorType.USERS, "admin", "Administrator"),
+            participant(Participant.ActorType.USERS, "alice", "Alice Smith"),
+            participant(Participant.ActorType.USERS, "bob", "Bob Alison"),
+            participant(Participant.ActorType.USERS, "jdoe", "John Doe"),
+            participant(Participant.ActorType.GUESTS, "abc123", "Alfred"),
+            participant(Participant.ActorType.GROUPS, "admins", "Admins")
+        ),
+        "admin"
+    )
+
+    @Test
+    fun testSkipsCurrentUserAndGroups() {
+        assertEquals(4, index.size)
+    }
+
+    @Test
+    fun testPrefixOfDisplayNameComesFirst() {
+        assertEquals(listOf("Alfred", "Alice Smith", "Bob Alison"), index.search("al", 5).map { it.label })
+    }
+
+    @Test
+    fun testSearchByLaterWordAndId() {
+        assertEquals(listOf("alice"), index.search("smi", 5).map { it.id })
+        assertEquals(listOf("jdoe"), index.search("JD", 5).map { it.id })
+    }
+
+    @Test
+    fun testGuestsUseGuestMentionIds() {
+        val guest = index.search("alfred", 5).single()
+
+        assertEquals("guest/abc123", guest.id)
+        assertEquals("guests", guest.source)
+    }
+
+    @Test
+    fun testLimitAndMisses() {
+        assertEquals(2, index.search("", 2).size)
+        assertEquals(0, index.search("zed", 5).size)
+    }
+
+    private fun participant(actorType: Participant.ActorType, actorId: String, displayName: String) =
+        Participant().apply {
+            this.actorType = actorType
+            this.actorId = actorId
+            this.displayName = displayName
+        }
+}
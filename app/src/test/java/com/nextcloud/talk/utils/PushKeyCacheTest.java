@@ -0,0 +1,78 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class PushKeyCacheTest {
+
+    private PushKeyCache pushKeyCache;
+
+    @Before
+    public void setUp() {
+        pushKeyCache = new PushKeyCache();
+    }
+
+    @Test
+    public void testUserPublicKeyIsCachedForTheSameEncodedKey() {
+        PublicKey publicKey = mock(PublicKey.class);
+
+        pushKeyCache.putUserPublicKey(1, "encodedKey", publicKey);
+
+        assertSame(publicKey, pushKeyCache.getUserPublicKey(1, "encodedKey"));
+        assertNull(pushKeyCache.getUserPublicKey(1, "otherEncodedKey"));
+        assertNull(pushKeyCache.getUserPublicKey(2, "encodedKey"));
+    }
+
+    @Test
+    public void testInvalidateUser() {
+        pushKeyCache.putUserPublicKey(1, "encodedKey1", mock(PublicKey.class));
+        PublicKey publicKey2 = mock(PublicKey.class);
+        pushKeyCache.putUserPublicKey(2, "encodedKey2", publicKey2);
+        pushKeyCache.setLastVerifiedUserId(1);
+
+        pushKeyCache.invalidateUser(1);
+
+        assertNull(pushKeyCache.getUserPublicKey(1, "encodedKey1"));
+        assertNull(pushKeyCache.getLastVerifiedUserId());
+        assertSame(publicKey2, pushKeyCache.getUserPublicKey(2, "encodedKey2"));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        pushKeyCache.setDevicePrivateKey(mock(PrivateKey.class));
+        pushKeyCache.putUserPublicKey(1, "encodedKey", mock(PublicKey.class));
+        pushKeyCache.setLastVerifiedUserId(1);
+
+        pushKeyCache.invalidateAll();
+
+        assertNull(pushKeyCache.getDevicePrivateKey());
+        assertNull(pushKeyCache.getUserPublicKey(1, "encodedKey"));
+        assertNull(pushKeyCache.getLastVerifiedUserId());
+    }
+}
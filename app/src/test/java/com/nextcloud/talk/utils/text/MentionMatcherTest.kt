@@ -0,0 +1,60 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.utils.text
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class MentionMatcherTest {
+    @Test
+    fun testFindsAllLabelsIgnoringCase() {
+        val matcher = MentionMatcher(listOf("@Alice", "@Bob"))
+
+        val matches = matcher.findAll("hi @alice and @BOB, and @Alice again")
+
+        assertEquals(listOf(0 to 3, 1 to 14, 0 to 24), matches.map { it.labelIndex to it.start })
+        assertEquals(listOf(9, 18, 30), matches.map { it.end })
+    }
+
+    @Test
+    fun testOverlappingLabelsPreferLongestMatch() {
+        val matcher = MentionMatcher(listOf("@Bob", "@Bob Smith", "@Smith"))
+
+        val matches = matcher.findAll("@Bob Smith and @Bob")
+
+        assertEquals(listOf(1 to 0, 0 to 15), matches.map { it.labelIndex to it.start })
+    }
+
+    @Test
+    fun testLabelsSharingSuffixes() {
+        val matcher = MentionMatcher(listOf("@Anna", "@Hanna"))
+
+        val matches = matcher.findAll("@Hanna @Anna @Hann")
+
+        assertEquals(listOf(1 to 0, 0 to 7), matches.map { it.labelIndex to it.start })
+    }
+
+    @Test
+    fun testNoLabels() {
+        assertTrue(MentionMatcher(emptyList()).findAll("@Alice").isEmpty())
+        assertTrue(MentionMatcher(listOf("@Alice")).findAll("").isEmpty())
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CodecSelectionPolicyTest {
+
+    private static final String SESSION_DESCRIPTION =
+        "v=0\r\n" +
+            "o=- 123 2 IN IP4 127.0.0.1\r\n" +
+            "s=-\r\n" +
+            "t=0 0\r\n" +
+            "m=audio 9 UDP/TLS/RTP/SAVPF 111 63\r\n" +
+            "c=IN IP4 0.0.0.0\r\n" +
+            "a=rtpmap:111 opus/48000/2\r\n" +
+            "a=rtpmap:63 red/48000/2\r\n" +
+            "m=video 9 UDP/TLS/RTP/SAVPF 96 97 98 102 127\r\n" +
+            "c=IN IP4 0.0.0.0\r\n" +
+            "a=rtpmap:96 VP8/90000\r\n" +
+            "a=rtpmap:97 rtx/90000\r\n" +
+            "a=rtpmap:98 VP9/90000\r\n" +
+            "a=rtpmap:102 H264/90000\r\n" +
+            "a=rtpmap:127 H264/90000\r\n";
+
+    private static List<String> getPayloadTypes(String sessionDescription, int mediaSection) {
+        return ParsedSessionDescription.parse(sessionDescription).getMediaSections().get(mediaSection)
+            .getPayloadTypes();
+    }
+
+    @Test
+    public void testPreferredVideoCodecsWithHardwareAcceleration() {
+        assertEquals(Arrays.asList("H264", "VP8", "VP9"),
+                     CodecSelectionPolicy.getPreferredVideoCodecs(true, new HashSet<>(Arrays.asList("VP9", "H264",
+                                                                                                    "VP8"))));
+        assertEquals(Arrays.asList("VP9", "VP8"),
+                     CodecSelectionPolicy.getPreferredVideoCodecs(true, Collections.singleton("VP9")));
+        assertEquals(Collections.singletonList("VP8"),
+                     CodecSelectionPolicy.getPreferredVideoCodecs(true, Collections.emptySet()));
+    }
+
+    @Test
+    public void testPreferredVideoCodecsWithoutHardwareAcceleration() {
+        assertEquals(Collections.singletonList("VP8"),
+                     CodecSelectionPolicy.getPreferredVideoCodecs(false, Collections.singleton("H264")));
+    }
+
+    @Test
+    public void testParseAndSerializeKeepsDescription() {
+        assertEquals(SESSION_DESCRIPTION, ParsedSessionDescription.parse(SESSION_DESCRIPTION).toString());
+    }
+
+    @Test
+    public void testApplyPrefersVideoCodecs() {
+        CodecSelectionPolicy policy = new CodecSelectionPolicy(Arrays.asList("H264", "VP8"), 0, 0);
+
+        String sessionDescription = policy.apply(SESSION_DESCRIPTION);
+
+        assertEquals(Arrays.asList("111", "63"), getPayloadTypes(sessionDescription, 0));
+        assertEquals(Arrays.asList("102", "127", "96", "97", "98"), getPayloadTypes(sessionDescription, 1));
+    }
+
+    @Test
+    public void testApplyWithoutPreferredCodecInDescription() {
+        CodecSelectionPolicy policy = new CodecSelectionPolicy(Collections.singletonList("AV1"), 0, 0);
+
+        assertEquals(SESSION_DESCRIPTION, policy.apply(SESSION_DESCRIPTION));
+    }
+
+    @Test
+    public void testApplyBandwidthLimits() {
+        CodecSelectionPolicy policy = new CodecSelectionPolicy(Collections.singletonList("VP8"), 32, 500);
+
+        String sessionDescription = policy.apply(SESSION_DESCRIPTION);
+
+        assertEquals(SESSION_DESCRIPTION
+                         .replace("a=rtpmap:111", "b=AS:32\r\na=rtpmap:111")
+                         .replace("a=rtpmap:96", "b=AS:500\r\na=rtpmap:96"),
+                     sessionDescription);
+
+        // Applying it again replaces the previous limits
+        assertEquals(sessionDescription, policy.apply(sessionDescription));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class DataChannelMessageCodecTest {
+
+    private DataChannelMessageCodec codec;
+    private DataChannelMessageNotifier notifier;
+    private PeerConnectionWrapper.DataChannelMessageListener listener;
+
+    @Before
+    public void setUp() {
+        codec = new DataChannelMessageCodec();
+        notifier = new DataChannelMessageNotifier();
+        listener = mock(PeerConnectionWrapper.DataChannelMessageListener.class);
+        notifier.addListener(listener);
+    }
+
+    private boolean decode(String message) {
+        return decode(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean decode(byte[] message) {
+        return codec.decode(ByteBuffer.wrap(message), notifier);
+    }
+
+    @Test
+    public void testDecodeEncodedConstants() {
+        assertTrue(decode(DataChannelMessageCodec.AUDIO_ON));
+        assertTrue(decode(DataChannelMessageCodec.AUDIO_OFF));
+        assertTrue(decode(DataChannelMessageCodec.VIDEO_ON));
+        assertTrue(decode(DataChannelMessageCodec.VIDEO_OFF));
+
+        verify(listener).onAudioOn();
+        verify(listener).onAudioOff();
+        verify(listener).onVideoOn();
+        verify(listener).onVideoOff();
+    }
+
+    @Test
+    public void testDecodeEncodedNick() throws IOException {
+        assertTrue(decode(DataChannelMessageCodec.encodeNickChanged("theUserId", "The \"nick\"")));
+
+        verify(listener).onNickChanged("The \"nick\"");
+    }
+
+    @Test
+    public void testDecodeNickAsString() {
+        assertTrue(decode("{\"payload\":\"theNick\",\"type\":\"nickChanged\"}"));
+
+        verify(listener).onNickChanged("theNick");
+    }
+
+    @Test
+    public void testDecodeSkipsUnknownFields() {
+        assertTrue(decode("{\"unknown\":{\"nested\":[1,2]},\"type\":\"nickChanged\"," +
+                              "\"payload\":{\"userid\":\"theUserId\",\"other\":[],\"name\":\"theNick\"}}"));
+
+        verify(listener).onNickChanged("theNick");
+    }
+
+    @Test
+    public void testDecodeMessageLargerThanInitialBuffer() {
+        StringBuilder nick = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            nick.append('a');
+        }
+
+        assertTrue(decode("{\"type\":\"nickChanged\",\"payload\":\"" + nick + "\"}"));
+        assertTrue(decode("{\"type\":\"audioOn\"}"));
+
+        verify(listener).onNickChanged(nick.toString());
+        verify(listener).onAudioOn();
+    }
+
+    @Test
+    public void testDecodeUnknownOrInvalidMessages() {
+        assertFalse(decode("{\"type\":\"speaking\"}"));
+        assertFalse(decode("{\"type\":1}"));
+        assertFalse(decode("{\"payload\":\"theNick\"}"));
+        assertFalse(decode("not json"));
+        assertFalse(decode("[\"audioOn\"]"));
+
+        verifyNoInteractions(listener);
+    }
+}
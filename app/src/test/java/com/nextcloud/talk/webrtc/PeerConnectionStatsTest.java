@@ -0,0 +1,104 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import org.junit.Test;
+import org.webrtc.RTCStats;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PeerConnectionStatsTest {
+
+    private static final long ONE_SECOND_IN_MICROSECONDS = 1_000_000L;
+
+    private static Map<String, RTCStats> report(RTCStats... stats) {
+        Map<String, RTCStats> report = new HashMap<>();
+        for (RTCStats rtcStats : stats) {
+            report.put(rtcStats.getId(), rtcStats);
+        }
+        return report;
+    }
+
+    private static RTCStats stats(long timestampUs, String type, String id, Object... members) {
+        Map<String, Object> membersMap = new HashMap<>();
+        for (int i = 0; i < members.length; i += 2) {
+            membersMap.put((String) members[i], members[i + 1]);
+        }
+        return new RTCStats(timestampUs, type, id, membersMap);
+    }
+
+    private static Map<String, RTCStats> reportAt(long timestampUs,
+                                                  long bytesSent,
+                                                  long bytesReceived,
+                                                  int packetsLost,
+                                                  long packetsReceived) {
+        return report(
+            stats(timestampUs, "outbound-rtp", "out", "kind", "video", "bytesSent",
+                  BigInteger.valueOf(bytesSent), "codecId", "codec"),
+            stats(timestampUs, "inbound-rtp", "in", "kind", "video", "bytesReceived",
+                  BigInteger.valueOf(bytesReceived), "packetsLost", packetsLost, "packetsReceived", packetsReceived,
+                  "jitter", 0.015, "framesDecoded", 300L, "framesDropped", 3L),
+            stats(timestampUs, "candidate-pair", "pair", "nominated", true, "currentRoundTripTime", 0.120,
+                  "availableOutgoingBitrate", 1_500_000.0),
+            stats(timestampUs, "codec", "codec", "mimeType", "video/VP8"));
+    }
+
+    @Test
+    public void testComputeWithoutPreviousReport() {
+        PeerConnectionStats stats = PeerConnectionStats.compute(null, reportAt(0, 1000, 2000, 0, 10));
+
+        assertEquals(0, stats.getSendBitrateKbps());
+        assertEquals(0, stats.getReceiveBitrateKbps());
+        assertEquals(0, stats.getPacketLossPercent(), 0);
+        assertEquals(120, stats.getRoundTripTimeMs());
+        assertEquals(1500, stats.getAvailableOutgoingBitrateKbps());
+        assertEquals(15, stats.getJitterMs());
+        assertEquals(300, stats.getFramesDecoded());
+        assertEquals(3, stats.getFramesDropped());
+        assertEquals("VP8", stats.getVideoCodec());
+    }
+
+    @Test
+    public void testComputeRates() {
+        Map<String, RTCStats> previous = reportAt(0, 0, 0, 0, 0);
+        Map<String, RTCStats> current = reportAt(2 * ONE_SECOND_IN_MICROSECONDS, 250_000, 125_000, 5, 95);
+
+        PeerConnectionStats stats = PeerConnectionStats.compute(previous, current);
+
+        assertEquals(1000, stats.getSendBitrateKbps());
+        assertEquals(500, stats.getReceiveBitrateKbps());
+        assertEquals(5, stats.getPacketLossPercent(), 0.001);
+    }
+
+    @Test
+    public void testComputeWithoutStats() {
+        PeerConnectionStats stats = PeerConnectionStats.compute(null, new HashMap<>());
+
+        assertEquals(PeerConnectionStats.UNKNOWN, stats.getRoundTripTimeMs());
+        assertEquals(PeerConnectionStats.UNKNOWN, stats.getAvailableOutgoingBitrateKbps());
+        assertEquals(PeerConnectionStats.UNKNOWN, stats.getJitterMs());
+        assertNull(stats.getVideoCodec());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc
+
+import io.reactivex.schedulers.TestScheduler
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.Random
+import java.util.concurrent.TimeUnit
+
+class ReconnectSchedulerTest {
+    private val testScheduler = TestScheduler()
+    private var randomValue = 0.0
+    private val random = object : Random() {
+        override fun nextDouble() = randomValue
+    }
+    private var reconnects = 0
+
+    private lateinit var reconnectScheduler: ReconnectScheduler
+
+    @Before
+    fun setUp() {
+        reconnectScheduler = ReconnectScheduler(testScheduler, random) { reconnects++ }
+    }
+
+    @Test
+    fun testDelayGrowsExponentiallyUpToTheCap() {
+        assertEquals(listOf(500L, 1000L, 2000L, 4000L), (0..3).map { reconnectScheduler.getDelay(it) })
+        assertEquals(30000L, reconnectScheduler.getDelay(10))
+        assertEquals(30000L, reconnectScheduler.getDelay(Int.MAX_VALUE))
+
+        randomValue = 1.0
+        assertEquals(60000L, reconnectScheduler.getDelay(10))
+    }
+
+    @Test
+    fun testConsecutiveAttemptsBackOff() {
+        reconnectScheduler.scheduleReconnect()
+        testScheduler.advanceTimeBy(499, TimeUnit.MILLISECONDS)
+        assertEquals(0, reconnects)
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS)
+        assertEquals(1, reconnects)
+
+        reconnectScheduler.scheduleReconnect()
+        testScheduler.advanceTimeBy(999, TimeUnit.MILLISECONDS)
+        assertEquals(1, reconnects)
+        testScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS)
+        assertEquals(2, reconnects)
+    }
+
+    @Test
+    fun testPendingReconnectIsNotScheduledTwice() {
+        reconnectScheduler.scheduleReconnect()
+        reconnectScheduler.scheduleReconnect()
+        testScheduler.advanceTimeBy(1, TimeUnit.MINUTES)
+
+        assertEquals(1, reconnects)
+    }
+
+    @Test
+    fun testConnectedResetsBackoff() {
+        reconnectScheduler.scheduleReconnect()
+        testScheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS)
+        reconnectScheduler.onConnected()
+
+        reconnectScheduler.scheduleReconnect()
+        testScheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS)
+
+        assertEquals(2, reconnects)
+    }
+
+    @Test
+    fun testNoReconnectWithoutNetworkAndImmediateReconnectWhenItReturns() {
+        reconnectScheduler.onNetworkLost()
+        reconnectScheduler.scheduleReconnect()
+        testScheduler.advanceTimeBy(1, TimeUnit.HOURS)
+        assertEquals(0, reconnects)
+
+        reconnectScheduler.onNetworkAvailable()
+        testScheduler.triggerActions()
+        assertEquals(1, reconnects)
+    }
+
+    @Test
+    fun testCancel() {
+        reconnectScheduler.scheduleReconnect()
+        reconnectScheduler.cancel()
+        testScheduler.advanceTimeBy(1, TimeUnit.HOURS)
+
+        assertTrue(reconnects == 0)
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import org.junit.Test;
+
+import static com.nextcloud.talk.webrtc.VideoCaptureProfileManager.Profile;
+import static com.nextcloud.talk.webrtc.VideoCaptureProfileManager.ThermalState;
+import static com.nextcloud.talk.webrtc.VideoCaptureProfileManager.selectProfile;
+import static org.junit.Assert.assertEquals;
+
+public class VideoCaptureProfileManagerTest {
+
+    @Test
+    public void testSelectProfileByParticipantCount() {
+        assertEquals(Profile.HIGH, selectProfile(1, false, ThermalState.NORMAL, 0));
+        assertEquals(Profile.HIGH, selectProfile(2, false, ThermalState.NORMAL, 0));
+        assertEquals(Profile.MEDIUM, selectProfile(4, false, ThermalState.NORMAL, 0));
+        assertEquals(Profile.LOW, selectProfile(8, false, ThermalState.NORMAL, 0));
+        assertEquals(Profile.MINIMAL, selectProfile(9, false, ThermalState.NORMAL, 0));
+    }
+
+    @Test
+    public void testSelectProfileWhenLowPower() {
+        assertEquals(Profile.LOW, selectProfile(2, true, ThermalState.NORMAL, 0));
+        assertEquals(Profile.MINIMAL, selectProfile(9, true, ThermalState.NORMAL, 0));
+    }
+
+    @Test
+    public void testSelectProfileWhenWarmOrHot() {
+        assertEquals(Profile.MEDIUM, selectProfile(2, false, ThermalState.WARM, 0));
+        assertEquals(Profile.MINIMAL, selectProfile(8, false, ThermalState.WARM, 0));
+        assertEquals(Profile.MINIMAL, selectProfile(2, false, ThermalState.HOT, 0));
+    }
+
+    @Test
+    public void testSelectProfileBySlowUplink() {
+        assertEquals(Profile.HIGH, selectProfile(2, false, ThermalState.NORMAL, 10000));
+        assertEquals(Profile.MEDIUM, selectProfile(2, false, ThermalState.NORMAL, 2000));
+        assertEquals(Profile.LOW, selectProfile(2, false, ThermalState.NORMAL, 500));
+        assertEquals(Profile.MINIMAL, selectProfile(2, false, ThermalState.NORMAL, 100));
+        assertEquals(Profile.MINIMAL, selectProfile(9, false, ThermalState.NORMAL, 2000));
+    }
+}
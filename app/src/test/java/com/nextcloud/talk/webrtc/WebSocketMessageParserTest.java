@@ -0,0 +1,90 @@
+/*
+ * Nextcloud Talk application
+ *
+ * Copyright (C) 2023 Nextcloud GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.nextcloud.talk.webrtc;
+
+import com.nextcloud.talk.models.json.websocket.CallOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.ErrorOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.EventOverallWebSocketMessage;
+import com.nextcloud.talk.models.json.websocket.HelloResponseOverallWebSocketMessage;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WebSocketMessageParserTest {
+
+    @Test
+    public void testHelloMessage() throws IOException {
+        WebSocketMessageParser.ParsedMessage parsedMessage = WebSocketMessageParser.parse(
+            "{\"type\":\"hello\",\"hello\":{\"sessionid\":\"theSessionId\",\"resumeid\":\"theResumeId\"," +
+                "\"server\":{\"features\":[\"mcu\"]}}}");
+
+        assertEquals("hello", parsedMessage.type);
+        assertTrue(parsedMessage.message instanceof HelloResponseOverallWebSocketMessage);
+        HelloResponseOverallWebSocketMessage hello = (HelloResponseOverallWebSocketMessage) parsedMessage.message;
+        assertEquals("theSessionId", hello.getHelloResponseWebSocketMessage().getSessionId());
+        assertEquals("theResumeId", hello.getHelloResponseWebSocketMessage().getResumeId());
+    }
+
+    @Test
+    public void testPayloadBeforeType() throws IOException {
+        WebSocketMessageParser.ParsedMessage parsedMessage = WebSocketMessageParser.parse(
+            "{\"id\":\"1\",\"error\":{\"code\":\"no_such_session\",\"message\":\"Expired\"},\"type\":\"error\"}");
+
+        assertEquals("error", parsedMessage.type);
+        ErrorOverallWebSocketMessage error = (ErrorOverallWebSocketMessage) parsedMessage.message;
+        assertEquals("no_such_session", error.getErrorWebSocketMessage().getCode());
+    }
+
+    @Test
+    public void testEventMessage() throws IOException {
+        WebSocketMessageParser.ParsedMessage parsedMessage = WebSocketMessageParser.parse(
+            "{\"type\":\"event\",\"event\":{\"target\":\"participants\",\"type\":\"update\"," +
+                "\"update\":{\"roomid\":\"theToken\",\"users\":[{\"sessionId\":\"theSessionId\",\"inCall\":7}]}}}");
+
+        EventOverallWebSocketMessage event = (EventOverallWebSocketMessage) parsedMessage.message;
+        assertEquals("participants", event.getEventMap().get("target"));
+        assertEquals("update", event.getEventMap().get("type"));
+    }
+
+    @Test
+    public void testCallMessage() throws IOException {
+        WebSocketMessageParser.ParsedMessage parsedMessage = WebSocketMessageParser.parse(
+            "{\"type\":\"message\",\"message\":{\"sender\":{\"type\":\"session\",\"sessionid\":\"theSessionId\"}," +
+                "\"data\":{\"type\":\"offer\",\"roomType\":\"video\"}}}");
+
+        CallOverallWebSocketMessage message = (CallOverallWebSocketMessage) parsedMessage.message;
+        assertEquals("theSessionId", message.getCallWebSocketMessage().getSenderWebSocketMessage().getSessionId());
+        assertEquals("offer", message.getCallWebSocketMessage().getNcSignalingMessage().getType());
+    }
+
+    @Test
+    public void testPayloadNotMatchingTypeIsIgnored() throws IOException {
+        WebSocketMessageParser.ParsedMessage parsedMessage = WebSocketMessageParser.parse(
+            "{\"type\":\"bye\",\"bye\":{},\"room\":{\"roomid\":\"theToken\"}}");
+
+        assertEquals("bye", parsedMessage.type);
+        assertNull(parsedMessage.message);
+    }
+}